@@ -0,0 +1,194 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the hot paths of ConnectFourModelImpl, for every combination of board size
+ * and game phase. The positions are taken from one fixed game that fills the board without a
+ * winner, so every run measures the same positions and no measured move ends the game.
+ *
+ * <p>Run with {@code mvn -P benchmark package} and {@code java -jar target/benchmarks.jar}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConnectFourModelBenchmark {
+  /**
+   * Phase of the game the position is taken from.
+   */
+  public enum Phase {
+    EMPTY(0), MID_GAME(0.5), NEAR_FULL(0.9);
+
+    private final double filled;
+
+    Phase(double filled) {
+      this.filled = filled;
+    }
+  }
+
+  @Param({"6x7", "20x20", "100x100"})
+  public String size;
+
+  @Param({"EMPTY", "MID_GAME", "NEAR_FULL"})
+  public Phase phase;
+
+  private ConnectFourModelImpl model;
+  private int nextColumn;
+
+  /**
+   * Builds the position once per trial by playing the first part of a drawn game.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    String[] dimensions = size.split("x");
+    int rows = Integer.parseInt(dimensions[0]);
+    int columns = Integer.parseInt(dimensions[1]);
+    model = new ConnectFourModelImpl(rows, columns);
+
+    int[] game = drawnGame(rows, columns);
+    int played = (int) (game.length * phase.filled);
+    model.makeMoves(game, 0, played);
+    nextColumn = game[played];
+  }
+
+  /**
+   * Plays a game that fills the whole board without four in a row. The disc at height h of
+   * column c is red when h + c + c / 2 is even, which never lines up four of a color in any
+   * direction. Each move goes to a column whose next cell has the mover's color, preferring one
+   * where the cell above it belongs to the other player so the colors stay available for both.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @return the columns of every move of the game
+   */
+  private static int[] drawnGame(int rows, int columns) {
+    int[] heights = new int[columns];
+    int[] game = new int[rows * columns];
+    for (int move = 0; move < game.length; move++) {
+      int color = move % 2;
+      int fallback = -1;
+      int chosen = -1;
+      for (int column = 0; column < columns && chosen < 0; column++) {
+        int height = heights[column];
+        if (height == rows || colorAt(height, column) != color) {
+          continue;
+        }
+        if (height + 1 < rows && colorAt(height + 1, column) != color) {
+          chosen = column;
+        } else if (fallback < 0) {
+          fallback = column;
+        }
+      }
+      if (chosen < 0) {
+        chosen = fallback;
+      }
+      if (chosen < 0) {
+        throw new IllegalStateException("No drawn game for a " + rows + "x" + columns + " board");
+      }
+      game[move] = chosen;
+      heights[chosen]++;
+    }
+    return game;
+  }
+
+  /**
+   * Retrieves the color of a cell in the drawn game.
+   *
+   * @param height the height of the cell in its column, from the bottom
+   * @param column the column of the cell
+   * @return 0 for red and 1 for yellow
+   */
+  private static int colorAt(int height, int column) {
+    return (height + column + column / 2) % 2;
+  }
+
+  /**
+   * Drops a disc and takes it back, since the position must be the same on every invocation.
+   *
+   * @return the model, so the work cannot be eliminated
+   */
+  @Benchmark
+  public ConnectFourModel makeMove() {
+    model.makeMove(nextColumn);
+    model.undoMove();
+    return model;
+  }
+
+  /**
+   * Reads whether the game is over.
+   *
+   * @return the result, so the work cannot be eliminated
+   */
+  @Benchmark
+  public boolean isGameOver() {
+    return model.isGameOver();
+  }
+
+  /**
+   * Reads the winner.
+   *
+   * @return the result, so the work cannot be eliminated
+   */
+  @Benchmark
+  public Player getWinner() {
+    return model.getWinner();
+  }
+
+  /**
+   * Copies the board out.
+   *
+   * @return the result, so the work cannot be eliminated
+   */
+  @Benchmark
+  public Player[][] getBoardState() {
+    return model.getBoardState();
+  }
+
+  /**
+   * Formats the board as text.
+   *
+   * @return the result, so the work cannot be eliminated
+   */
+  @Benchmark
+  public String toStringBenchmark() {
+    return model.toString();
+  }
+
+  /**
+   * Resets a copy of the position. Copying is part of the measured time, so compare it against
+   * {@link #copy()}.
+   *
+   * @return the reset copy
+   */
+  @Benchmark
+  public ConnectFourModel resetBoard() {
+    ConnectFourModel copy = model.copy();
+    copy.resetBoard();
+    return copy;
+  }
+
+  /**
+   * Copies the position, the baseline of {@link #resetBoard()}.
+   *
+   * @return the copy
+   */
+  @Benchmark
+  public ConnectFourModel copy() {
+    return model.copy();
+  }
+}
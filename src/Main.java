@@ -1,16 +1,33 @@
+import ai.BookPlayer;
+import ai.ComputerPlayer;
+import ai.OpeningBook;
+import ai.ParallelAlphaBetaPlayer;
+import ai.TranspositionTable;
 import controller.ConnectFourController;
 import controller.ConnectFourControllerImpl;
+import java.io.IOException;
+import java.nio.file.Paths;
+import javax.swing.SwingUtilities;
+import metrics.GameMetrics;
 import model.ConnectFourModel;
-import model.ConnectFourModelImpl;
+import model.ConnectFourModelFactory;
+import model.Player;
 import view.ConnectFourView;
 import view.SwingConnectFourView;
 
 /**
  * Run a Connect 4 game interactively on the console. You can make the number of rows and columns
  * configurable by passing them as command-line arguments. It is also OK to hard-code the number of
- * rows and columns to 6 and 7, respectively.
+ * rows and columns to 6 and 7, respectively. An optional third argument (RED or YELLOW) lets the
+ * computer play that side, an optional fourth argument sets its time per move in
+ * milliseconds, and an optional fifth argument is an opening book file for the computer.
+ * Started with {@code -Dconnectfour.metrics=true}, the game publishes its metrics over JMX and
+ * prints them when the program exits.
  */
 public class Main {
+  private static final long TRANSPOSITION_TABLE_BYTES = 64L << 20;
+  private static final long DEADLINE_GRACE_MILLIS = 1000;
+
   public static void main(String[] args) {
     int rows = 6;
     int columns = 7;
@@ -23,9 +40,47 @@ public class Main {
       }
     }
 
-    ConnectFourModel model = new ConnectFourModelImpl(rows, columns);
+    Player computerSide = null;
+    ComputerPlayer computer = null;
+    long timeBudgetMillis = 100;
+    if (args.length >= 3) {
+      try {
+        timeBudgetMillis = args.length >= 4 ? Long.parseLong(args[3]) : timeBudgetMillis;
+        computer = new ParallelAlphaBetaPlayer(timeBudgetMillis,
+            new TranspositionTable(TRANSPOSITION_TABLE_BYTES));
+        computerSide = Player.valueOf(args[2].toUpperCase());
+      } catch (IllegalArgumentException e) {
+        System.out.println("Invalid computer arguments, playing without a computer player.");
+        computerSide = null;
+        timeBudgetMillis = 100;
+      }
+    }
+    if (computerSide != null && args.length >= 5) {
+      try {
+        computer = new BookPlayer(OpeningBook.open(Paths.get(args[4])), computer);
+      } catch (IOException e) {
+        System.out.println("Could not open the opening book, playing without it.");
+      }
+    }
+
+    if (GameMetrics.enabled()) {
+      GameMetrics.registerMBeans();
+      Runtime.getRuntime().addShutdownHook(new Thread(
+          () -> System.out.print(GameMetrics.get().dump()), "metrics-dump"));
+    }
+
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
     ConnectFourView view = new SwingConnectFourView("Connect 4", rows, columns);
-    ConnectFourController controller = new ConnectFourControllerImpl(view, model);
-    controller.playGame(model);
+    // The computer searches in the background and is stopped if it overruns its time budget.
+    ConnectFourController controller = new ConnectFourControllerImpl(view, model,
+        SwingUtilities::invokeLater, timeBudgetMillis + DEADLINE_GRACE_MILLIS);
+    Player side = computerSide;
+    ComputerPlayer player = computer;
+    SwingUtilities.invokeLater(() -> {
+      if (side != null) {
+        controller.setComputerPlayer(side, player);
+      }
+      controller.playGame(model);
+    });
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,378 @@
+import ai.AlphaBetaPlayer;
+import ai.ComputerPlayer;
+import ai.MctsPlayer;
+import ai.RandomPlayer;
+import ai.TranspositionTable;
+import archive.GameRecord;
+import archive.GameRecordWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import journal.MoveJournal;
+import journal.SyncPolicy;
+import metrics.LatencyHistogram;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.Player;
+
+/**
+ * Run a tournament between two computer players without any user interface. The games are
+ * spread over all cores, each game played by single-threaded players, and the first player
+ * alternates between red and yellow. At the end it prints the throughput, the results from the
+ * first player's point of view, the average game length and percentiles of the time taken per
+ * move.
+ *
+ * <p>Usage: {@code java Tournament rows columns games first second [threads [archive
+ * [journals]]]} where each player is {@code random}, {@code alphabeta:millisPerMove} or
+ * {@code mcts:millisPerMove}, and the games are written to the archive file if one is given. If
+ * a journal directory is given, each game is journaled there while it is played, so the games
+ * in progress can be recovered with {@link MoveJournal#recover} if the tournament dies; the
+ * journal of a game is deleted once the game is over.
+ */
+public class Tournament {
+  private static final long TRANSPOSITION_TABLE_BYTES = 16L << 20;
+  private static final SyncPolicy JOURNAL_POLICY = SyncPolicy.everyMillis(100);
+
+  public static void main(String[] args) {
+    if (args.length < 5) {
+      System.out.println("Usage: java Tournament rows columns games first second "
+          + "[threads [archive [journals]]]");
+      System.out.println("Players: random, alphabeta:millisPerMove, mcts:millisPerMove");
+      return;
+    }
+    try {
+      int rows = Integer.parseInt(args[0]);
+      int columns = Integer.parseInt(args[1]);
+      int games = Integer.parseInt(args[2]);
+      int threads = args.length >= 6 ? Integer.parseInt(args[5])
+          : Runtime.getRuntime().availableProcessors();
+      Result result;
+      if (args.length >= 7) {
+        Path journals = args.length >= 8 ? Files.createDirectories(Paths.get(args[7])) : null;
+        try (GameRecordWriter archive =
+            new GameRecordWriter(Files.newOutputStream(Paths.get(args[6])))) {
+          result = play(rows, columns, games, threads, args[3], args[4], archive, journals);
+        }
+      } else {
+        result = play(rows, columns, games, threads, args[3], args[4]);
+      }
+      System.out.printf("%s vs %s on %dx%d, %d threads%n", args[3], args[4], rows, columns,
+          threads);
+      System.out.print(result);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid arguments: " + e.getMessage());
+    } catch (IOException e) {
+      System.out.println("Could not write the archive or journal: " + e.getMessage());
+    } catch (IllegalStateException e) {
+      if (e.getCause() instanceof IOException) {
+        System.out.println("Could not write the archive or journal: " + e.getMessage());
+      } else {
+        System.out.println("The tournament failed: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Plays a tournament. Each thread creates its own pair of players and plays games until all
+   * of them have been played.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @param games   the number of games to play
+   * @param threads the number of games played at once
+   * @param first   the description of the first player
+   * @param second  the description of the second player
+   * @return the results of the tournament
+   * @throws IllegalArgumentException if the board size, number of games or threads, or a player
+   *                                  description is invalid
+   */
+  static Result play(int rows, int columns, int games, int threads, String first, String second)
+      throws IllegalArgumentException {
+    return play(rows, columns, games, threads, first, second, null);
+  }
+
+  /**
+   * Plays a tournament and writes every game to an archive, in the order the games end.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @param games   the number of games to play
+   * @param threads the number of games played at once
+   * @param first   the description of the first player
+   * @param second  the description of the second player
+   * @param archive the writer of the archive, or null to keep no record of the games
+   * @return the results of the tournament
+   * @throws IllegalArgumentException if the board size, number of games or threads, or a player
+   *                                  description is invalid
+   * @throws IllegalStateException    if the archive cannot be written, with the IOException as
+   *                                  its cause, or if a game fails or the wait is interrupted
+   */
+  static Result play(int rows, int columns, int games, int threads, String first, String second,
+      GameRecordWriter archive) throws IllegalArgumentException, IllegalStateException {
+    return play(rows, columns, games, threads, first, second, archive, null);
+  }
+
+  /**
+   * Plays a tournament, writes every game to an archive in the order the games end, and
+   * journals each game while it is played. The journal of game {@code n} is the file
+   * {@code game-n.journal} in the journal directory, and it is deleted once the game is over
+   * and written to the archive.
+   *
+   * @param rows     the number of rows in the game board
+   * @param columns  the number of columns in the game board
+   * @param games    the number of games to play
+   * @param threads  the number of games played at once
+   * @param first    the description of the first player
+   * @param second   the description of the second player
+   * @param archive  the writer of the archive, or null to keep no record of the games
+   * @param journals the directory of the journals, or null to journal no game
+   * @return the results of the tournament
+   * @throws IllegalArgumentException if the board size, number of games or threads, or a player
+   *                                  description is invalid
+   * @throws IllegalStateException    if the archive or a journal cannot be written, with the
+   *                                  IOException as its cause, or if a game fails or the wait
+   *                                  is interrupted
+   */
+  static Result play(int rows, int columns, int games, int threads, String first, String second,
+      GameRecordWriter archive, Path journals)
+      throws IllegalArgumentException, IllegalStateException {
+    if (games <= 0) {
+      throw new IllegalArgumentException("The number of games must be positive");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+
+    AtomicInteger nextGame = new AtomicInteger();
+    LatencyHistogram moveTimes = new LatencyHistogram("moveTime");
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    long start = System.nanoTime();
+    List<Future<Result>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      long seed = i;
+      futures.add(pool.submit(() -> {
+        ComputerPlayer firstPlayer = createPlayer(first, 2 * seed);
+        ComputerPlayer secondPlayer = createPlayer(second, 2 * seed + 1);
+        return playGames(rows, columns, games, nextGame, firstPlayer, secondPlayer, moveTimes,
+            archive, journals);
+      }));
+    }
+
+    Result total = new Result(moveTimes);
+    try {
+      for (Future<Result> future : futures) {
+        total.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the games", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IllegalArgumentException) {
+        throw (IllegalArgumentException) e.getCause();
+      }
+      if (e.getCause() instanceof IOException) {
+        throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+      }
+      if (e.getCause() instanceof UncheckedIOException) {
+        IOException cause = ((UncheckedIOException) e.getCause()).getCause();
+        throw new IllegalStateException(cause.getMessage(), cause);
+      }
+      throw new IllegalStateException("A game failed: " + e.getCause(), e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    total.elapsedNanos = System.nanoTime() - start;
+    return total;
+  }
+
+  /**
+   * Creates a computer player from its description.
+   *
+   * @param description random, alphabeta:millisPerMove or mcts:millisPerMove
+   * @param seed        the seed of any randomness in the player
+   * @return the computer player, searching on the calling thread only
+   * @throws IllegalArgumentException if the description is invalid
+   */
+  static ComputerPlayer createPlayer(String description, long seed)
+      throws IllegalArgumentException {
+    String[] parts = description.split(":");
+    switch (parts[0].toLowerCase()) {
+      case "random":
+        return new RandomPlayer(seed);
+      case "alphabeta":
+        return new AlphaBetaPlayer(parseMillis(parts), Integer.MAX_VALUE,
+            new TranspositionTable(TRANSPOSITION_TABLE_BYTES));
+      case "mcts":
+        return new MctsPlayer(parseMillis(parts), 1, MctsPlayer.DEFAULT_EXPLORATION, seed);
+      default:
+        throw new IllegalArgumentException("Unknown player " + description);
+    }
+  }
+
+  /**
+   * Parses the time per move of a player description.
+   *
+   * @param parts the player description split at colons
+   * @return the time per move in milliseconds
+   * @throws IllegalArgumentException if the time is missing or not a number
+   */
+  private static long parseMillis(String[] parts) throws IllegalArgumentException {
+    if (parts.length != 2) {
+      throw new IllegalArgumentException(parts[0] + " needs a time per move, as in "
+          + parts[0] + ":100");
+    }
+    return Long.parseLong(parts[1]);
+  }
+
+  /**
+   * Plays games until the shared counter reaches the number of games. The first player is red in
+   * even-numbered games and yellow in odd-numbered ones.
+   *
+   * @param rows      the number of rows in the game board
+   * @param columns   the number of columns in the game board
+   * @param games     the number of games in the whole tournament
+   * @param nextGame  the number of the next game to play, shared by all threads
+   * @param first     the first player
+   * @param second    the second player
+   * @param moveTimes the histogram of the time taken per move, shared by all threads
+   * @param archive   the writer of the archive shared by all threads, or null
+   * @param journals  the directory of the journals, or null
+   * @return the results of the games this thread played
+   * @throws IOException if the archive or a journal cannot be written
+   */
+  private static Result playGames(int rows, int columns, int games, AtomicInteger nextGame,
+      ComputerPlayer first, ComputerPlayer second, LatencyHistogram moveTimes,
+      GameRecordWriter archive, Path journals) throws IOException {
+    Result result = new Result(moveTimes);
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    int[] moves = new int[rows * columns];
+    for (int game = nextGame.getAndIncrement(); game < games;
+        game = nextGame.getAndIncrement()) {
+      model.resetBoard();
+      Path journalFile = journals == null ? null : journals.resolve("game-" + game + ".journal");
+      MoveJournal journal = journalFile == null ? null
+          : MoveJournal.attach(model, journalFile, JOURNAL_POLICY);
+      Player firstColor = game % 2 == 0 ? Player.RED : Player.YELLOW;
+      int moveCount = 0;
+      try {
+        while (!model.isGameOver()) {
+          ComputerPlayer mover = model.getTurn() == firstColor ? first : second;
+          long moveStart = System.nanoTime();
+          int column = mover.chooseColumn(model);
+          moveTimes.record(System.nanoTime() - moveStart);
+          result.moves++;
+          model.makeMove(column);
+          moves[moveCount++] = column;
+        }
+        if (archive != null) {
+          GameRecord record = new GameRecord(rows, columns, Arrays.copyOf(moves, moveCount),
+              GameRecord.Outcome.of(model));
+          synchronized (archive) {
+            archive.write(record);
+          }
+        }
+      } finally {
+        if (journal != null) {
+          journal.close();
+        }
+      }
+      if (journalFile != null) {
+        Files.delete(journalFile);
+      }
+
+      result.games++;
+      Player winner = model.getWinner();
+      if (winner == null) {
+        result.draws++;
+      } else if (winner == firstColor) {
+        result.firstWins++;
+      } else {
+        result.secondWins++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Results of a tournament, or of the games one thread played. The time taken per move is
+   * recorded in a {@link LatencyHistogram} shared by all the threads of the tournament, so
+   * percentiles are within about 3% of the true value and memory use does not grow with the
+   * number of moves.
+   */
+  static final class Result {
+    private int games;
+    private int firstWins;
+    private int secondWins;
+    private int draws;
+    private long moves;
+    private final LatencyHistogram moveTimes;
+    private long elapsedNanos;
+
+    private Result(LatencyHistogram moveTimes) {
+      this.moveTimes = moveTimes;
+    }
+
+    private void add(Result other) {
+      games += other.games;
+      firstWins += other.firstWins;
+      secondWins += other.secondWins;
+      draws += other.draws;
+      moves += other.moves;
+    }
+
+    int getGames() {
+      return games;
+    }
+
+    int getFirstWins() {
+      return firstWins;
+    }
+
+    int getSecondWins() {
+      return secondWins;
+    }
+
+    int getDraws() {
+      return draws;
+    }
+
+    double getAverageLength() {
+      return games == 0 ? 0 : (double) moves / games;
+    }
+
+    double getGamesPerSecond() {
+      return games * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    /**
+     * Retrieves a percentile of the time taken per move, as read from the histogram.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the time in nanoseconds, or 0 if no move was made
+     */
+    long getLatencyPercentile(double percentile) {
+      return moveTimes.getPercentileNanos(percentile);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Games: %d in %.2f s (%.1f games/s)%n"
+              + "First player: %d wins, %d draws, %d losses%n"
+              + "Average length: %.1f moves%n"
+              + "Move latency (us): p50 %d, p90 %d, p99 %d, max %d%n",
+          games, elapsedNanos / 1e9, getGamesPerSecond(), firstWins, draws, secondWins,
+          getAverageLength(), getLatencyPercentile(50) / 1000, getLatencyPercentile(90) / 1000,
+          getLatencyPercentile(99) / 1000, getLatencyPercentile(100) / 1000);
+    }
+  }
+}
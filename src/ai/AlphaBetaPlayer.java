@@ -0,0 +1,465 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+import model.ReadOnlyBoard;
+
+/**
+ * Computer player that searches the game tree with negamax and alpha-beta pruning. Columns are
+ * tried from the center outwards, and the search deepens one ply at a time until the time budget
+ * runs out, so a move is always ready within the budget. The search makes and takes back moves
+ * on a copy of the model, so it works on any board size the model supports. An optional
+ * transposition table remembers positions reached by different move orders, and its best moves
+ * are tried first. Positions are stored under their canonical key, so a position and its mirror
+ * image share one entry, with the best move stored for whichever of the two has that key.
+ *
+ * <p>Positions at the search horizon are scored by a {@link ThreatEvaluator} that follows the
+ * search move by move. Boards larger than the evaluator supports are scored 0 at the horizon.
+ */
+public class AlphaBetaPlayer implements ComputerPlayer {
+  /**
+   * Score of a won position. Wins found sooner score higher, by one point per ply.
+   */
+  public static final int WIN_SCORE = 1_000_000;
+
+  private static final int INFINITY = Integer.MAX_VALUE;
+  private static final int NODES_PER_CLOCK_CHECK = 1024;
+
+  private final long timeBudgetNanos;
+  private final int maxDepth;
+  private final TranspositionTable table;
+  private ThreatEvaluator evaluator;
+  private SearchResult lastResult;
+
+  private long nodes;
+  private long deadline;
+  private AtomicBoolean stop;
+  private boolean canAbort;
+  private boolean aborted;
+
+  /**
+   * Constructs a new AlphaBetaPlayer that searches as deep as the time budget allows.
+   *
+   * @param timeBudgetMillis the time allowed for each move, in milliseconds
+   * @throws IllegalArgumentException if the time budget is not positive
+   */
+  public AlphaBetaPlayer(long timeBudgetMillis) throws IllegalArgumentException {
+    this(timeBudgetMillis, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Constructs a new AlphaBetaPlayer that stops at the given depth or when the time budget runs
+   * out, whichever comes first.
+   *
+   * @param timeBudgetMillis the time allowed for each move, in milliseconds
+   * @param maxDepth         the deepest search depth, in plies
+   * @throws IllegalArgumentException if the time budget or the depth is not positive
+   */
+  public AlphaBetaPlayer(long timeBudgetMillis, int maxDepth) throws IllegalArgumentException {
+    this(timeBudgetMillis, maxDepth, null);
+  }
+
+  /**
+   * Constructs a new AlphaBetaPlayer that stores searched positions in a transposition table.
+   *
+   * @param timeBudgetMillis the time allowed for each move, in milliseconds
+   * @param maxDepth         the deepest search depth, in plies
+   * @param table            the transposition table to use, or null to search without one
+   * @throws IllegalArgumentException if the time budget or the depth is not positive
+   */
+  public AlphaBetaPlayer(long timeBudgetMillis, int maxDepth, TranspositionTable table)
+      throws IllegalArgumentException {
+    if (timeBudgetMillis <= 0) {
+      throw new IllegalArgumentException("The time budget must be positive");
+    }
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("The search depth must be positive");
+    }
+    this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    this.maxDepth = maxDepth;
+    this.table = table;
+  }
+
+  /**
+   * Chooses a column by iterative deepening. Each completed depth replaces the best move of the
+   * previous one, and the search stops early once a forced win or loss has been proven. The
+   * first depth is always completed, even if it takes longer than the budget.
+   *
+   * @param model the model of the game in progress
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is already over");
+    }
+
+    return chooseColumn(model, new AtomicBoolean(), null);
+  }
+
+  /**
+   * Chooses a column by iterative deepening, reporting each completed depth to the listener. If
+   * the search is stopped before the first depth is completed, the first column that is not full
+   * in center-first order is returned.
+   *
+   * @param model    the model of the game in progress
+   * @param stop     a flag that ends the search as soon as it is set
+   * @param listener the listener notified of each completed depth, or null
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model or the stop flag is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model, AtomicBoolean stop, SearchListener listener)
+      throws IllegalArgumentException {
+    if (model == null || stop == null) {
+      throw new IllegalArgumentException("Model and stop flag cannot be null");
+    }
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is already over");
+    }
+
+    if (table != null) {
+      table.newSearch();
+    }
+    int column = search(model, 1, stop, listener).getColumn();
+    return column >= 0 ? column : firstOpenColumn(model.getBoard());
+  }
+
+  /**
+   * Searches a position by iterative deepening, starting at the given depth. The search ends
+   * when the time budget runs out, when the stop flag is set, or when a win or loss is proven.
+   * Parallel searches start helpers at different depths and share one stop flag between them.
+   *
+   * @param model      the model of the game in progress, which is not changed
+   * @param firstDepth the first depth to search, in plies
+   * @param stop       a flag that ends the search as soon as it is set
+   * @param listener   the listener notified of each completed depth, or null
+   * @return the result of the deepest completed search, with a column of -1 if no depth was
+   *         completed before the search was stopped
+   */
+  SearchResult search(ConnectFourModel model, int firstDepth, AtomicBoolean stop,
+      SearchListener listener) {
+    long start = System.nanoTime();
+    ConnectFourModel position = model.copy();
+    ReadOnlyBoard board = position.getBoard();
+    int[] order = centerFirstOrder(board.getColumns());
+    int emptyCells = emptyCells(board);
+    prepareEvaluator(board);
+
+    this.nodes = 0;
+    this.deadline = start + timeBudgetNanos;
+    this.stop = stop;
+    this.canAbort = false;
+    this.aborted = false;
+
+    int bestColumn = -1;
+    int bestScore = 0;
+    int completedDepth = 0;
+    for (int depth = firstDepth; depth <= Math.min(maxDepth, emptyCells); depth++) {
+      int[] rootOrder = bestFirst(order, bestColumn);
+      int alpha = -INFINITY;
+      int depthBestColumn = -1;
+      int depthBestScore = -INFINITY;
+      for (int column : rootOrder) {
+        if (board.getColumnHeight(column) == board.getRows()) {
+          continue;
+        }
+        makeMove(position, column);
+        int score = -negamax(position, board, order, depth - 1, 1, -INFINITY, -alpha);
+        undoMove(position, column);
+        if (aborted) {
+          break;
+        }
+        if (score > depthBestScore) {
+          depthBestScore = score;
+          depthBestColumn = column;
+        }
+        alpha = Math.max(alpha, score);
+      }
+      if (aborted) {
+        break;
+      }
+
+      bestColumn = depthBestColumn;
+      bestScore = depthBestScore;
+      completedDepth = depth;
+      canAbort = true;
+      if (listener != null) {
+        listener.depthCompleted(new SearchResult(bestColumn, bestScore, depth, nodes,
+            System.nanoTime() - start));
+      }
+      if (Math.abs(bestScore) >= WIN_SCORE - emptyCells) {
+        break;
+      }
+    }
+
+    lastResult = new SearchResult(bestColumn, bestScore, completedDepth, nodes,
+        System.nanoTime() - start);
+    return lastResult;
+  }
+
+  /**
+   * Retrieves the result of the last search, including how much work it took.
+   *
+   * @return the result of the last call to chooseColumn, or null if no search has been made
+   */
+  @Override
+  public SearchResult getLastResult() {
+    return lastResult;
+  }
+
+  /**
+   * Retrieves the transposition table used by this player.
+   *
+   * @return the transposition table, or null if the player searches without one
+   */
+  public TranspositionTable getTranspositionTable() {
+    return table;
+  }
+
+  /**
+   * Scores a position from the point of view of the player to move, searching the given number
+   * of plies ahead. A loss scores -(WIN_SCORE - ply), a draw scores 0 and positions at the search
+   * horizon get the evaluator's score, or 0 without an evaluator. Positions found in the
+   * transposition table at a sufficient depth are not searched again.
+   *
+   * @param position the position to search, changed during the search and restored afterwards
+   * @param board    the read-only view of the position's board
+   * @param order    the order to try columns in
+   * @param depth    the number of plies left to search
+   * @param ply      the number of plies from the root
+   * @param alpha    the score the player to move is already guaranteed
+   * @param beta     the score the opponent is already guaranteed
+   * @return the score of the position
+   */
+  private int negamax(ConnectFourModel position, ReadOnlyBoard board, int[] order, int depth,
+      int ply, int alpha, int beta) {
+    nodes++;
+    if (nodes % NODES_PER_CLOCK_CHECK == 0
+        && (stop.get() || canAbort && System.nanoTime() > deadline)) {
+      aborted = true;
+    }
+    if (aborted) {
+      return 0;
+    }
+
+    if (position.isGameOver()) {
+      return position.getWinner() == null ? 0 : -(WIN_SCORE - ply);
+    }
+    if (depth == 0) {
+      return evaluator == null ? 0 : evaluator.evaluate(position.getTurn());
+    }
+
+    long key = position.getCanonicalKey();
+    int mirror = key == position.getPositionKey() ? -1 : board.getColumns() - 1;
+    int tableMove = -1;
+    if (table != null) {
+      long entry = table.probe(key);
+      if (entry != TranspositionTable.MISS) {
+        int move = TranspositionTable.move(entry);
+        tableMove = move == TranspositionTable.NO_MOVE ? -1 : mirror < 0 ? move : mirror - move;
+        if (TranspositionTable.depth(entry) >= depth) {
+          int score = fromTable(TranspositionTable.score(entry), ply);
+          int bound = TranspositionTable.bound(entry);
+          if (bound == TranspositionTable.EXACT) {
+            return score;
+          } else if (bound == TranspositionTable.LOWER_BOUND) {
+            alpha = Math.max(alpha, score);
+          } else {
+            beta = Math.min(beta, score);
+          }
+          if (alpha >= beta) {
+            return score;
+          }
+        }
+      }
+    }
+
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = TranspositionTable.NO_MOVE;
+    int rows = board.getRows();
+    for (int i = -1; i < order.length; i++) {
+      int column = i < 0 ? tableMove : order[i];
+      if (column < 0 || (i >= 0 && column == tableMove)
+          || board.getColumnHeight(column) == rows) {
+        continue;
+      }
+      makeMove(position, column);
+      int score = -negamax(position, board, order, depth - 1, ply + 1, -beta, -alpha);
+      undoMove(position, column);
+      if (aborted) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestMove = column;
+        if (best > alpha) {
+          alpha = best;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+
+    if (table != null) {
+      int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+          : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+      if (mirror >= 0 && bestMove != TranspositionTable.NO_MOVE) {
+        bestMove = mirror - bestMove;
+      }
+      table.store(key, toTable(best, ply), depth, bound, bestMove);
+    }
+    return best;
+  }
+
+  /**
+   * Sets the evaluator to the root position, building a new one if the board size changed.
+   *
+   * @param board the board of the root position
+   */
+  private void prepareEvaluator(ReadOnlyBoard board) {
+    int rows = board.getRows();
+    int columns = board.getColumns();
+    if ((long) rows * columns > ThreatEvaluator.MAX_CELLS) {
+      evaluator = null;
+      return;
+    }
+    if (evaluator == null || !evaluator.fits(board)) {
+      evaluator = new ThreatEvaluator(rows, columns);
+    }
+    evaluator.load(board);
+  }
+
+  /**
+   * Makes a move in the search and in the evaluator.
+   *
+   * @param position the position to search
+   * @param column   the column of the move
+   */
+  private void makeMove(ConnectFourModel position, int column) {
+    if (evaluator != null) {
+      evaluator.play(column, position.getTurn());
+    }
+    position.makeMove(column);
+  }
+
+  /**
+   * Takes back a move in the search and in the evaluator.
+   *
+   * @param position the position to search
+   * @param column   the column of the move
+   */
+  private void undoMove(ConnectFourModel position, int column) {
+    position.undoMove();
+    if (evaluator != null) {
+      evaluator.undo(column);
+    }
+  }
+
+  /**
+   * Converts a score to store in the transposition table. Win and loss scores count plies from
+   * the root, so they are stored relative to the position instead.
+   *
+   * @param score the score relative to the root
+   * @param ply   the number of plies from the root
+   * @return the score relative to the position
+   */
+  private static int toTable(int score, int ply) {
+    if (score > WIN_SCORE / 2) {
+      return score + ply;
+    } else if (score < -WIN_SCORE / 2) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  /**
+   * Converts a score read from the transposition table back to a score relative to the root.
+   *
+   * @param score the score relative to the position
+   * @param ply   the number of plies from the root
+   * @return the score relative to the root
+   */
+  private static int fromTable(int score, int ply) {
+    if (score > WIN_SCORE / 2) {
+      return score - ply;
+    } else if (score < -WIN_SCORE / 2) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   * Orders the columns of a board from the center outwards, since central discs take part in
+   * the most lines of four. Ties go to the left column.
+   *
+   * @param columns the number of columns in the board
+   * @return the column indices ordered from the center outwards
+   */
+  static int[] centerFirstOrder(int columns) {
+    int[] order = new int[columns];
+    int center = (columns - 1) / 2;
+    int firstSide = columns % 2 == 0 ? 1 : -1;
+    for (int i = 0; i < columns; i++) {
+      int offset = (i + 1) / 2;
+      order[i] = center + (i % 2 == 1 ? firstSide * offset : -firstSide * offset);
+    }
+    return order;
+  }
+
+  /**
+   * Finds the first column of a board that is not full, from the center outwards.
+   *
+   * @param board the board, which must not be full
+   * @return the column
+   */
+  static int firstOpenColumn(ReadOnlyBoard board) {
+    for (int column : centerFirstOrder(board.getColumns())) {
+      if (board.getColumnHeight(column) < board.getRows()) {
+        return column;
+      }
+    }
+    throw new IllegalStateException("The board is full");
+  }
+
+  /**
+   * Moves a column to the front of a move order, keeping the order of the other columns.
+   *
+   * @param order  the move order
+   * @param column the column to try first, or -1 to keep the order unchanged
+   * @return a new move order starting with the given column
+   */
+  private static int[] bestFirst(int[] order, int column) {
+    int[] result = order.clone();
+    for (int i = 0; i < result.length; i++) {
+      if (result[i] == column) {
+        System.arraycopy(order, 0, result, 1, i);
+        result[0] = column;
+        break;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Counts the empty cells of a board.
+   *
+   * @param board the board to count
+   * @return the number of cells without a disc
+   */
+  private static int emptyCells(ReadOnlyBoard board) {
+    int empty = 0;
+    for (int col = 0; col < board.getColumns(); col++) {
+      empty += board.getRows() - board.getColumnHeight(col);
+    }
+    return empty;
+  }
+}
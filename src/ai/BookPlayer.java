@@ -0,0 +1,85 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+
+/**
+ * Computer player that answers from an opening book while the game is in the book, and hands
+ * the position to another computer player once it is out of book.
+ */
+public class BookPlayer implements ComputerPlayer {
+  private final OpeningBook book;
+  private final ComputerPlayer fallback;
+  private SearchResult lastResult;
+
+  /**
+   * Constructs a new BookPlayer.
+   *
+   * @param book     the opening book to answer from
+   * @param fallback the computer player searching positions that are not in the book
+   * @throws IllegalArgumentException if the book or the fallback is null
+   */
+  public BookPlayer(OpeningBook book, ComputerPlayer fallback) throws IllegalArgumentException {
+    if (book == null || fallback == null) {
+      throw new IllegalArgumentException("Book and fallback player cannot be null");
+    }
+    this.book = book;
+    this.fallback = fallback;
+  }
+
+  /**
+   * Chooses the book move of the position, or searches with the fallback player if the position
+   * is not in the book. A book move is reported as a search of depth 0 without any nodes.
+   *
+   * @param model the model of the game in progress
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model) throws IllegalArgumentException {
+    return chooseColumn(model, new AtomicBoolean(), null);
+  }
+
+  /**
+   * Chooses the book move of the position, or searches with the fallback player, passing it the
+   * stop flag and the listener, if the position is not in the book.
+   *
+   * @param model    the model of the game in progress
+   * @param stop     a flag that ends the fallback player's search as soon as it is set
+   * @param listener the listener notified of each depth the fallback player completes, or null
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model or the stop flag is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model, AtomicBoolean stop, SearchListener listener)
+      throws IllegalArgumentException {
+    if (model == null || stop == null) {
+      throw new IllegalArgumentException("Model and stop flag cannot be null");
+    }
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is already over");
+    }
+
+    long start = System.nanoTime();
+    int column = book.lookup(model);
+    if (column >= 0) {
+      lastResult = new SearchResult(column, 0, 0, 0, System.nanoTime() - start);
+      return column;
+    }
+    column = fallback.chooseColumn(model, stop, listener);
+    lastResult = fallback.getLastResult();
+    return column;
+  }
+
+  /**
+   * Retrieves the result of the last move, either a book move or the fallback player's search.
+   *
+   * @return the result of the last call to chooseColumn, or null if no move has been chosen
+   */
+  @Override
+  public SearchResult getLastResult() {
+    return lastResult;
+  }
+}
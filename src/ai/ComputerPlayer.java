@@ -0,0 +1,51 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+
+/**
+ * Interface for a computer opponent in the Connect Four game. A computer player picks a column
+ * for the player whose turn it is, and can be plugged into the controller as either player.
+ */
+public interface ComputerPlayer {
+
+  /**
+   * Chooses a column to drop the disc at for the player whose turn it is. The given model is not
+   * changed.
+   *
+   * @param model the model of the game in progress
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  int chooseColumn(ConnectFourModel model) throws IllegalArgumentException;
+
+  /**
+   * Chooses a column like {@link #chooseColumn(ConnectFourModel)}, but can be stopped from
+   * another thread and reports its progress on the way. Players that deepen their search one ply
+   * at a time report each completed depth, and once the stop flag is set they return the best
+   * column found so far. By default the flag and the listener are ignored and the player takes
+   * its usual time.
+   *
+   * @param model    the model of the game in progress
+   * @param stop     a flag that ends the search as soon as it is set
+   * @param listener the listener notified of each completed depth, or null
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model or the stop flag is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  default int chooseColumn(ConnectFourModel model, AtomicBoolean stop, SearchListener listener)
+      throws IllegalArgumentException {
+    if (stop == null) {
+      throw new IllegalArgumentException("Stop flag cannot be null");
+    }
+    return chooseColumn(model);
+  }
+
+  /**
+   * Retrieves the result of the last search, including how much work it took.
+   *
+   * @return the result of the last call to chooseColumn, or null if no search has been made
+   */
+  SearchResult getLastResult();
+}
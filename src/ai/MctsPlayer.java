@@ -0,0 +1,438 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+import model.Player;
+import model.ReadOnlyBoard;
+
+/**
+ * Computer player that chooses columns by Monte Carlo tree search with the UCT selection rule.
+ * Instead of searching every move to a fixed depth, it plays many random games to the end and
+ * grows a tree towards the moves that win most often, which scales to boards far too large for
+ * alpha-beta search.
+ *
+ * <p>The search is root-parallel: every thread grows its own tree on its own copy of the model
+ * until the time budget runs out, and the visit counts of the root moves are added up at the end.
+ * The most visited column is played, and of columns visited equally often the one with the best
+ * win rate. Playouts make and undo moves on the thread's model copy, so they do not copy the
+ * board. The node count of the result is the number of playouts.
+ *
+ * <p>Moves are added to a node progressively, center first: a node with n visits has at most
+ * 1 + sqrt(n) children. On wide boards, where a budget may not allow even one playout per
+ * column, the search then compares a few moves played many times instead of many moves played
+ * once each.
+ *
+ * <p>A search with a stop flag ends once the playout in progress on each thread is over, and
+ * plays the most visited column so far. Its listener is sent the best column of the caller's
+ * tree about every 100 ms, since the trees of the other threads are only added up at the end.
+ */
+public class MctsPlayer implements ComputerPlayer {
+  /**
+   * Default exploration constant of the UCT rule.
+   */
+  public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+  private static final int PLAYOUTS_PER_CLOCK_CHECK = 64;
+  private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L;
+
+  private final long timeBudgetNanos;
+  private final int threads;
+  private final double exploration;
+  private final ExecutorService helpers;
+  private final SplittableRandom seeds;
+  private SearchResult lastResult;
+
+  /**
+   * Constructs a new MctsPlayer that uses every available core.
+   *
+   * @param timeBudgetMillis the time allowed for each move, in milliseconds
+   * @throws IllegalArgumentException if the time budget is not positive
+   */
+  public MctsPlayer(long timeBudgetMillis) throws IllegalArgumentException {
+    this(timeBudgetMillis, Runtime.getRuntime().availableProcessors(), DEFAULT_EXPLORATION,
+        System.nanoTime());
+  }
+
+  /**
+   * Constructs a new MctsPlayer.
+   *
+   * @param timeBudgetMillis the time allowed for each move, in milliseconds
+   * @param threads          the number of threads playing out games, including the caller
+   * @param exploration      the exploration constant of the UCT rule
+   * @param seed             the seed of the random playouts
+   * @throws IllegalArgumentException if the time budget, the number of threads or the
+   *                                  exploration constant is not positive
+   */
+  public MctsPlayer(long timeBudgetMillis, int threads, double exploration, long seed)
+      throws IllegalArgumentException {
+    if (timeBudgetMillis <= 0) {
+      throw new IllegalArgumentException("The time budget must be positive");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+    if (exploration <= 0) {
+      throw new IllegalArgumentException("The exploration constant must be positive");
+    }
+    this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    this.threads = threads;
+    this.exploration = exploration;
+    this.seeds = new SplittableRandom(seed);
+    this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+      Thread thread = new Thread(runnable, "mcts-helper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Chooses the most visited root column after growing one tree per thread for the time budget.
+   *
+   * @param model the model of the game in progress
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model) throws IllegalArgumentException {
+    return chooseColumn(model, new AtomicBoolean(), null);
+  }
+
+  /**
+   * Chooses the most visited root column after growing one tree per thread until the time
+   * budget runs out or the stop flag is set, reporting the progress of the caller's tree to the
+   * listener on the way.
+   *
+   * @param model    the model of the game in progress
+   * @param stop     a flag that ends the search as soon as it is set
+   * @param listener the listener notified of the progress of the search, or null
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model or the stop flag is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model, AtomicBoolean stop, SearchListener listener)
+      throws IllegalArgumentException {
+    if (model == null || stop == null) {
+      throw new IllegalArgumentException("Model and stop flag cannot be null");
+    }
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is already over");
+    }
+
+    long start = System.nanoTime();
+    long deadline = start + timeBudgetNanos;
+    List<Future<Node>> futures = new ArrayList<>();
+    for (int i = 1; i < threads; i++) {
+      SplittableRandom random = seeds.split();
+      futures.add(helpers.submit(() -> grow(model, start, deadline, stop, random, null)));
+    }
+    Node root = grow(model, start, deadline, stop, seeds.split(), listener);
+
+    int columns = model.getBoard().getColumns();
+    long[] visits = new long[columns];
+    double[] wins = new double[columns];
+    long playouts = addRootStatistics(root, visits, wins);
+    int depth = root.height();
+    for (Future<Node> future : futures) {
+      Node helperRoot = join(future);
+      playouts += addRootStatistics(helperRoot, visits, wins);
+      depth = Math.max(depth, helperRoot.height());
+    }
+
+    lastResult = summarize(visits, wins, depth, playouts, System.nanoTime() - start);
+    return lastResult.getColumn();
+  }
+
+  /**
+   * Retrieves the result of the last search. The node count is the number of playouts over all
+   * threads, the depth is the height of the deepest tree, and the score is the win rate of the
+   * chosen column scaled to -1000 (always lost) to 1000 (always won).
+   *
+   * @return the result of the last call to chooseColumn, or null if no search has been made
+   */
+  @Override
+  public SearchResult getLastResult() {
+    return lastResult;
+  }
+
+  /**
+   * Retrieves the playout throughput of the last search.
+   *
+   * @return the number of playouts per second, or 0 if no search has been made
+   */
+  public long getPlayoutsPerSecond() {
+    return lastResult == null ? 0 : lastResult.getNodesPerSecond();
+  }
+
+  /**
+   * Stops the helper threads. The player cannot be used afterwards.
+   */
+  public void shutdown() {
+    if (helpers != null) {
+      helpers.shutdownNow();
+    }
+  }
+
+  /**
+   * Grows a search tree from the given position until the deadline. At least one playout is
+   * always made, so the tree has a root move. The clock is read after the first playout and then
+   * after every PLAYOUTS_PER_CLOCK_CHECK playouts, so a spent budget ends the search after one
+   * playout. The stop flag is read after every playout.
+   *
+   * @param model    the model of the game in progress, which is not changed
+   * @param start    the value of System.nanoTime at which the search started
+   * @param deadline the value of System.nanoTime at which to stop
+   * @param stop     a flag that ends the search as soon as it is set
+   * @param random   the source of the random playouts
+   * @param listener the listener sent the best column of this tree about every
+   *                 PROGRESS_INTERVAL_NANOS, or null
+   * @return the root of the tree
+   */
+  private Node grow(ConnectFourModel model, long start, long deadline, AtomicBoolean stop,
+      SplittableRandom random, SearchListener listener) {
+    ConnectFourModel position = model.copy();
+    ReadOnlyBoard board = position.getBoard();
+    int[] order = AlphaBetaPlayer.centerFirstOrder(board.getColumns());
+    Player rootMover = position.getTurn() == Player.RED ? Player.YELLOW : Player.RED;
+    Node root = new Node(-1, rootMover, board.getColumns());
+    List<Node> path = new ArrayList<>();
+
+    long playouts = 0;
+    long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+    long now = start;
+    do {
+      path.clear();
+      Node node = root;
+      path.add(node);
+
+      // Selection: follow the UCT rule while the node cannot have another child.
+      while (!position.isGameOver() && node.isFullyExpanded(board, order)) {
+        node = node.select(exploration);
+        position.makeMove(node.column);
+        path.add(node);
+      }
+
+      // Expansion: add the next untried move, center first.
+      if (!position.isGameOver()) {
+        int column = node.nextUntried(board, order);
+        position.makeMove(column);
+        node = node.addChild(column, position.getTurn() == Player.RED
+            ? Player.YELLOW : Player.RED);
+        path.add(node);
+      }
+
+      // Simulation and backpropagation.
+      Player winner = playOut(position, board, random);
+      for (Node visited : path) {
+        visited.visits++;
+        if (winner == null) {
+          visited.wins += 0.5;
+        } else if (winner == visited.mover) {
+          visited.wins += 1;
+        }
+      }
+      for (int i = 1; i < path.size(); i++) {
+        position.undoMove();
+      }
+      playouts++;
+      if (playouts != 1 && playouts % PLAYOUTS_PER_CLOCK_CHECK != 0) {
+        continue;
+      }
+      now = System.nanoTime();
+      if (listener != null && now >= nextProgress) {
+        nextProgress = now + PROGRESS_INTERVAL_NANOS;
+        listener.depthCompleted(summarize(root, now - start));
+      }
+    } while (now < deadline && !stop.get());
+    return root;
+  }
+
+  /**
+   * Plays random moves until the game is over, then takes them all back.
+   *
+   * @param position the position to play out, restored afterwards
+   * @param board    the read-only view of the position's board
+   * @param random   the source of the random moves
+   * @return the winner of the played-out game, or null if it was a draw
+   */
+  private static Player playOut(ConnectFourModel position, ReadOnlyBoard board,
+      SplittableRandom random) {
+    int columns = board.getColumns();
+    int rows = board.getRows();
+    int moves = 0;
+    while (!position.isGameOver()) {
+      int column = random.nextInt(columns);
+      while (board.getColumnHeight(column) == rows) {
+        column = column + 1 == columns ? 0 : column + 1;
+      }
+      position.makeMove(column);
+      moves++;
+    }
+    Player winner = position.getWinner();
+    for (int i = 0; i < moves; i++) {
+      position.undoMove();
+    }
+    return winner;
+  }
+
+  /**
+   * Summarizes a single tree as a search result.
+   *
+   * @param root         the root of the tree
+   * @param elapsedNanos the time the search has taken so far
+   * @return the most visited column of the tree and its score
+   */
+  private static SearchResult summarize(Node root, long elapsedNanos) {
+    int columns = root.children.length;
+    long[] visits = new long[columns];
+    double[] wins = new double[columns];
+    long playouts = addRootStatistics(root, visits, wins);
+    return summarize(visits, wins, root.height(), playouts, elapsedNanos);
+  }
+
+  /**
+   * Builds a search result from the visits and wins of the root columns. The chosen column is
+   * the most visited one, ties going to the better win rate, and its score is its win rate
+   * scaled to -1000 to 1000.
+   *
+   * @param visits       the visits of each root column
+   * @param wins         the wins of each root column
+   * @param depth        the height of the deepest tree
+   * @param playouts     the number of playouts
+   * @param elapsedNanos the time the search has taken
+   * @return the result of the search
+   */
+  private static SearchResult summarize(long[] visits, double[] wins, int depth, long playouts,
+      long elapsedNanos) {
+    int bestColumn = -1;
+    for (int column = 0; column < visits.length; column++) {
+      if (visits[column] > 0 && (bestColumn < 0 || visits[column] > visits[bestColumn]
+          || visits[column] == visits[bestColumn]
+          && wins[column] / visits[column] > wins[bestColumn] / visits[bestColumn])) {
+        bestColumn = column;
+      }
+    }
+    int score = (int) Math.round(1000 * (2 * wins[bestColumn] / visits[bestColumn] - 1));
+    return new SearchResult(bestColumn, score, depth, playouts, elapsedNanos);
+  }
+
+  /**
+   * Adds the visits and wins of a tree's root moves to the totals.
+   *
+   * @param root   the root of the tree
+   * @param visits the visits of each root column so far
+   * @param wins   the wins of each root column so far
+   * @return the number of playouts in the tree
+   */
+  private static long addRootStatistics(Node root, long[] visits, double[] wins) {
+    for (Node child : root.children) {
+      if (child != null) {
+        visits[child.column] += child.visits;
+        wins[child.column] += child.wins;
+      }
+    }
+    return root.visits;
+  }
+
+  /**
+   * Waits for a helper tree to finish growing.
+   *
+   * @param future the helper search
+   * @return the root of the helper's tree
+   * @throws IllegalStateException if the helper failed or the wait was interrupted
+   */
+  private static Node join(Future<Node> future) throws IllegalStateException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a helper search", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A helper search failed", e.getCause());
+    }
+  }
+
+  /**
+   * Node of a search tree. Wins are counted for the player who made the move leading to the
+   * node, with draws counting as half a win.
+   */
+  private static final class Node {
+    private final int column;
+    private final Player mover;
+    private final Node[] children;
+    private int tried;
+    private int expanded;
+    private long visits;
+    private double wins;
+
+    private Node(int column, Player mover, int columns) {
+      this.column = column;
+      this.mover = mover;
+      this.children = new Node[columns];
+    }
+
+    /**
+     * Tells whether the node may not have another child yet: either every move has been tried,
+     * or the node has as many children as its visits allow.
+     */
+    private boolean isFullyExpanded(ReadOnlyBoard board, int[] order) {
+      skipFullColumns(board, order);
+      return tried == order.length || expanded > Math.sqrt(visits);
+    }
+
+    private int nextUntried(ReadOnlyBoard board, int[] order) {
+      skipFullColumns(board, order);
+      return order[tried];
+    }
+
+    private void skipFullColumns(ReadOnlyBoard board, int[] order) {
+      while (tried < order.length && board.getColumnHeight(order[tried]) == board.getRows()) {
+        tried++;
+      }
+    }
+
+    private Node addChild(int column, Player childMover) {
+      Node child = new Node(column, childMover, children.length);
+      children[column] = child;
+      tried++;
+      expanded++;
+      return child;
+    }
+
+    private Node select(double exploration) {
+      double logVisits = Math.log(visits);
+      Node best = null;
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (Node child : children) {
+        if (child == null) {
+          continue;
+        }
+        double value = child.wins / child.visits
+            + exploration * Math.sqrt(logVisits / child.visits);
+        if (value > bestValue) {
+          bestValue = value;
+          best = child;
+        }
+      }
+      return best;
+    }
+
+    private int height() {
+      int height = 0;
+      for (Node child : children) {
+        if (child != null) {
+          height = Math.max(height, child.height() + 1);
+        }
+      }
+      return height;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import model.ConnectFourModel;
+import model.ReadOnlyBoard;
+
+/**
+ * Opening book read from a file written by {@link OpeningBookGenerator}. The file is memory-mapped
+ * and searched in place, so opening a book of any size takes constant time and heap.
+ *
+ * <p>The file starts with a 16-byte header: the magic number, the format version, the number of
+ * rows and columns of the board, the number of plies the book covers and the number of entries.
+ * It is followed by the entries, each a position key and the best column for that position, sorted
+ * by key so they can be binary searched. All values are big-endian.
+ *
+ * <p>Since version 2 the keys are canonical keys, see {@link ConnectFourModel#getCanonicalKey()},
+ * so a position and its mirror image share one entry. The column is the best column of the
+ * position whose key was stored, and is mirrored when the other position is looked up.
+ */
+public class OpeningBook {
+  static final int MAGIC = 0x4334424B;
+  static final short VERSION = 2;
+  static final int HEADER_BYTES = 16;
+  static final int ENTRY_BYTES = Long.BYTES + Short.BYTES;
+
+  private final MappedByteBuffer buffer;
+  private final int rows;
+  private final int columns;
+  private final int plies;
+  private final int entries;
+
+  /**
+   * Constructs a new OpeningBook from a mapped file whose header has been checked.
+   *
+   * @param buffer the mapped file
+   */
+  private OpeningBook(MappedByteBuffer buffer) {
+    this.buffer = buffer;
+    this.rows = buffer.getShort(6);
+    this.columns = buffer.getShort(8);
+    this.plies = buffer.getShort(10);
+    this.entries = buffer.getInt(12);
+  }
+
+  /**
+   * Opens an opening book file by memory-mapping it.
+   *
+   * @param file the book file
+   * @return the opening book
+   * @throws IOException if the file cannot be read or is not an opening book
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+        throw new IOException(file + " is not an opening book");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+        throw new IOException(file + " is not an opening book");
+      }
+      if (HEADER_BYTES + (long) buffer.getInt(12) * ENTRY_BYTES != size) {
+        throw new IOException(file + " is truncated");
+      }
+      return new OpeningBook(buffer);
+    }
+  }
+
+  /**
+   * Looks up the best column for a position.
+   *
+   * @param model the model of the game in progress
+   * @return the best column, or -1 if the position is not in the book or the board size differs
+   */
+  public int lookup(ConnectFourModel model) {
+    ReadOnlyBoard board = model.getBoard();
+    if (board.getRows() != rows || board.getColumns() != columns || model.isGameOver()) {
+      return -1;
+    }
+    long key = model.getCanonicalKey();
+    int index = find(key);
+    if (index < 0) {
+      return -1;
+    }
+    int column = buffer.getShort(HEADER_BYTES + index * ENTRY_BYTES + Long.BYTES);
+    if (key != model.getPositionKey()) {
+      column = columns - 1 - column;
+    }
+    return board.getColumnHeight(column) < rows ? column : -1;
+  }
+
+  /**
+   * Binary searches the entries for a key.
+   *
+   * @param key the position key
+   * @return the index of the entry, or -1 if there is none
+   */
+  private int find(long key) {
+    int low = 0;
+    int high = entries - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midKey = buffer.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+      if (midKey < key) {
+        low = mid + 1;
+      } else if (midKey > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Retrieves the number of rows of the board the book was generated for.
+   *
+   * @return the number of rows
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Retrieves the number of columns of the board the book was generated for.
+   *
+   * @return the number of columns
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Retrieves the number of plies the book covers.
+   *
+   * @return the largest number of moves played in a position of the book
+   */
+  public int getPlies() {
+    return plies;
+  }
+
+  /**
+   * Retrieves the number of positions in the book.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return entries;
+  }
+}
@@ -0,0 +1,159 @@
+package ai;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.ReadOnlyBoard;
+
+/**
+ * Generates opening books. Every position reachable within a given number of plies is searched
+ * once, positions reached by different move orders or mirroring an earlier position are only
+ * searched the first time, and the best column of each is written to a file that
+ * {@link OpeningBook} can map.
+ *
+ * <p>Usage: {@code java ai.OpeningBookGenerator rows columns plies millisPerPosition file}
+ */
+public final class OpeningBookGenerator {
+
+  /**
+   * Not instantiable, use the static methods.
+   */
+  private OpeningBookGenerator() {
+  }
+
+  /**
+   * Searches every position up to the given number of plies and writes the book file.
+   *
+   * @param rows     the number of rows in the game board
+   * @param columns  the number of columns in the game board
+   * @param plies    the largest number of moves played in a position of the book
+   * @param searcher the computer player choosing the best column of each position
+   * @param file     the book file to write
+   * @return the number of positions in the book
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if the board size or number of plies is invalid
+   */
+  public static int generate(int rows, int columns, int plies, ComputerPlayer searcher, Path file)
+      throws IOException, IllegalArgumentException {
+    if (plies < 0 || plies > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("The number of plies must be between 0 and "
+          + Short.MAX_VALUE);
+    }
+    if (searcher == null) {
+      throw new IllegalArgumentException("Searcher cannot be null");
+    }
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    Map<Long, Short> bestMoves = new HashMap<>();
+    collect(model, plies, searcher, bestMoves);
+    write(rows, columns, plies, bestMoves, file);
+    return bestMoves.size();
+  }
+
+  /**
+   * Searches the current position and every position reachable from it within the remaining
+   * plies, skipping positions that have already been searched or whose mirror image has.
+   *
+   * @param model     the model, changed during the walk and restored afterwards
+   * @param plies     the number of plies left to walk
+   * @param searcher  the computer player choosing the best column of each position
+   * @param bestMoves the best column of each position searched so far, by canonical key, for
+   *                  the position that has that key
+   */
+  private static void collect(ConnectFourModel model, int plies, ComputerPlayer searcher,
+      Map<Long, Short> bestMoves) {
+    long key = model.getCanonicalKey();
+    if (model.isGameOver() || bestMoves.containsKey(key)) {
+      return;
+    }
+    int best = searcher.chooseColumn(model);
+    if (key != model.getPositionKey()) {
+      best = model.getBoard().getColumns() - 1 - best;
+    }
+    bestMoves.put(key, (short) best);
+    if (plies == 0) {
+      return;
+    }
+
+    ReadOnlyBoard board = model.getBoard();
+    for (int column = 0; column < board.getColumns(); column++) {
+      if (board.getColumnHeight(column) < board.getRows()) {
+        model.makeMove(column);
+        collect(model, plies - 1, searcher, bestMoves);
+        model.undoMove();
+      }
+    }
+  }
+
+  /**
+   * Writes the book file with its entries sorted by position key.
+   *
+   * @param rows      the number of rows in the game board
+   * @param columns   the number of columns in the game board
+   * @param plies     the number of plies the book covers
+   * @param bestMoves the best column of each position, by position key
+   * @param file      the book file to write
+   * @throws IOException if the file cannot be written
+   */
+  private static void write(int rows, int columns, int plies, Map<Long, Short> bestMoves,
+      Path file) throws IOException {
+    long[] keys = new long[bestMoves.size()];
+    int index = 0;
+    for (long key : bestMoves.keySet()) {
+      keys[index++] = key;
+    }
+    Arrays.sort(keys);
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(OpeningBook.MAGIC);
+      out.writeShort(OpeningBook.VERSION);
+      out.writeShort(rows);
+      out.writeShort(columns);
+      out.writeShort(plies);
+      out.writeInt(keys.length);
+      for (long key : keys) {
+        out.writeLong(key);
+        out.writeShort(bestMoves.get(key));
+      }
+    }
+  }
+
+  /**
+   * Generates an opening book from the command line.
+   *
+   * @param args rows, columns, plies, search time per position in milliseconds, and the file
+   */
+  public static void main(String[] args) {
+    if (args.length < 5) {
+      System.out.println("Usage: java ai.OpeningBookGenerator rows columns plies "
+          + "millisPerPosition file");
+      return;
+    }
+    try {
+      int rows = Integer.parseInt(args[0]);
+      int columns = Integer.parseInt(args[1]);
+      int plies = Integer.parseInt(args[2]);
+      long millisPerPosition = Long.parseLong(args[3]);
+      Path file = Paths.get(args[4]);
+
+      ComputerPlayer searcher = new AlphaBetaPlayer(millisPerPosition, Integer.MAX_VALUE,
+          new TranspositionTable(256L << 20));
+      long start = System.nanoTime();
+      int positions = generate(rows, columns, plies, searcher, file);
+      System.out.printf("Wrote %d positions to %s in %d s%n", positions, file,
+          (System.nanoTime() - start) / 1_000_000_000L);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid arguments: " + e.getMessage());
+    } catch (IOException e) {
+      System.out.println("Could not write the book: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+
+/**
+ * Computer player that runs one alpha-beta search on several cores at once, Lazy SMP style.
+ * Every thread runs its own iterative-deepening search of the same position on its own copy of
+ * the model, and all of them share one transposition table. The threads do not split the tree
+ * explicitly; instead each one finds the entries the others have stored, so together they reach
+ * a given depth sooner than one thread alone. Half of the helper threads start one ply deeper
+ * than the main thread, which spreads them over different parts of the tree.
+ *
+ * <p>The main thread decides when the search ends. Once it has finished, the helpers are stopped
+ * and the deepest completed result of any thread is played.
+ */
+public class ParallelAlphaBetaPlayer implements ComputerPlayer {
+  private final AlphaBetaPlayer[] searchers;
+  private final TranspositionTable table;
+  private final ExecutorService helpers;
+  private SearchResult lastResult;
+
+  /**
+   * Constructs a new ParallelAlphaBetaPlayer that uses every available core.
+   *
+   * @param timeBudgetMillis the time allowed for each move, in milliseconds
+   * @param table            the transposition table shared by all threads
+   * @throws IllegalArgumentException if the time budget is not positive or the table is null
+   */
+  public ParallelAlphaBetaPlayer(long timeBudgetMillis, TranspositionTable table)
+      throws IllegalArgumentException {
+    this(timeBudgetMillis, Integer.MAX_VALUE, Runtime.getRuntime().availableProcessors(), table);
+  }
+
+  /**
+   * Constructs a new ParallelAlphaBetaPlayer with a fixed number of threads.
+   *
+   * @param timeBudgetMillis the time allowed for each move, in milliseconds
+   * @param maxDepth         the deepest search depth, in plies
+   * @param threads          the number of threads searching, including the calling thread
+   * @param table            the transposition table shared by all threads
+   * @throws IllegalArgumentException if the time budget, depth or number of threads is not
+   *                                  positive, or the table is null
+   */
+  public ParallelAlphaBetaPlayer(long timeBudgetMillis, int maxDepth, int threads,
+      TranspositionTable table) throws IllegalArgumentException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+    if (table == null) {
+      throw new IllegalArgumentException("Parallel search needs a shared transposition table");
+    }
+    this.table = table;
+    this.searchers = new AlphaBetaPlayer[threads];
+    for (int i = 0; i < threads; i++) {
+      searchers[i] = new AlphaBetaPlayer(timeBudgetMillis, maxDepth, table);
+    }
+    this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+      Thread thread = new Thread(runnable, "alpha-beta-helper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Chooses a column by searching the position on all threads at once. The calling thread runs
+   * the main search, and returns once it and every helper have stopped.
+   *
+   * @param model the model of the game in progress
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model) throws IllegalArgumentException {
+    return chooseColumn(model, new AtomicBoolean(), null);
+  }
+
+  /**
+   * Chooses a column by searching the position on all threads at once, reporting each depth
+   * the main thread completes to the listener. Setting the stop flag ends the main search, which
+   * then stops the helpers. If no thread completed a depth, the first column that is not full in
+   * center-first order is returned.
+   *
+   * @param model    the model of the game in progress
+   * @param stop     a flag that ends the search as soon as it is set
+   * @param listener the listener notified of each completed depth, or null
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model or the stop flag is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model, AtomicBoolean stop, SearchListener listener)
+      throws IllegalArgumentException {
+    if (model == null || stop == null) {
+      throw new IllegalArgumentException("Model and stop flag cannot be null");
+    }
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is already over");
+    }
+
+    long start = System.nanoTime();
+    table.newSearch();
+    AtomicBoolean helpersStop = new AtomicBoolean();
+    List<Future<SearchResult>> futures = new ArrayList<>();
+    for (int i = 1; i < searchers.length; i++) {
+      AlphaBetaPlayer helper = searchers[i];
+      int firstDepth = 1 + i % 2;
+      futures.add(helpers.submit(() -> helper.search(model, firstDepth, helpersStop, null)));
+    }
+
+    SearchResult best = searchers[0].search(model, 1, stop, listener);
+    helpersStop.set(true);
+
+    long nodes = best.getNodes();
+    for (Future<SearchResult> future : futures) {
+      SearchResult result = join(future);
+      nodes += result.getNodes();
+      if (result.getDepth() > best.getDepth()) {
+        best = result;
+      }
+    }
+
+    int column = best.getColumn() >= 0 ? best.getColumn()
+        : AlphaBetaPlayer.firstOpenColumn(model.getBoard());
+    lastResult = new SearchResult(column, best.getScore(), best.getDepth(), nodes,
+        System.nanoTime() - start);
+    return column;
+  }
+
+  /**
+   * Retrieves the result of the last search. The node count is the total over all threads.
+   *
+   * @return the result of the last call to chooseColumn, or null if no search has been made
+   */
+  @Override
+  public SearchResult getLastResult() {
+    return lastResult;
+  }
+
+  /**
+   * Retrieves the number of threads searching.
+   *
+   * @return the number of threads, including the calling thread
+   */
+  public int getThreads() {
+    return searchers.length;
+  }
+
+  /**
+   * Stops the helper threads. The player cannot be used afterwards.
+   */
+  public void shutdown() {
+    if (helpers != null) {
+      helpers.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for a helper search to finish.
+   *
+   * @param future the helper search
+   * @return the result of the helper search
+   * @throws IllegalStateException if the helper search failed or the wait was interrupted
+   */
+  private static SearchResult join(Future<SearchResult> future) throws IllegalStateException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a helper search", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A helper search failed", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package ai;
+
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+
+/**
+ * Command-line benchmark for the parallel search. It searches a few opening positions to a fixed
+ * depth with 1, 2, 4, ... threads, each time with a fresh transposition table, and prints the
+ * time taken and the speedup against the one-thread baseline.
+ *
+ * <p>Usage: {@code java ai.ParallelSearchBenchmark [rows columns depth maxThreads tableMegabytes]}
+ * which defaults to a 6x7 board, depth 14, every available core and a 256 MB table.
+ */
+public final class ParallelSearchBenchmark {
+  private static final long NO_TIME_LIMIT_MILLIS = 3_600_000L;
+
+  /**
+   * Not instantiable, run main instead.
+   */
+  private ParallelSearchBenchmark() {
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional rows, columns, depth, maximum number of threads and table size in MB
+   */
+  public static void main(String[] args) {
+    int rows = 6;
+    int columns = 7;
+    int depth = 14;
+    int maxThreads = Runtime.getRuntime().availableProcessors();
+    long tableMegabytes = 256;
+    try {
+      if (args.length >= 2) {
+        rows = Integer.parseInt(args[0]);
+        columns = Integer.parseInt(args[1]);
+      }
+      if (args.length >= 3) {
+        depth = Integer.parseInt(args[2]);
+      }
+      if (args.length >= 4) {
+        maxThreads = Integer.parseInt(args[3]);
+      }
+      if (args.length >= 5) {
+        tableMegabytes = Long.parseLong(args[4]);
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Invalid arguments, using the defaults.");
+    }
+
+    int center = columns / 2;
+    int[][] openings = {{}, {center}, {center, center}, {center, center - 1}};
+    TranspositionTable table = new TranspositionTable(tableMegabytes << 20);
+
+    System.out.printf("Board %dx%d, depth %d, %d positions, %d MB table%n",
+        rows, columns, depth, openings.length, tableMegabytes);
+    System.out.printf("%8s %12s %14s %14s %8s%n", "threads", "time (ms)", "nodes", "nodes/s",
+        "speedup");
+    measure(rows, columns, depth, 1, table, openings);
+    double baselineNanos = 0;
+    for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+      long[] measured = measure(rows, columns, depth, threads, table, openings);
+      long elapsedNanos = measured[0];
+      long nodes = measured[1];
+      if (threads == 1) {
+        baselineNanos = elapsedNanos;
+      }
+      System.out.printf("%8d %12d %14d %14d %8.2f%n", threads, elapsedNanos / 1_000_000, nodes,
+          (long) (nodes * 1e9 / Math.max(1, elapsedNanos)), baselineNanos / elapsedNanos);
+    }
+  }
+
+  /**
+   * Searches every opening with a fresh table. The first call also warms up the JIT compiler.
+   *
+   * @param rows     the number of rows in the game board
+   * @param columns  the number of columns in the game board
+   * @param depth    the depth to search, in plies
+   * @param threads  the number of threads searching
+   * @param table    the transposition table, cleared before each opening
+   * @param openings the moves leading to each position to search
+   * @return the total search time in nanoseconds and the total number of nodes
+   */
+  private static long[] measure(int rows, int columns, int depth, int threads,
+      TranspositionTable table, int[][] openings) {
+    ParallelAlphaBetaPlayer player =
+        new ParallelAlphaBetaPlayer(NO_TIME_LIMIT_MILLIS, depth, threads, table);
+    long elapsedNanos = 0;
+    long nodes = 0;
+    for (int[] opening : openings) {
+      table.clear();
+      ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+      for (int column : opening) {
+        model.makeMove(column);
+      }
+      player.chooseColumn(model);
+      elapsedNanos += player.getLastResult().getElapsedNanos();
+      nodes += player.getLastResult().getNodes();
+    }
+    player.shutdown();
+    return new long[] {elapsedNanos, nodes};
+  }
+
+  /**
+   * Doubles the number of threads, making sure the maximum itself is also measured.
+   *
+   * @param threads    the number of threads just measured
+   * @param maxThreads the largest number of threads to measure
+   * @return the next number of threads to measure, or more than maxThreads when done
+   */
+  private static int nextThreadCount(int threads, int maxThreads) {
+    if (threads < maxThreads && threads * 2 > maxThreads) {
+      return maxThreads;
+    }
+    return threads * 2;
+  }
+}
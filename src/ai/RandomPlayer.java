@@ -0,0 +1,67 @@
+package ai;
+
+import java.util.SplittableRandom;
+import model.ConnectFourModel;
+import model.ReadOnlyBoard;
+
+/**
+ * Computer player that drops its disc in a random column that is not full. It is the weakest
+ * possible opponent, useful as a baseline when measuring the strength of the other players.
+ */
+public class RandomPlayer implements ComputerPlayer {
+  private final SplittableRandom random;
+  private SearchResult lastResult;
+
+  /**
+   * Constructs a new RandomPlayer.
+   *
+   * @param seed the seed of the random columns
+   */
+  public RandomPlayer(long seed) {
+    this.random = new SplittableRandom(seed);
+  }
+
+  /**
+   * Chooses a random column that is not full. Every such column is equally likely.
+   *
+   * @param model the model of the game in progress
+   * @return a column that is not full
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public int chooseColumn(ConnectFourModel model) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is already over");
+    }
+
+    long start = System.nanoTime();
+    ReadOnlyBoard board = model.getBoard();
+    int open = 0;
+    for (int column = 0; column < board.getColumns(); column++) {
+      if (board.getColumnHeight(column) < board.getRows()) {
+        open++;
+      }
+    }
+    int pick = random.nextInt(open);
+    int column = 0;
+    while (board.getColumnHeight(column) == board.getRows() || pick-- > 0) {
+      column++;
+    }
+    lastResult = new SearchResult(column, 0, 0, 1, System.nanoTime() - start);
+    return column;
+  }
+
+  /**
+   * Retrieves the last move. It is reported as a search of depth 0 that visited one node.
+   *
+   * @return the result of the last call to chooseColumn, or null if no move has been chosen
+   */
+  @Override
+  public SearchResult getLastResult() {
+    return lastResult;
+  }
+}
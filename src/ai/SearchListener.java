@@ -0,0 +1,19 @@
+package ai;
+
+/**
+ * Listener notified of the progress of a computer player's search. A search that deepens one ply
+ * at a time reports the best move of each depth as soon as the depth is completed, and a Monte
+ * Carlo tree search reports its best move so far at regular intervals, so a user interface can
+ * show what the computer is thinking while it thinks.
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+  /**
+   * Called on the searching thread each time a depth of the search is completed.
+   *
+   * @param result the best column and score of the completed depth, with the nodes searched and
+   *               the time taken so far
+   */
+  void depthCompleted(SearchResult result);
+}
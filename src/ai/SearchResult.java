@@ -0,0 +1,94 @@
+package ai;
+
+/**
+ * Result of a computer player's search for a move. Besides the chosen column it records how deep
+ * the search went and how much work it did, so engine throughput can be tracked over time.
+ */
+public final class SearchResult {
+  private final int column;
+  private final int score;
+  private final int depth;
+  private final long nodes;
+  private final long elapsedNanos;
+
+  /**
+   * Constructs a new SearchResult.
+   *
+   * @param column       the chosen column
+   * @param score        the score of the chosen column from the mover's point of view
+   * @param depth        the deepest completed search depth, in plies
+   * @param nodes        the number of positions visited
+   * @param elapsedNanos the time the search took, in nanoseconds
+   */
+  public SearchResult(int column, int score, int depth, long nodes, long elapsedNanos) {
+    this.column = column;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Retrieves the chosen column.
+   *
+   * @return the chosen column
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * Retrieves the score of the chosen column from the point of view of the player to move.
+   * Positive scores favour the player to move.
+   *
+   * @return the score of the chosen column
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Retrieves the deepest search depth that was completed.
+   *
+   * @return the completed depth, in plies
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Retrieves the number of positions visited by the search.
+   *
+   * @return the number of nodes searched
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Retrieves the time the search took.
+   *
+   * @return the elapsed time, in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Retrieves the search throughput.
+   *
+   * @return the number of nodes searched per second
+   */
+  public long getNodesPerSecond() {
+    if (elapsedNanos <= 0) {
+      return 0;
+    }
+    return (long) (nodes * 1_000_000_000.0 / elapsedNanos);
+  }
+
+  @Override
+  public String toString() {
+    return "column " + column + ", score " + score + ", depth " + depth + ", " + nodes
+        + " nodes in " + (elapsedNanos / 1_000_000) + " ms (" + getNodesPerSecond() + " nodes/s)";
+  }
+}
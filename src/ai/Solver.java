@@ -0,0 +1,692 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.Player;
+import model.ReadOnlyBoard;
+
+/**
+ * Solves Connect Four positions exactly: with perfect play from both sides, who wins and how
+ * soon. It is far too slow to play with on large boards, but on boards up to 6x7 and 7x6 it gives
+ * the ground truth that the heuristic players can be graded against.
+ *
+ * <p>The score of a position is 0 for a draw, and for a win one more than half the number of
+ * cells still empty after the winning disc, rounded down; it is positive when the player to move
+ * wins and negative when the opponent does. A faster win scores higher, so the score tells both
+ * the outcome and the distance to the end.
+ *
+ * <p>The search works on its own bitboards, with a spare bit on top of each column so that the
+ * legal moves and a unique position key come from a few additions and masks. The score is found
+ * by a series of null-window searches that each only ask whether the score is above a given
+ * value, bisecting the range of possible scores in the style of MTD(f). Each search only tries
+ * moves that do not hand the opponent an immediate win, answers a forced move at once, and tries
+ * first the moves that create the most winning cells of their own. Bounds are kept in a
+ * {@link TranspositionTable}.
+ *
+ * <p>Several threads can solve the same position at once, Lazy SMP style as in
+ * {@link ParallelAlphaBetaPlayer}: every thread runs the full search with its own tie-breaking
+ * order of the columns, and they share the table. The calling thread's answer is returned.
+ *
+ * <p>Usage: {@code java ai.Solver [rows columns [moves [threads]]]} where moves lists the columns
+ * played so far from 1, such as {@code 4453}, or is {@code -} for the empty board.
+ */
+public class Solver {
+  private static final int NODES_PER_STOP_CHECK = 4096;
+
+  private final TranspositionTable table;
+  private final ExecutorService helpers;
+  private final int threads;
+
+  /**
+   * Constructs a new Solver that searches on the calling thread only.
+   *
+   * @param table the transposition table for the search
+   * @throws IllegalArgumentException if the table is null
+   */
+  public Solver(TranspositionTable table) throws IllegalArgumentException {
+    this(table, 1);
+  }
+
+  /**
+   * Constructs a new Solver that searches on several threads at once.
+   *
+   * @param table   the transposition table shared by all threads
+   * @param threads the number of threads searching, including the calling thread
+   * @throws IllegalArgumentException if the table is null or the number of threads is not
+   *                                  positive
+   */
+  public Solver(TranspositionTable table, int threads) throws IllegalArgumentException {
+    if (table == null) {
+      throw new IllegalArgumentException("Table cannot be null");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+    this.table = table;
+    this.threads = threads;
+    this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+      Thread thread = new Thread(runnable, "solver-helper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Checks whether positions on a board of the given size can be solved.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @return true if every column with its spare bit fits in 64 bits, false otherwise
+   */
+  public static boolean fits(int rows, int columns) {
+    return rows >= 4 && columns >= 4 && (long) (rows + 1) * columns <= Long.SIZE;
+  }
+
+  /**
+   * Solves the position of a model. The model is not changed.
+   *
+   * @param model the model of the position to solve
+   * @return the exact score of the position and the work it took
+   * @throws IllegalArgumentException if the model is null or its board is too large
+   * @throws IllegalStateException    if the game is already over
+   */
+  public Solution solve(ConnectFourModel model)
+      throws IllegalArgumentException, IllegalStateException {
+    long start = System.nanoTime();
+    Search search = prepare(model);
+    table.newSearch();
+    long[] nodes = new long[1];
+    int score = solveInParallel(search, search.current, search.mask, search.moves, nodes);
+    return new Solution(score, search.moves, search.cells, model.getTurn(), nodes[0],
+        System.nanoTime() - start);
+  }
+
+  /**
+   * Solves every move of a position, which tells not only how good the position is but how good
+   * each move is. The model is not changed.
+   *
+   * @param model the model of the position to solve
+   * @return the score of each column from the point of view of the player to move, with
+   *         Integer.MIN_VALUE for full columns
+   * @throws IllegalArgumentException if the model is null or its board is too large
+   * @throws IllegalStateException    if the game is already over
+   */
+  public int[] solveColumns(ConnectFourModel model)
+      throws IllegalArgumentException, IllegalStateException {
+    Search search = prepare(model);
+    table.newSearch();
+    int[] scores = new int[search.columns];
+    long[] nodes = new long[1];
+    long possible = search.possible(search.mask);
+    for (int column = 0; column < search.columns; column++) {
+      long move = possible & search.columnMask(column);
+      if (move == 0) {
+        scores[column] = Integer.MIN_VALUE;
+      } else if ((search.winningCells(search.current, search.mask) & move) != 0) {
+        scores[column] = (search.cells + 1 - search.moves) / 2;
+      } else {
+        long mask = search.mask | move;
+        long current = search.current ^ search.mask;
+        scores[column] = -solveInParallel(search, current, mask, search.moves + 1, nodes);
+      }
+    }
+    return scores;
+  }
+
+  /**
+   * Retrieves the number of threads searching.
+   *
+   * @return the number of threads, including the calling thread
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Stops the helper threads. The solver cannot be used on several threads afterwards.
+   */
+  public void shutdown() {
+    if (helpers != null) {
+      helpers.shutdownNow();
+    }
+  }
+
+  /**
+   * Checks a model and builds the bitboards of its position.
+   *
+   * @param model the model of the position to solve
+   * @return a search of the position on the calling thread
+   * @throws IllegalArgumentException if the model is null or its board is too large
+   * @throws IllegalStateException    if the game is already over
+   */
+  private Search prepare(ConnectFourModel model)
+      throws IllegalArgumentException, IllegalStateException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    ReadOnlyBoard board = model.getBoard();
+    if (!fits(board.getRows(), board.getColumns())) {
+      throw new IllegalArgumentException("Cannot solve a " + board.getRows() + "x"
+          + board.getColumns() + " board, the columns do not fit in 64 bits");
+    }
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is already over");
+    }
+    return new Search(board, model.getTurn(), 0, null);
+  }
+
+  /**
+   * Solves a position on every thread and returns the calling thread's answer.
+   *
+   * @param main    the search on the calling thread
+   * @param current the discs of the player to move
+   * @param mask    every disc on the board
+   * @param moves   the number of discs on the board
+   * @param nodes   the total node count, added to
+   * @return the score of the position
+   */
+  private int solveInParallel(Search main, long current, long mask, int moves, long[] nodes) {
+    AtomicBoolean stop = new AtomicBoolean();
+    List<Search> searches = new ArrayList<>();
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (int i = 1; i < threads; i++) {
+      Search helper = new Search(main, i, stop);
+      searches.add(helper);
+      futures.add(helpers.submit(() -> helper.solve(current, mask, moves)));
+    }
+
+    int score = main.solve(current, mask, moves);
+    stop.set(true);
+    nodes[0] += main.nodes;
+    main.nodes = 0;
+    for (int i = 0; i < futures.size(); i++) {
+      join(futures.get(i));
+      nodes[0] += searches.get(i).nodes;
+    }
+    return score;
+  }
+
+  /**
+   * Waits for a helper search to finish.
+   *
+   * @param future the helper search
+   * @throws IllegalStateException if the helper search failed or the wait was interrupted
+   */
+  private static void join(Future<Integer> future) throws IllegalStateException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a helper search", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A helper search failed", e.getCause());
+    }
+  }
+
+  /**
+   * The search of one thread. Discs are stored column by column from the bottom, each column
+   * taking rows + 1 bits so that the bit above a full column is always empty.
+   */
+  private final class Search {
+    private final int rows;
+    private final int columns;
+    private final int cells;
+    private final long bottomMask;
+    private final long boardMask;
+    private final long sizeKey;
+    private final int[] order;
+    private final AtomicBoolean stop;
+    private final long[][] candidates;
+    private final int[][] candidateScores;
+    private long current;
+    private long mask;
+    private int moves;
+    private long nodes;
+    private boolean aborted;
+
+    /**
+     * Constructs a new Search of a model's position.
+     *
+     * @param board  the board of the position
+     * @param turn   the player to move
+     * @param rotate how many places the tie-breaking column order is rotated
+     * @param stop   the flag that stops a helper search, or null for the main search
+     */
+    private Search(ReadOnlyBoard board, Player turn, int rotate, AtomicBoolean stop) {
+      this.rows = board.getRows();
+      this.columns = board.getColumns();
+      this.cells = rows * columns;
+      long bottom = 0;
+      for (int column = 0; column < columns; column++) {
+        bottom |= 1L << (column * (rows + 1));
+      }
+      this.bottomMask = bottom;
+      this.boardMask = bottom * ((1L << rows) - 1);
+      // The same bits mean different positions on different boards, and the table outlives a
+      // search, so the board size is mixed into every key.
+      this.sizeKey = hash(rows * 64L + columns);
+      int[] centerFirst = AlphaBetaPlayer.centerFirstOrder(columns);
+      this.order = new int[columns];
+      for (int i = 0; i < columns; i++) {
+        order[i] = centerFirst[(i + rotate) % columns];
+      }
+      this.stop = stop;
+      this.candidates = new long[cells + 1][columns];
+      this.candidateScores = new int[cells + 1][columns];
+
+      for (int column = 0; column < columns; column++) {
+        for (int height = 0; height < board.getColumnHeight(column); height++) {
+          long bit = 1L << (column * (rows + 1) + height);
+          mask |= bit;
+          moves++;
+          if (board.getCell(rows - 1 - height, column) == turn) {
+            current |= bit;
+          }
+        }
+      }
+    }
+
+    /**
+     * Constructs a helper search of the same position as another search.
+     *
+     * @param main   the main search
+     * @param rotate how many places the tie-breaking column order is rotated
+     * @param stop   the flag that stops the helper search
+     */
+    private Search(Search main, int rotate, AtomicBoolean stop) {
+      this.rows = main.rows;
+      this.columns = main.columns;
+      this.cells = main.cells;
+      this.bottomMask = main.bottomMask;
+      this.boardMask = main.boardMask;
+      this.sizeKey = main.sizeKey;
+      this.order = new int[columns];
+      for (int i = 0; i < columns; i++) {
+        order[i] = main.order[(i + rotate) % columns];
+      }
+      this.stop = stop;
+      this.candidates = new long[cells + 1][columns];
+      this.candidateScores = new int[cells + 1][columns];
+    }
+
+    /**
+     * Finds the exact score of a position by narrowing the range of possible scores with
+     * null-window searches, trying the score half way between the bounds first and 0 as soon
+     * as it lies within them.
+     *
+     * @param current the discs of the player to move
+     * @param mask    every disc on the board
+     * @param moves   the number of discs on the board
+     * @return the score, or 0 if a helper search was stopped
+     */
+    private int solve(long current, long mask, int moves) {
+      aborted = false;
+      nodes++;
+      if ((winningCells(current, mask) & possible(mask)) != 0) {
+        return (cells + 1 - moves) / 2;
+      }
+      int min = -(cells - moves) / 2;
+      int max = (cells + 1 - moves) / 2;
+      while (min < max && !aborted) {
+        int middle = min + (max - min) / 2;
+        if (middle <= 0 && min / 2 < middle) {
+          middle = min / 2;
+        } else if (middle >= 0 && max / 2 > middle) {
+          middle = max / 2;
+        }
+        int score = negamax(current, mask, moves, middle, middle + 1);
+        if (score <= middle) {
+          max = score;
+        } else {
+          min = score;
+        }
+      }
+      return aborted ? 0 : min;
+    }
+
+    /**
+     * Searches a position with a null window. The player to move must not have a winning move,
+     * since those are found before the search goes deeper.
+     *
+     * @param current the discs of the player to move
+     * @param mask    every disc on the board
+     * @param moves   the number of discs on the board
+     * @param alpha   the lower end of the window
+     * @param beta    the upper end of the window, alpha + 1
+     * @return the score if it lies in the window, otherwise a bound on the score on the same
+     *         side of the window
+     */
+    private int negamax(long current, long mask, int moves, int alpha, int beta) {
+      nodes++;
+      if (stop != null && nodes % NODES_PER_STOP_CHECK == 0 && stop.get()) {
+        aborted = true;
+      }
+      if (aborted) {
+        return 0;
+      }
+
+      long next = nonLosingMoves(current, mask);
+      if (next == 0) {
+        return -(cells - moves) / 2;
+      }
+      if (moves >= cells - 2) {
+        return 0;
+      }
+
+      int min = -(cells - 2 - moves) / 2;
+      if (alpha < min) {
+        alpha = min;
+        if (alpha >= beta) {
+          return alpha;
+        }
+      }
+      int max = (cells - 1 - moves) / 2;
+      long key = hash((current + mask) ^ sizeKey);
+      int tableMove = -1;
+      long entry = table.probe(key);
+      if (entry != TranspositionTable.MISS) {
+        int score = TranspositionTable.score(entry);
+        if (TranspositionTable.bound(entry) == TranspositionTable.LOWER_BOUND) {
+          int move = TranspositionTable.move(entry);
+          tableMove = move == TranspositionTable.NO_MOVE ? -1 : move;
+          if (alpha < score) {
+            alpha = score;
+            if (alpha >= beta) {
+              return alpha;
+            }
+          }
+        } else if (max > score) {
+          max = score;
+        }
+      }
+      if (beta > max) {
+        beta = max;
+        if (alpha >= beta) {
+          return beta;
+        }
+      }
+
+      long[] moveBits = candidates[moves];
+      int[] moveScores = candidateScores[moves];
+      int count = 0;
+      for (int column : order) {
+        long move = next & columnMask(column);
+        if (move == 0) {
+          continue;
+        }
+        int score = column == tableMove ? Integer.MAX_VALUE
+            : Long.bitCount(winningCells(current | move, mask));
+        int i = count++;
+        while (i > 0 && moveScores[i - 1] < score) {
+          moveBits[i] = moveBits[i - 1];
+          moveScores[i] = moveScores[i - 1];
+          i--;
+        }
+        moveBits[i] = move;
+        moveScores[i] = score;
+      }
+
+      for (int i = 0; i < count; i++) {
+        long move = moveBits[i];
+        int score = -negamax(current ^ mask, mask | move, moves + 1, -beta, -alpha);
+        if (aborted) {
+          return 0;
+        }
+        if (score >= beta) {
+          table.store(key, score, cells - moves, TranspositionTable.LOWER_BOUND,
+              Long.numberOfTrailingZeros(move) / (rows + 1));
+          return score;
+        }
+        if (score > alpha) {
+          alpha = score;
+        }
+      }
+      table.store(key, alpha, cells - moves, TranspositionTable.UPPER_BOUND,
+          TranspositionTable.NO_MOVE);
+      return alpha;
+    }
+
+    /**
+     * Finds the moves that do not let the opponent win at once. If the opponent threatens to
+     * win in one place, that is the only such move; if in two, there is none.
+     *
+     * @param current the discs of the player to move
+     * @param mask    every disc on the board
+     * @return one bit for each move that does not lose at once
+     */
+    private long nonLosingMoves(long current, long mask) {
+      long possible = possible(mask);
+      long opponentWins = winningCells(current ^ mask, mask);
+      long forced = possible & opponentWins;
+      if (forced != 0) {
+        if ((forced & (forced - 1)) != 0) {
+          return 0;
+        }
+        possible = forced;
+      }
+      return possible & ~(opponentWins >>> 1);
+    }
+
+    /**
+     * Finds the empty cells that would complete four in a row for a player, whether or not they
+     * can be played yet.
+     *
+     * @param position the discs of the player
+     * @param mask     every disc on the board
+     * @return one bit for each such cell
+     */
+    private long winningCells(long position, long mask) {
+      long result = (position << 1) & (position << 2) & (position << 3);
+      result |= winningCells(position, rows + 1);
+      result |= winningCells(position, rows);
+      result |= winningCells(position, rows + 2);
+      return result & (boardMask ^ mask);
+    }
+
+    /**
+     * Finds the cells that would complete four in a row along one direction other than
+     * vertical: three discs on one side, or two on one side and one on the other.
+     *
+     * @param position the discs of the player
+     * @param shift    the distance between neighbouring cells along the direction
+     * @return one bit for each such cell, possibly outside the board
+     */
+    private long winningCells(long position, int shift) {
+      long pair = (position << shift) & (position << 2 * shift);
+      long result = pair & (position << 3 * shift);
+      result |= pair & (position >>> shift);
+      pair = (position >>> shift) & (position >>> 2 * shift);
+      result |= pair & (position << shift);
+      result |= pair & (position >>> 3 * shift);
+      return result;
+    }
+
+    /**
+     * Finds the cells where a disc can be dropped.
+     *
+     * @param mask every disc on the board
+     * @return one bit for the lowest empty cell of each column that is not full
+     */
+    private long possible(long mask) {
+      return (mask + bottomMask) & boardMask;
+    }
+
+    /**
+     * Retrieves the cells of a column.
+     *
+     * @param column the column
+     * @return one bit for each cell of the column
+     */
+    private long columnMask(int column) {
+      return ((1L << rows) - 1) << (column * (rows + 1));
+    }
+  }
+
+  /**
+   * Scrambles a position key so that the table index taken from its low bits is spread evenly.
+   * The scrambling is one-to-one, so different positions keep different keys.
+   *
+   * @param key the position key
+   * @return the scrambled key
+   */
+  private static long hash(long key) {
+    long z = key;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Exact value of a position: the score and the work the solver did to find it.
+   */
+  public static final class Solution {
+    private final int score;
+    private final int moves;
+    private final int cells;
+    private final Player turn;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new Solution.
+     *
+     * @param score        the score of the position
+     * @param moves        the number of discs on the board
+     * @param cells        the number of cells on the board
+     * @param turn         the player to move
+     * @param nodes        the number of positions searched
+     * @param elapsedNanos the time the solver took, in nanoseconds
+     */
+    Solution(int score, int moves, int cells, Player turn, long nodes, long elapsedNanos) {
+      this.score = score;
+      this.moves = moves;
+      this.cells = cells;
+      this.turn = turn;
+      this.nodes = nodes;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Retrieves the score of the position. It is 0 for a draw, positive if the player to move
+     * wins and negative if the opponent wins; the sooner the win, the larger the score.
+     *
+     * @return the score
+     */
+    public int getScore() {
+      return score;
+    }
+
+    /**
+     * Retrieves the winner under perfect play.
+     *
+     * @return the winner, or null if the game is a draw
+     */
+    public Player getWinner() {
+      if (score == 0) {
+        return null;
+      }
+      return score > 0 ? turn : turn == Player.RED ? Player.YELLOW : Player.RED;
+    }
+
+    /**
+     * Retrieves the number of moves left to the end of the game under perfect play, counting
+     * the moves of both players. A draw ends when the board is full.
+     *
+     * @return the number of moves left
+     */
+    public int getMovesToEnd() {
+      if (score == 0) {
+        return cells - moves;
+      }
+      // The winning disc is move number cells + 1 - 2 * |score|, or one more, whichever is
+      // played by the winner.
+      int last = cells + 1 - 2 * Math.abs(score);
+      int winnerParity = score > 0 ? (moves + 1) % 2 : moves % 2;
+      if (last % 2 != winnerParity) {
+        last++;
+      }
+      return last - moves;
+    }
+
+    /**
+     * Retrieves the number of positions searched, over all threads.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+      return nodes;
+    }
+
+    /**
+     * Retrieves the time the solver took.
+     *
+     * @return the elapsed time, in nanoseconds
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Retrieves the search throughput.
+     *
+     * @return the number of nodes searched per second
+     */
+    public double getNodesPerSecond() {
+      return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      String outcome = getWinner() == null ? "Draw" : getWinner() + " wins";
+      return String.format("%s in %d moves (score %d), %d nodes in %d ms", outcome,
+          getMovesToEnd(), score, nodes, elapsedNanos / 1_000_000);
+    }
+  }
+
+  /**
+   * Solves a position from the command line and prints the result.
+   *
+   * @param args optional rows, columns, moves played and number of threads
+   */
+  public static void main(String[] args) {
+    int rows = 6;
+    int columns = 7;
+    String moves = "";
+    int threads = Runtime.getRuntime().availableProcessors();
+    Solver solver = null;
+    try {
+      if (args.length >= 2) {
+        rows = Integer.parseInt(args[0]);
+        columns = Integer.parseInt(args[1]);
+      }
+      if (args.length >= 3 && !args[2].equals("-")) {
+        moves = args[2];
+      }
+      if (args.length >= 4) {
+        threads = Integer.parseInt(args[3]);
+      }
+
+      ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+      for (int i = 0; i < moves.length(); i++) {
+        model.makeMove(Character.digit(moves.charAt(i), 10) - 1);
+      }
+      solver = new Solver(new TranspositionTable(256L << 20), threads);
+      System.out.printf("Board %dx%d, %d moves played, %d threads%n", rows, columns,
+          moves.length(), threads);
+      System.out.println(solver.solve(model));
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      System.out.println("Invalid arguments: " + e.getMessage());
+    } finally {
+      if (solver != null) {
+        solver.shutdown();
+      }
+    }
+  }
+}
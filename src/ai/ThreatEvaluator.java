@@ -0,0 +1,425 @@
+package ai;
+
+import java.util.Arrays;
+import model.MoveEvent;
+import model.MoveListener;
+import model.Player;
+import model.ReadOnlyBoard;
+
+/**
+ * Heuristic evaluation of Connect Four positions, kept up to date move by move. For every line of
+ * four cells on the board the evaluator counts the discs of each player, and when a disc is
+ * dropped or taken back only the lines through its cell are updated, at most sixteen of them. The
+ * score is then read from running totals without looking at the board.
+ *
+ * <p>A line holding discs of only one player is worth more the more discs it holds. A line with
+ * three discs of one player makes its empty cell a threat: the player wins by taking it. Threats
+ * are counted once per cell, and each is worth more on the rows that suit its owner, since when
+ * the board fills up the first player can usually take the cells of odd rows and the second
+ * player those of even rows, counting rows from 1 at the bottom. Two threats of one player on
+ * top of each other cannot both be blocked and count as a double threat. A threat on a cell
+ * where a disc can be dropped right away wins at once for the player to move, and two of them
+ * win for the opponent.
+ *
+ * <p>Memory grows with the number of cells, about a dozen bytes each. The evaluator can follow a
+ * model as a {@link MoveListener}, or be driven directly by a search that makes and takes back
+ * moves.
+ */
+public class ThreatEvaluator implements MoveListener {
+  /**
+   * The largest board, in cells, an evaluator is built for.
+   */
+  public static final int MAX_CELLS = 1 << 20;
+
+  /**
+   * Score of a position where the player to move can win at once, or the opponent has two
+   * threats the player cannot both block. It is far below a proven win in the search.
+   */
+  public static final int FORCED_SCORE = 100_000;
+
+  private static final int[] LINE_WEIGHTS = {0, 1, 8, 0, 0};
+  private static final int THREAT_WEIGHT = 40;
+  private static final int GOOD_PARITY_WEIGHT = 40;
+  private static final int DOUBLE_THREAT_WEIGHT = 400;
+
+  // Vertical, horizontal, bottom-left to top-right and top-left to bottom-right.
+  private static final int[] COLUMN_STEPS = {0, 1, 1, 1};
+  private static final int[] HEIGHT_STEPS = {1, 0, 1, -1};
+
+  private final int rows;
+  private final int columns;
+  private final int cells;
+  private final int[] heights;
+  private final byte[] owners;
+  private final byte[][] lineCounts;
+  private final byte[][] threats;
+  private final int[][] threatsByParity;
+  private final int[] doubleThreats;
+  private final int[] playableThreats;
+  private int lineScore;
+
+  /**
+   * Constructs a new ThreatEvaluator for an empty board.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @throws IllegalArgumentException if the board is smaller than 4x4 or has more than
+   *                                  MAX_CELLS cells
+   */
+  public ThreatEvaluator(int rows, int columns) throws IllegalArgumentException {
+    if (rows < 4 || columns < 4) {
+      throw new IllegalArgumentException("The number of rows and columns must be at least 4.");
+    }
+    if ((long) rows * columns > MAX_CELLS) {
+      throw new IllegalArgumentException("The board has more than " + MAX_CELLS + " cells");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.cells = rows * columns;
+    this.heights = new int[columns];
+    this.owners = new byte[cells];
+    this.lineCounts = new byte[2][COLUMN_STEPS.length * cells];
+    this.threats = new byte[2][cells];
+    this.threatsByParity = new int[2][2];
+    this.doubleThreats = new int[2];
+    this.playableThreats = new int[2];
+  }
+
+  /**
+   * Sets the evaluator to the position of a board.
+   *
+   * @param board the board to copy
+   * @throws IllegalArgumentException if the board is null or its size differs
+   */
+  public void load(ReadOnlyBoard board) throws IllegalArgumentException {
+    if (board == null) {
+      throw new IllegalArgumentException("Board cannot be null");
+    }
+    if (!fits(board)) {
+      throw new IllegalArgumentException("The board is " + board.getRows() + "x"
+          + board.getColumns() + " but the evaluator is " + rows + "x" + columns);
+    }
+    clear();
+    for (int column = 0; column < columns; column++) {
+      for (int height = 0; height < board.getColumnHeight(column); height++) {
+        play(column, board.getCell(rows - 1 - height, column));
+      }
+    }
+  }
+
+  /**
+   * Checks whether the evaluator is for boards of the same size as a board.
+   *
+   * @param board the board
+   * @return true if the board has as many rows and columns as the evaluator, false otherwise
+   */
+  public boolean fits(ReadOnlyBoard board) {
+    return board.getRows() == rows && board.getColumns() == columns;
+  }
+
+  /**
+   * Empties the board.
+   */
+  public void clear() {
+    Arrays.fill(heights, 0);
+    Arrays.fill(owners, (byte) 0);
+    for (int p = 0; p < 2; p++) {
+      Arrays.fill(lineCounts[p], (byte) 0);
+      Arrays.fill(threats[p], (byte) 0);
+      Arrays.fill(threatsByParity[p], 0);
+    }
+    Arrays.fill(doubleThreats, 0);
+    Arrays.fill(playableThreats, 0);
+    lineScore = 0;
+  }
+
+  /**
+   * Drops a disc and updates the lines through its cell.
+   *
+   * @param column the column of the disc, which must not be full
+   * @param player the player owning the disc
+   */
+  public void play(int column, Player player) {
+    int p = player.ordinal();
+    int height = heights[column];
+    int cell = column * rows + height;
+    removePlayableThreats(column);
+    // No cell of the column is playable while its lines change; its playable cell is counted
+    // again once they are done.
+    heights[column] = rows;
+    owners[cell] = (byte) (p + 1);
+    for (int d = 0; d < COLUMN_STEPS.length; d++) {
+      for (int k = 0; k < 4; k++) {
+        int startColumn = column - k * COLUMN_STEPS[d];
+        int startHeight = height - k * HEIGHT_STEPS[d];
+        if (fits(startColumn, startHeight, d)) {
+          addDisc(d, startColumn, startHeight, p, cell);
+        }
+      }
+    }
+    heights[column] = height + 1;
+    addPlayableThreats(column);
+  }
+
+  /**
+   * Takes back the top disc of a column and updates the lines through its cell.
+   *
+   * @param column the column of the disc, which must not be empty
+   */
+  public void undo(int column) {
+    int height = heights[column] - 1;
+    int cell = column * rows + height;
+    int p = owners[cell] - 1;
+    removePlayableThreats(column);
+    heights[column] = rows;
+    for (int d = 0; d < COLUMN_STEPS.length; d++) {
+      for (int k = 0; k < 4; k++) {
+        int startColumn = column - k * COLUMN_STEPS[d];
+        int startHeight = height - k * HEIGHT_STEPS[d];
+        if (fits(startColumn, startHeight, d)) {
+          removeDisc(d, startColumn, startHeight, p, cell);
+        }
+      }
+    }
+    owners[cell] = 0;
+    heights[column] = height;
+    addPlayableThreats(column);
+  }
+
+  /**
+   * Scores the position from the point of view of the player to move. Positive scores favour
+   * that player.
+   *
+   * @param toMove the player to move
+   * @return the score, between -FORCED_SCORE and FORCED_SCORE
+   */
+  public int evaluate(Player toMove) {
+    int me = toMove.ordinal();
+    int opponent = 1 - me;
+    if (playableThreats[me] > 0) {
+      return FORCED_SCORE;
+    }
+    if (playableThreats[opponent] > 1) {
+      return -FORCED_SCORE;
+    }
+    int red = Player.RED.ordinal();
+    int yellow = Player.YELLOW.ordinal();
+    // Heights count from 0, so odd rows are at even heights.
+    int score = lineScore
+        + THREAT_WEIGHT * (threatCount(red) - threatCount(yellow))
+        + GOOD_PARITY_WEIGHT * (threatsByParity[red][0] - threatsByParity[yellow][1])
+        + DOUBLE_THREAT_WEIGHT * (doubleThreats[red] - doubleThreats[yellow]);
+    return me == red ? score : -score;
+  }
+
+  /**
+   * Retrieves the number of empty cells that would complete four in a row for a player.
+   *
+   * @param player the player
+   * @return the number of threat cells
+   */
+  public int getThreats(Player player) {
+    return threatCount(player.ordinal());
+  }
+
+  /**
+   * Retrieves the number of pairs of a player's threats directly on top of each other.
+   *
+   * @param player the player
+   * @return the number of double threats
+   */
+  public int getDoubleThreats(Player player) {
+    return doubleThreats[player.ordinal()];
+  }
+
+  /**
+   * Retrieves the number of a player's threats where a disc can be dropped right away.
+   *
+   * @param player the player
+   * @return the number of playable threats
+   */
+  public int getPlayableThreats(Player player) {
+    return playableThreats[player.ordinal()];
+  }
+
+  @Override
+  public void moveMade(MoveEvent event) {
+    play(event.getColumn(), event.getPlayer());
+  }
+
+  @Override
+  public void moveUndone(MoveEvent event) {
+    undo(event.getColumn());
+  }
+
+  @Override
+  public void boardReset(ReadOnlyBoard board) {
+    load(board);
+  }
+
+  /**
+   * Counts a new disc in a line.
+   *
+   * @param d           the direction of the line
+   * @param startColumn the column of the line's first cell
+   * @param startHeight the height of the line's first cell
+   * @param p           the index of the disc's player
+   * @param cell        the cell of the disc
+   */
+  private void addDisc(int d, int startColumn, int startHeight, int p, int cell) {
+    int line = d * cells + startColumn * rows + startHeight;
+    int mine = lineCounts[p][line];
+    int theirs = lineCounts[1 - p][line];
+    lineScore -= lineValue(line);
+    if (theirs == 0 && mine == 2) {
+      changeThreat(p, emptyCell(d, startColumn, startHeight), 1);
+    } else if (theirs == 0 && mine == 3) {
+      changeThreat(p, cell, -1);
+    } else if (mine == 0 && theirs == 3) {
+      changeThreat(1 - p, cell, -1);
+    }
+    lineCounts[p][line] = (byte) (mine + 1);
+    lineScore += lineValue(line);
+  }
+
+  /**
+   * Removes a disc from a line. The disc is still on the board.
+   *
+   * @param d           the direction of the line
+   * @param startColumn the column of the line's first cell
+   * @param startHeight the height of the line's first cell
+   * @param p           the index of the disc's player
+   * @param cell        the cell of the disc
+   */
+  private void removeDisc(int d, int startColumn, int startHeight, int p, int cell) {
+    int line = d * cells + startColumn * rows + startHeight;
+    int mine = lineCounts[p][line] - 1;
+    int theirs = lineCounts[1 - p][line];
+    lineScore -= lineValue(line);
+    lineCounts[p][line] = (byte) mine;
+    if (theirs == 0 && mine == 2) {
+      changeThreat(p, emptyCell(d, startColumn, startHeight), -1);
+    } else if (theirs == 0 && mine == 3) {
+      changeThreat(p, cell, 1);
+    } else if (mine == 0 && theirs == 3) {
+      changeThreat(1 - p, cell, 1);
+    }
+    lineScore += lineValue(line);
+  }
+
+  /**
+   * Retrieves the value of a line for red minus its value for yellow.
+   *
+   * @param line the index of the line
+   * @return the value of the line
+   */
+  private int lineValue(int line) {
+    int red = lineCounts[0][line];
+    int yellow = lineCounts[1][line];
+    if (yellow == 0) {
+      return LINE_WEIGHTS[red];
+    }
+    return red == 0 ? -LINE_WEIGHTS[yellow] : 0;
+  }
+
+  /**
+   * Finds the one empty cell of a line with three discs.
+   *
+   * @param d           the direction of the line
+   * @param startColumn the column of the line's first cell
+   * @param startHeight the height of the line's first cell
+   * @return the empty cell
+   */
+  private int emptyCell(int d, int startColumn, int startHeight) {
+    int cell = startColumn * rows + startHeight;
+    int step = COLUMN_STEPS[d] * rows + HEIGHT_STEPS[d];
+    while (owners[cell] != 0) {
+      cell += step;
+    }
+    return cell;
+  }
+
+  /**
+   * Changes the number of lines a cell completes for a player, and the totals that depend on
+   * whether the cell is a threat at all.
+   *
+   * @param p     the index of the player
+   * @param cell  the cell
+   * @param delta 1 or -1
+   */
+  private void changeThreat(int p, int cell, int delta) {
+    int before = threats[p][cell];
+    threats[p][cell] = (byte) (before + delta);
+    if (before != 0 && before + delta != 0) {
+      return;
+    }
+    int height = cell % rows;
+    threatsByParity[p][height % 2] += delta;
+    if (height + 1 < rows && threats[p][cell + 1] != 0) {
+      doubleThreats[p] += delta;
+    }
+    if (height > 0 && threats[p][cell - 1] != 0) {
+      doubleThreats[p] += delta;
+    }
+    if (height == heights[cell / rows]) {
+      playableThreats[p] += delta;
+    }
+  }
+
+  /**
+   * Stops counting the lowest empty cell of a column as a playable threat.
+   *
+   * @param column the column
+   */
+  private void removePlayableThreats(int column) {
+    if (heights[column] < rows) {
+      int cell = column * rows + heights[column];
+      for (int p = 0; p < 2; p++) {
+        if (threats[p][cell] != 0) {
+          playableThreats[p]--;
+        }
+      }
+    }
+  }
+
+  /**
+   * Counts the lowest empty cell of a column as a playable threat if it is one.
+   *
+   * @param column the column
+   */
+  private void addPlayableThreats(int column) {
+    if (heights[column] < rows) {
+      int cell = column * rows + heights[column];
+      for (int p = 0; p < 2; p++) {
+        if (threats[p][cell] != 0) {
+          playableThreats[p]++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Counts a player's threat cells.
+   *
+   * @param p the index of the player
+   * @return the number of threat cells
+   */
+  private int threatCount(int p) {
+    return threatsByParity[p][0] + threatsByParity[p][1];
+  }
+
+  /**
+   * Checks that a line of four cells starting at a cell lies on the board.
+   *
+   * @param startColumn the column of the first cell
+   * @param startHeight the height of the first cell
+   * @param d           the direction of the line
+   * @return true if all four cells are on the board, false otherwise
+   */
+  private boolean fits(int startColumn, int startHeight, int d) {
+    int endColumn = startColumn + 3 * COLUMN_STEPS[d];
+    int endHeight = startHeight + 3 * HEIGHT_STEPS[d];
+    return startColumn >= 0 && endColumn < columns
+        && Math.min(startHeight, endHeight) >= 0 && Math.max(startHeight, endHeight) < rows;
+  }
+}
@@ -0,0 +1,292 @@
+package ai;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size transposition table for game-tree search, stored outside the Java heap. Each entry
+ * takes 16 bytes in a direct buffer: the search data packed into one long, and the position key
+ * XORed with that data in another. A reader recomputes the key from both halves, so an entry torn
+ * by two threads writing at once is simply seen as a miss, and the table needs no locks.
+ *
+ * <p>Direct buffers are limited to 2 GB, so large tables are split into several buffers. Since
+ * the entries live off-heap, a table of several GB adds nothing to garbage collection pauses.
+ *
+ * <p>Entries are replaced depth-first: a new entry only overwrites an entry of the current
+ * search if it was searched at least as deep. Entries left over from earlier searches, see
+ * {@link #newSearch()}, can always be overwritten.
+ */
+public class TranspositionTable {
+  /**
+   * Bound type of an entry whose score is exact.
+   */
+  public static final int EXACT = 1;
+
+  /**
+   * Bound type of an entry whose score is a lower bound, after a beta cutoff.
+   */
+  public static final int LOWER_BOUND = 2;
+
+  /**
+   * Bound type of an entry whose score is an upper bound, when no move reached alpha.
+   */
+  public static final int UPPER_BOUND = 3;
+
+  /**
+   * Value returned by probe when the table has no entry for a key.
+   */
+  public static final long MISS = 0L;
+
+  /**
+   * Column stored for entries without a best move.
+   */
+  public static final int NO_MOVE = 0xFFFF;
+
+  private static final int ENTRY_BYTES = 16;
+  private static final int SEGMENT_BYTES = 1 << 30;
+  private static final int ENTRIES_PER_SEGMENT_SHIFT = 26;
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  // Data layout: score (32 bits) | depth (8) | bound (2) | move (16) | generation (6).
+  private static final int DEPTH_SHIFT = 32;
+  private static final int BOUND_SHIFT = 40;
+  private static final int MOVE_SHIFT = 42;
+  private static final int GENERATION_SHIFT = 58;
+  private static final int MAX_DEPTH = 0xFF;
+  private static final int GENERATION_MASK = 0x3F;
+
+  private final ByteBuffer[] segments;
+  private final long capacity;
+  private final long indexMask;
+  private volatile int generation;
+
+  private final LongAdder probes = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder collisions = new LongAdder();
+  private final LongAdder stores = new LongAdder();
+  private final LongAdder filled = new LongAdder();
+
+  /**
+   * Constructs a new TranspositionTable that uses at most the given number of bytes. The number
+   * of entries is rounded down to a power of two.
+   *
+   * @param sizeBytes the memory to use, in bytes
+   * @throws IllegalArgumentException if the size is less than one entry
+   */
+  public TranspositionTable(long sizeBytes) throws IllegalArgumentException {
+    if (sizeBytes < ENTRY_BYTES) {
+      throw new IllegalArgumentException("The table must hold at least one entry");
+    }
+    this.capacity = Long.highestOneBit(sizeBytes / ENTRY_BYTES);
+    this.indexMask = capacity - 1;
+    long totalBytes = capacity * ENTRY_BYTES;
+    int segmentCount = (int) ((totalBytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+    this.segments = new ByteBuffer[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      int bytes = (int) Math.min(SEGMENT_BYTES, totalBytes - (long) i * SEGMENT_BYTES);
+      segments[i] = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+  }
+
+  /**
+   * Looks up the entry for a position.
+   *
+   * @param key the key of the position
+   * @return the packed entry, or MISS if the table has no entry for the key
+   */
+  public long probe(long key) {
+    probes.increment();
+    long index = key & indexMask;
+    ByteBuffer segment = segments[(int) (index >>> ENTRIES_PER_SEGMENT_SHIFT)];
+    int offset = offsetOf(index);
+    long data = (long) LONGS.getOpaque(segment, offset + 8);
+    if (data == MISS) {
+      return MISS;
+    }
+    long check = (long) LONGS.getOpaque(segment, offset);
+    if ((check ^ data) != key) {
+      collisions.increment();
+      return MISS;
+    }
+    hits.increment();
+    return data;
+  }
+
+  /**
+   * Stores the result of searching a position, unless the slot holds a deeper entry of the
+   * current search.
+   *
+   * @param key   the key of the position
+   * @param score the score of the position
+   * @param depth the depth the position was searched to, in plies
+   * @param bound the bound type of the score: EXACT, LOWER_BOUND or UPPER_BOUND
+   * @param move  the best column found, or NO_MOVE if there is none
+   */
+  public void store(long key, int score, int depth, int bound, int move) {
+    long index = key & indexMask;
+    ByteBuffer segment = segments[(int) (index >>> ENTRIES_PER_SEGMENT_SHIFT)];
+    int offset = offsetOf(index);
+    long old = (long) LONGS.getOpaque(segment, offset + 8);
+    int currentGeneration = generation;
+    if (old != MISS && generation(old) == currentGeneration && depth(old) > depth) {
+      long oldKey = (long) LONGS.getOpaque(segment, offset) ^ old;
+      if (oldKey != key) {
+        return;
+      }
+    }
+
+    long data = pack(score, depth, bound, move, currentGeneration);
+    LONGS.setOpaque(segment, offset, key ^ data);
+    LONGS.setOpaque(segment, offset + 8, data);
+    stores.increment();
+    if (old == MISS) {
+      filled.increment();
+    }
+  }
+
+  /**
+   * Starts a new search. Entries of earlier searches stay readable, but can be overwritten by
+   * shallower entries of the new search.
+   */
+  public void newSearch() {
+    generation = (generation + 1) & GENERATION_MASK;
+  }
+
+  /**
+   * Removes every entry and resets the statistics.
+   */
+  public void clear() {
+    for (ByteBuffer segment : segments) {
+      for (int offset = 0; offset < segment.capacity(); offset += 8) {
+        LONGS.setOpaque(segment, offset, 0L);
+      }
+    }
+    probes.reset();
+    hits.reset();
+    collisions.reset();
+    stores.reset();
+    filled.reset();
+  }
+
+  /**
+   * Retrieves the number of entries the table can hold.
+   *
+   * @return the capacity of the table
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Retrieves the fraction of probes that found an entry.
+   *
+   * @return the hit rate, between 0 and 1
+   */
+  public double getHitRate() {
+    long total = probes.sum();
+    return total == 0 ? 0.0 : (double) hits.sum() / total;
+  }
+
+  /**
+   * Retrieves the fraction of probes that found an entry of a different position in the slot.
+   *
+   * @return the collision rate, between 0 and 1
+   */
+  public double getCollisionRate() {
+    long total = probes.sum();
+    return total == 0 ? 0.0 : (double) collisions.sum() / total;
+  }
+
+  /**
+   * Retrieves the fraction of slots holding an entry.
+   *
+   * @return the occupancy, between 0 and 1
+   */
+  public double getOccupancy() {
+    return (double) filled.sum() / capacity;
+  }
+
+  /**
+   * Retrieves the number of probes since the table was created or cleared.
+   *
+   * @return the number of probes
+   */
+  public long getProbes() {
+    return probes.sum();
+  }
+
+  /**
+   * Retrieves the number of stored entries since the table was created or cleared.
+   *
+   * @return the number of stores
+   */
+  public long getStores() {
+    return stores.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d entries, hit rate %.1f%%, collision rate %.1f%%, occupancy %.1f%%",
+        capacity, getHitRate() * 100, getCollisionRate() * 100, getOccupancy() * 100);
+  }
+
+  /**
+   * Retrieves the score of a packed entry.
+   *
+   * @param entry the packed entry
+   * @return the score
+   */
+  public static int score(long entry) {
+    return (int) entry;
+  }
+
+  /**
+   * Retrieves the search depth of a packed entry.
+   *
+   * @param entry the packed entry
+   * @return the depth, in plies
+   */
+  public static int depth(long entry) {
+    return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+  }
+
+  /**
+   * Retrieves the bound type of a packed entry.
+   *
+   * @param entry the packed entry
+   * @return EXACT, LOWER_BOUND or UPPER_BOUND
+   */
+  public static int bound(long entry) {
+    return (int) (entry >>> BOUND_SHIFT) & 0x3;
+  }
+
+  /**
+   * Retrieves the best column of a packed entry.
+   *
+   * @param entry the packed entry
+   * @return the best column, or NO_MOVE if there is none
+   */
+  public static int move(long entry) {
+    return (int) (entry >>> MOVE_SHIFT) & NO_MOVE;
+  }
+
+  private static int generation(long entry) {
+    return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+  }
+
+  private static long pack(int score, int depth, int bound, int move, int generation) {
+    return (score & 0xFFFFFFFFL)
+        | ((long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT)
+        | ((long) bound << BOUND_SHIFT)
+        | ((long) (move & NO_MOVE) << MOVE_SHIFT)
+        | ((long) generation << GENERATION_SHIFT);
+  }
+
+  private static int offsetOf(long index) {
+    return (int) (index & ((1L << ENTRIES_PER_SEGMENT_SHIFT) - 1)) * ENTRY_BYTES;
+  }
+}
@@ -0,0 +1,322 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Computes statistics of a game archive of any size by memory-mapping it. Records have no sync
+ * markers, so a decoder cannot start in the middle of the file: instead the calling thread scans
+ * ahead reading only the record headers, and hands each chunk of whole records to the decoding
+ * threads as soon as its end is found. Each chunk is mapped on its own and read straight from
+ * the mapped pages, which the scan has just brought into memory, so the file is read from disk
+ * once. No record is turned into an object: the moves are replayed on an array of column
+ * heights, which is all that is needed to know which cell each disc ended in.
+ *
+ * <p>At most one chunk per thread is being decoded or waiting to be merged at any time, and the
+ * statistics of each chunk are merged into the total as soon as it is decoded, so heap use
+ * depends only on the number of threads and of board sizes in the archive, not on its length.
+ *
+ * <p>Usage: {@code java archive.ArchiveAnalyzer file [threads]}
+ */
+public final class ArchiveAnalyzer {
+  public static final long CHUNK_BYTES = 64L << 20;
+  private static final long SCAN_WINDOW_BYTES = 1L << 30;
+
+  /**
+   * Not instantiable, use the static methods.
+   */
+  private ArchiveAnalyzer() {
+  }
+
+  /**
+   * Analyzes an archive file.
+   *
+   * @param file    the archive file
+   * @param threads the number of chunks decoded at once
+   * @return the statistics of each board size in the archive, smallest board first
+   * @throws IOException              if the file cannot be read or is not a valid archive
+   * @throws IllegalArgumentException if the number of threads is not positive
+   */
+  public static List<BoardStatistics> analyze(Path file, int threads)
+      throws IOException, IllegalArgumentException {
+    return analyze(file, threads, CHUNK_BYTES);
+  }
+
+  /**
+   * Analyzes an archive file split into chunks of about the given size.
+   *
+   * @param file       the archive file
+   * @param threads    the number of chunks decoded at once
+   * @param chunkBytes the size at which a chunk is closed after the record that reaches it
+   * @return the statistics of each board size in the archive, smallest board first
+   * @throws IOException              if the file cannot be read or is not a valid archive
+   * @throws IllegalArgumentException if the number of threads or the chunk size is not positive
+   */
+  public static List<BoardStatistics> analyze(Path file, int threads, long chunkBytes)
+      throws IOException, IllegalArgumentException {
+    if (threads <= 0 || chunkBytes <= 0) {
+      throw new IllegalArgumentException("The number of threads and chunk size must be positive");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      checkHeader(channel);
+      ChunkScanner scanner = new ChunkScanner(channel, chunkBytes);
+
+      ExecutorService pool = Executors.newFixedThreadPool(threads);
+      try {
+        CompletionService<Map<Long, BoardStatistics>> decoded =
+            new ExecutorCompletionService<>(pool);
+        Map<Long, BoardStatistics> total = new HashMap<>();
+        int pending = 0;
+        long start = GameRecordFormat.HEADER_BYTES;
+        for (long end = scanner.next(); end >= 0; end = scanner.next()) {
+          if (pending == threads) {
+            merge(total, takeDecoded(decoded));
+            pending--;
+          }
+          long chunkStart = start;
+          long chunkEnd = end;
+          decoded.submit(() -> decodeChunk(channel, chunkStart, chunkEnd));
+          pending++;
+          start = end;
+        }
+        for (; pending > 0; pending--) {
+          merge(total, takeDecoded(decoded));
+        }
+        List<BoardStatistics> result = new ArrayList<>(total.values());
+        result.sort(Comparator.comparingInt(BoardStatistics::getRows)
+            .thenComparingInt(BoardStatistics::getColumns));
+        return result;
+      } finally {
+        pool.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Checks the archive header.
+   *
+   * @param channel the archive file
+   * @throws IOException if the header cannot be read or is not an archive header
+   */
+  private static void checkHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(GameRecordFormat.HEADER_BYTES);
+    while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+      // Keep reading until the header is complete or the file ends.
+    }
+    header.flip();
+    if (header.remaining() < GameRecordFormat.HEADER_BYTES
+        || header.getInt() != GameRecordFormat.MAGIC
+        || header.get() != GameRecordFormat.VERSION) {
+      throw new IOException("Not a game archive");
+    }
+  }
+
+  /**
+   * Decodes the records of one chunk and gathers their statistics.
+   *
+   * @param channel the archive file
+   * @param start   the offset of the first record of the chunk
+   * @param end     the offset just after the last record of the chunk
+   * @return the statistics of each board size in the chunk, by board size key
+   * @throws IOException if the chunk cannot be read or a record is invalid
+   */
+  private static Map<Long, BoardStatistics> decodeChunk(FileChannel channel, long start,
+      long end) throws IOException {
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    Map<Long, BoardStatistics> statistics = new HashMap<>();
+    BoardStatistics current = null;
+    int[] heights = new int[0];
+    GameRecord.Outcome[] outcomes = GameRecord.Outcome.values();
+
+    while (buffer.hasRemaining()) {
+      long recordOffset = start + buffer.position();
+      long rows = GameRecordFormat.readVarint(buffer);
+      long columns = GameRecordFormat.readVarint(buffer);
+      long countAndOutcome = GameRecordFormat.readVarint(buffer);
+      int outcome = (int) (countAndOutcome & ((1 << GameRecordFormat.OUTCOME_BITS) - 1));
+      long moveCount = countAndOutcome >>> GameRecordFormat.OUTCOME_BITS;
+      if (rows <= 0 || columns <= 0 || rows * columns > Integer.MAX_VALUE - 1
+          || outcome >= outcomes.length || moveCount > rows * columns) {
+        throw new IOException("Invalid game record at offset " + recordOffset);
+      }
+
+      if (current == null || current.getRows() != rows || current.getColumns() != columns) {
+        current = statistics.computeIfAbsent(rows << Integer.SIZE | columns,
+            key -> new BoardStatistics((int) rows, (int) columns));
+        heights = new int[(int) columns];
+      } else {
+        Arrays.fill(heights, 0);
+      }
+
+      int bits = GameRecordFormat.bitsPerMove((int) columns);
+      long bitBuffer = 0;
+      int buffered = 0;
+      int firstMove = 0;
+      for (int i = 0; i < moveCount; i++) {
+        while (buffered < bits) {
+          bitBuffer = (bitBuffer << Byte.SIZE) | (buffer.get() & 0xFF);
+          buffered += Byte.SIZE;
+        }
+        buffered -= bits;
+        int column = (int) (bitBuffer >>> buffered);
+        bitBuffer &= (1L << buffered) - 1;
+        if (column >= columns || heights[column] == rows) {
+          throw new IOException("Invalid move in the game record at offset " + recordOffset);
+        }
+        if (i == 0) {
+          firstMove = column;
+        }
+        current.addDisc(i % 2, (int) rows - 1 - heights[column], column);
+        heights[column]++;
+      }
+      current.addGame(outcomes[outcome], (int) moveCount, firstMove);
+    }
+    return statistics;
+  }
+
+  /**
+   * Waits for the next chunk to be decoded.
+   *
+   * @param decoded the chunks being decoded
+   * @return the statistics of the chunk
+   * @throws IOException if the chunk could not be read or the wait was interrupted
+   */
+  private static Map<Long, BoardStatistics> takeDecoded(
+      CompletionService<Map<Long, BoardStatistics>> decoded) throws IOException {
+    try {
+      return decoded.take().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while analyzing the archive", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Could not analyze the archive", e.getCause());
+    }
+  }
+
+  /**
+   * Adds the statistics of a chunk to the totals.
+   *
+   * @param total the statistics of each board size so far, by board size key
+   * @param chunk the statistics of each board size in the chunk, by board size key
+   */
+  private static void merge(Map<Long, BoardStatistics> total, Map<Long, BoardStatistics> chunk) {
+    for (Map.Entry<Long, BoardStatistics> entry : chunk.entrySet()) {
+      BoardStatistics statistics = total.putIfAbsent(entry.getKey(), entry.getValue());
+      if (statistics != null) {
+        statistics.merge(entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Analyzes an archive from the command line and prints the statistics.
+   *
+   * @param args the archive file and optionally the number of threads
+   */
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.out.println("Usage: java archive.ArchiveAnalyzer file [threads]");
+      return;
+    }
+    try {
+      int threads = args.length >= 2 ? Integer.parseInt(args[1])
+          : Runtime.getRuntime().availableProcessors();
+      Path file = Paths.get(args[0]);
+      long start = System.nanoTime();
+      List<BoardStatistics> statistics = analyze(file, threads);
+      long elapsedNanos = System.nanoTime() - start;
+      for (BoardStatistics board : statistics) {
+        System.out.print(board);
+      }
+      long bytes = file.toFile().length();
+      System.out.printf("Analyzed %d MB in %d ms (%d MB/s)%n", bytes >> 20,
+          elapsedNanos / 1_000_000, (long) (bytes * 1e9 / Math.max(1, elapsedNanos)) >> 20);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid arguments: " + e.getMessage());
+    } catch (IOException e) {
+      System.out.println("Could not analyze the archive: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Finds where to split the archive, one chunk at a time. The record headers are read through
+   * a mapped window that moves along the file, and the moves of each record are skipped without
+   * reading them.
+   */
+  private static final class ChunkScanner {
+    private final FileChannel channel;
+    private final long size;
+    private final long chunkBytes;
+    private long position = GameRecordFormat.HEADER_BYTES;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /**
+     * Constructs a new ChunkScanner starting after the archive header.
+     *
+     * @param channel    the archive file
+     * @param chunkBytes the size at which a chunk is closed after the record that reaches it
+     * @throws IOException if the size of the file cannot be read
+     */
+    private ChunkScanner(FileChannel channel, long chunkBytes) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+      this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Finds the end of the next chunk, which starts where the last one ended.
+     *
+     * @return the offset just after the last record of the chunk, or -1 if the file has been
+     *         scanned to its end
+     * @throws IOException if the file cannot be read or a record is invalid
+     */
+    private long next() throws IOException {
+      if (position >= size) {
+        return -1;
+      }
+      long chunkStart = position;
+      while (position < size && position - chunkStart < chunkBytes) {
+        long windowEnd = window == null ? 0 : windowStart + window.limit();
+        if (position + GameRecordFormat.MAX_VARINT_BYTES * 3 > windowEnd && windowEnd < size
+            || position >= windowEnd) {
+          windowStart = position;
+          window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+              Math.min(SCAN_WINDOW_BYTES, size - windowStart));
+        }
+        window.position((int) (position - windowStart));
+        GameRecordFormat.readVarint(window); // rows
+        long columns = GameRecordFormat.readVarint(window);
+        long moveCount = GameRecordFormat.readVarint(window) >>> GameRecordFormat.OUTCOME_BITS;
+        if (columns <= 0 || columns > Integer.MAX_VALUE || moveCount > Integer.MAX_VALUE) {
+          throw new IOException("Invalid game record at offset " + position);
+        }
+        position = windowStart + window.position()
+            + GameRecordFormat.packedBytes((int) moveCount, (int) columns);
+        if (position > size) {
+          throw new IOException("Truncated game archive");
+        }
+      }
+      return position;
+    }
+  }
+}
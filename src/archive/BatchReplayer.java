@@ -0,0 +1,186 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+
+/**
+ * Replays archived games through the model, rebuilding the final position of each game and
+ * checking that it ends the way the record says. Consecutive games on the same board size reuse
+ * one model, which is reset between them.
+ *
+ * <p>Usage: {@code java archive.BatchReplayer file}
+ */
+public final class BatchReplayer {
+
+  /**
+   * Not instantiable, use the static methods.
+   */
+  private BatchReplayer() {
+  }
+
+  /**
+   * Replays one game on a new model.
+   *
+   * @param record the record of the game
+   * @return the model in the final position of the game
+   * @throws IllegalArgumentException if the record is null, a move is illegal, or the game does
+   *                                  not end the way the record says
+   */
+  public static ConnectFourModel replay(GameRecord record) throws IllegalArgumentException {
+    if (record == null) {
+      throw new IllegalArgumentException("Record cannot be null");
+    }
+    ConnectFourModel model = ConnectFourModelFactory.createModel(record.getRows(),
+        record.getColumns());
+    replayOn(record, model);
+    return model;
+  }
+
+  /**
+   * Replays every game of an archive.
+   *
+   * @param reader the reader of the archive
+   * @param sink   receives the model in the final position of each game, which it must not
+   *               keep since the model is reused for the next game
+   * @return the totals of the replayed games
+   * @throws IOException              if the archive cannot be read
+   * @throws IllegalArgumentException if the reader or sink is null, or a record does not replay
+   */
+  public static Summary replayAll(GameRecordReader reader, Consumer<ConnectFourModel> sink)
+      throws IOException, IllegalArgumentException {
+    if (reader == null || sink == null) {
+      throw new IllegalArgumentException("Reader and sink cannot be null");
+    }
+    Summary summary = new Summary();
+    long start = System.nanoTime();
+    ConnectFourModel model = null;
+    GameRecord record;
+    while ((record = reader.read()) != null) {
+      if (model == null || model.getBoard().getRows() != record.getRows()
+          || model.getBoard().getColumns() != record.getColumns()) {
+        model = ConnectFourModelFactory.createModel(record.getRows(), record.getColumns());
+      } else {
+        model.resetBoard();
+      }
+      try {
+        replayOn(record, model);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Game " + (summary.games + 1) + ": " + e.getMessage(),
+            e);
+      }
+      summary.games++;
+      summary.moves += record.getMoveCount();
+      summary.outcomes[record.getOutcome().ordinal()]++;
+      sink.accept(model);
+    }
+    summary.elapsedNanos = System.nanoTime() - start;
+    return summary;
+  }
+
+  /**
+   * Plays the moves of a record on an empty model and checks the outcome.
+   *
+   * @param record the record of the game
+   * @param model  the empty model of the same size
+   * @throws IllegalArgumentException if a move is illegal or the outcome differs
+   */
+  private static void replayOn(GameRecord record, ConnectFourModel model)
+      throws IllegalArgumentException {
+    int applied = model.makeMoves(record.moves(), 0, record.getMoveCount());
+    if (applied < record.getMoveCount()) {
+      if (model.isGameOver()) {
+        throw new IllegalArgumentException("Move " + (applied + 1)
+            + " is after the end of the game");
+      }
+      throw new IllegalArgumentException("Move " + (applied + 1) + " is in a full column");
+    }
+    GameRecord.Outcome outcome = GameRecord.Outcome.of(model);
+    if (outcome != record.getOutcome()) {
+      throw new IllegalArgumentException("The game ends in " + outcome + " but the record says "
+          + record.getOutcome());
+    }
+  }
+
+  /**
+   * Replays an archive from the command line and prints the totals.
+   *
+   * @param args the archive file
+   */
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.out.println("Usage: java archive.BatchReplayer file");
+      return;
+    }
+    Path file = Paths.get(args[0]);
+    try (GameRecordReader reader = new GameRecordReader(Files.newInputStream(file))) {
+      System.out.print(replayAll(reader, model -> { }));
+    } catch (IOException e) {
+      System.out.println("Could not read the archive: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      System.out.println("Invalid archive: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Totals of a batch of replayed games.
+   */
+  public static final class Summary {
+    private long games;
+    private long moves;
+    private final long[] outcomes = new long[GameRecord.Outcome.values().length];
+    private long elapsedNanos;
+
+    /**
+     * Retrieves the number of games replayed.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+      return games;
+    }
+
+    /**
+     * Retrieves the number of moves replayed over all games.
+     *
+     * @return the number of moves
+     */
+    public long getMoves() {
+      return moves;
+    }
+
+    /**
+     * Retrieves the number of games that ended a given way.
+     *
+     * @param outcome the outcome
+     * @return the number of games with that outcome
+     */
+    public long getCount(GameRecord.Outcome outcome) {
+      return outcomes[outcome.ordinal()];
+    }
+
+    /**
+     * Retrieves the replay throughput.
+     *
+     * @return the number of games replayed per second
+     */
+    public long getGamesPerSecond() {
+      return (long) (games * 1e9 / Math.max(1, elapsedNanos));
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("Games: %d (%d moves) in %d ms, %d games/s%n", games, moves,
+          elapsedNanos / 1_000_000, getGamesPerSecond()));
+      for (GameRecord.Outcome outcome : GameRecord.Outcome.values()) {
+        sb.append(String.format("%s: %d%n", outcome, outcomes[outcome.ordinal()]));
+      }
+      return sb.toString();
+    }
+  }
+}
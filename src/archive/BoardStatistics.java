@@ -0,0 +1,224 @@
+package archive;
+
+/**
+ * Statistics of the archived games played on one board size: how the games ended by first
+ * move, how long they were, and how often each cell was taken by each player by the end of the
+ * game. Statistics gathered on separate parts of an archive are combined with
+ * {@link #merge(BoardStatistics)}.
+ */
+public final class BoardStatistics {
+  private static final GameRecord.Outcome[] OUTCOMES = GameRecord.Outcome.values();
+
+  private final int rows;
+  private final int columns;
+  private long games;
+  private long moves;
+  private final long[] outcomes = new long[OUTCOMES.length];
+  private final long[][] firstMoveOutcomes;
+  private final long[] lengths;
+  private final long[][] occupancy;
+
+  /**
+   * Constructs new empty BoardStatistics.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   */
+  BoardStatistics(int rows, int columns) {
+    this.rows = rows;
+    this.columns = columns;
+    this.firstMoveOutcomes = new long[columns][OUTCOMES.length];
+    this.lengths = new long[rows * columns + 1];
+    this.occupancy = new long[2][rows * columns];
+  }
+
+  /**
+   * Counts one game.
+   *
+   * @param outcome   how the game ended
+   * @param moveCount the number of moves in the game
+   * @param firstMove the column of the first move, ignored if there were no moves
+   */
+  void addGame(GameRecord.Outcome outcome, int moveCount, int firstMove) {
+    games++;
+    moves += moveCount;
+    outcomes[outcome.ordinal()]++;
+    lengths[moveCount]++;
+    if (moveCount > 0) {
+      firstMoveOutcomes[firstMove][outcome.ordinal()]++;
+    }
+  }
+
+  /**
+   * Counts a disc that was on the board at the end of a game.
+   *
+   * @param player the index of the player, 0 for red and 1 for yellow
+   * @param row    the row of the disc, where row 0 is the top row
+   * @param column the column of the disc
+   */
+  void addDisc(int player, int row, int column) {
+    occupancy[player][row * columns + column]++;
+  }
+
+  /**
+   * Adds the counts of other statistics of the same board size to these.
+   *
+   * @param other the statistics to add
+   * @throws IllegalArgumentException if the board sizes differ
+   */
+  public void merge(BoardStatistics other) throws IllegalArgumentException {
+    if (other.rows != rows || other.columns != columns) {
+      throw new IllegalArgumentException("Cannot merge statistics of different board sizes");
+    }
+    games += other.games;
+    moves += other.moves;
+    for (int i = 0; i < outcomes.length; i++) {
+      outcomes[i] += other.outcomes[i];
+    }
+    for (int column = 0; column < columns; column++) {
+      for (int i = 0; i < OUTCOMES.length; i++) {
+        firstMoveOutcomes[column][i] += other.firstMoveOutcomes[column][i];
+      }
+    }
+    for (int i = 0; i < lengths.length; i++) {
+      lengths[i] += other.lengths[i];
+    }
+    for (int player = 0; player < occupancy.length; player++) {
+      for (int cell = 0; cell < occupancy[player].length; cell++) {
+        occupancy[player][cell] += other.occupancy[player][cell];
+      }
+    }
+  }
+
+  /**
+   * Retrieves the number of rows of the board.
+   *
+   * @return the number of rows
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Retrieves the number of columns of the board.
+   *
+   * @return the number of columns
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Retrieves the number of games.
+   *
+   * @return the number of games on this board size
+   */
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Retrieves the number of games that ended a given way.
+   *
+   * @param outcome the outcome
+   * @return the number of games with that outcome
+   */
+  public long getCount(GameRecord.Outcome outcome) {
+    return outcomes[outcome.ordinal()];
+  }
+
+  /**
+   * Retrieves the number of games that opened in a column and ended a given way.
+   *
+   * @param column  the column of the first move
+   * @param outcome the outcome
+   * @return the number of such games
+   */
+  public long getFirstMoveCount(int column, GameRecord.Outcome outcome) {
+    return firstMoveOutcomes[column][outcome.ordinal()];
+  }
+
+  /**
+   * Retrieves the share of the games opened in a column that the first player won.
+   *
+   * @param column the column of the first move
+   * @return the win rate from 0 to 1, or 0 if no game opened there
+   */
+  public double getFirstMoveWinRate(int column) {
+    long opened = 0;
+    for (long count : firstMoveOutcomes[column]) {
+      opened += count;
+    }
+    long won = firstMoveOutcomes[column][GameRecord.Outcome.RED_WINS.ordinal()];
+    return opened == 0 ? 0 : (double) won / opened;
+  }
+
+  /**
+   * Retrieves the number of games of a given length.
+   *
+   * @param moveCount the number of moves
+   * @return the number of games with that many moves
+   */
+  public long getLengthCount(int moveCount) {
+    return lengths[moveCount];
+  }
+
+  /**
+   * Retrieves the average number of moves of a game.
+   *
+   * @return the average length, or 0 if there were no games
+   */
+  public double getAverageLength() {
+    return games == 0 ? 0 : (double) moves / games;
+  }
+
+  /**
+   * Retrieves how many games ended with a cell taken by a player.
+   *
+   * @param player the player, 0 for red and 1 for yellow
+   * @param row    the row of the cell, where row 0 is the top row
+   * @param column the column of the cell
+   * @return the number of games
+   */
+  public long getOccupancy(int player, int row, int column) {
+    return occupancy[player][row * columns + column];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("Board %dx%d: %d games, average length %.1f moves%n", rows, columns,
+        games, getAverageLength()));
+    for (GameRecord.Outcome outcome : OUTCOMES) {
+      sb.append(String.format("  %-12s %d%n", outcome, outcomes[outcome.ordinal()]));
+    }
+
+    sb.append(String.format("First move win rates:%n"));
+    for (int column = 0; column < columns; column++) {
+      sb.append(String.format("  column %3d: %6.2f%%%n", column,
+          100 * getFirstMoveWinRate(column)));
+    }
+
+    sb.append(String.format("Game lengths:%n"));
+    for (int length = 0; length < lengths.length; length++) {
+      if (lengths[length] > 0) {
+        sb.append(String.format("  %5d moves: %d%n", length, lengths[length]));
+      }
+    }
+
+    sb.append(String.format("Occupancy at the end of the game (%% red / %% yellow):%n"));
+    for (int row = 0; row < rows; row++) {
+      sb.append(' ');
+      for (int column = 0; column < columns; column++) {
+        sb.append(String.format(" %3d/%-3d", percentOfGames(0, row, column),
+            percentOfGames(1, row, column)));
+      }
+      sb.append(String.format("%n"));
+    }
+    return sb.toString();
+  }
+
+  private long percentOfGames(int player, int row, int column) {
+    return games == 0 ? 0 : Math.round(100.0 * getOccupancy(player, row, column) / games);
+  }
+}
@@ -0,0 +1,166 @@
+package archive;
+
+import java.util.Arrays;
+import model.ConnectFourModel;
+import model.Player;
+
+/**
+ * Record of one game: the board size, the columns of every move in order, and how the game
+ * ended. Records are written to and read from archives by {@link GameRecordWriter} and
+ * {@link GameRecordReader}.
+ */
+public final class GameRecord {
+  /**
+   * How a recorded game ended.
+   */
+  public enum Outcome {
+    UNFINISHED, RED_WINS, YELLOW_WINS, DRAW;
+
+    /**
+     * Retrieves the outcome of the game in a model.
+     *
+     * @param model the model of the game
+     * @return the outcome of the game so far
+     */
+    public static Outcome of(ConnectFourModel model) {
+      if (!model.isGameOver()) {
+        return UNFINISHED;
+      }
+      Player winner = model.getWinner();
+      if (winner == null) {
+        return DRAW;
+      }
+      return winner == Player.RED ? RED_WINS : YELLOW_WINS;
+    }
+  }
+
+  private final int rows;
+  private final int columns;
+  private final int[] moves;
+  private final Outcome outcome;
+
+  /**
+   * Constructs a new GameRecord. The moves are not replayed, so they are only checked to be
+   * within the board.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @param moves   the column of every move in order, which is copied
+   * @param outcome how the game ended
+   * @throws IllegalArgumentException if the board size is not positive, a move is outside the
+   *                                  board, there are more moves than cells, or the outcome is
+   *                                  null
+   */
+  public GameRecord(int rows, int columns, int[] moves, Outcome outcome)
+      throws IllegalArgumentException {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("The number of rows and columns must be positive");
+    }
+    if (moves == null || outcome == null) {
+      throw new IllegalArgumentException("Moves and outcome cannot be null");
+    }
+    if (moves.length > (long) rows * columns) {
+      throw new IllegalArgumentException("More moves than cells on the board");
+    }
+    for (int column : moves) {
+      if (column < 0 || column >= columns) {
+        throw new IllegalArgumentException("Invalid column " + column);
+      }
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.moves = moves.clone();
+    this.outcome = outcome;
+  }
+
+  /**
+   * Retrieves the number of rows of the board.
+   *
+   * @return the number of rows
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Retrieves the number of columns of the board.
+   *
+   * @return the number of columns
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Retrieves the number of moves in the game.
+   *
+   * @return the number of moves
+   */
+  public int getMoveCount() {
+    return moves.length;
+  }
+
+  /**
+   * Retrieves the column of one move.
+   *
+   * @param index the index of the move, starting at 0
+   * @return the column of the move
+   * @throws IllegalArgumentException if there is no such move
+   */
+  public int getMove(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= moves.length) {
+      throw new IllegalArgumentException("Invalid move index " + index);
+    }
+    return moves[index];
+  }
+
+  /**
+   * Retrieves the columns of every move in order.
+   *
+   * @return a copy of the moves
+   */
+  public int[] getMoves() {
+    return moves.clone();
+  }
+
+  /**
+   * Retrieves the moves without copying them, for replaying within the package.
+   *
+   * @return the moves, which must not be changed
+   */
+  int[] moves() {
+    return moves;
+  }
+
+  /**
+   * Retrieves how the game ended.
+   *
+   * @return the outcome
+   */
+  public Outcome getOutcome() {
+    return outcome;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof GameRecord)) {
+      return false;
+    }
+    GameRecord that = (GameRecord) other;
+    return rows == that.rows && columns == that.columns && outcome == that.outcome
+        && Arrays.equals(moves, that.moves);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * (31 * rows + columns) + outcome.hashCode()) + Arrays.hashCode(moves);
+  }
+
+  @Override
+  public String toString() {
+    return rows + "x" + columns + " " + outcome + " " + Arrays.toString(moves);
+  }
+}
@@ -0,0 +1,76 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of a game archive. An archive starts with a 5-byte header, the magic number and the
+ * format version, followed by the records one after another. Each record starts on a byte
+ * boundary and consists of:
+ * <ol>
+ *   <li>the number of rows, as an unsigned varint</li>
+ *   <li>the number of columns, as an unsigned varint</li>
+ *   <li>the number of moves shifted left by two, ORed with the outcome ordinal, as an unsigned
+ *   varint</li>
+ *   <li>the columns of the moves, each in the fewest bits that can hold the largest column,
+ *   packed most significant bit first and padded with zeros to a whole byte</li>
+ * </ol>
+ * A varint holds seven bits per byte, least significant group first, with the high bit set on
+ * every byte but the last. A 6x7 game thus takes three header bytes and three bits per move.
+ */
+final class GameRecordFormat {
+  static final int MAGIC = 0x43344752;
+  static final byte VERSION = 1;
+  static final int HEADER_BYTES = Integer.BYTES + 1;
+  static final int OUTCOME_BITS = 2;
+  static final int MAX_VARINT_BYTES = 10;
+
+  /**
+   * Not instantiable, use the static methods.
+   */
+  private GameRecordFormat() {
+  }
+
+  /**
+   * Retrieves the number of bits each move takes on a board.
+   *
+   * @param columns the number of columns of the board
+   * @return the number of bits that can hold every column index, at least 1
+   */
+  static int bitsPerMove(int columns) {
+    return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(columns - 1));
+  }
+
+  /**
+   * Retrieves the number of bytes the moves of a record take.
+   *
+   * @param moves   the number of moves
+   * @param columns the number of columns of the board
+   * @return the number of bytes of the packed moves
+   */
+  static int packedBytes(int moves, int columns) {
+    return (int) (((long) moves * bitsPerMove(columns) + Byte.SIZE - 1) / Byte.SIZE);
+  }
+
+  /**
+   * Reads an unsigned varint at the buffer's position and advances past it.
+   *
+   * @param buffer the buffer to read from
+   * @return the value
+   * @throws IOException if the varint is longer than a long or runs past the buffer's limit
+   */
+  static long readVarint(ByteBuffer buffer) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      if (!buffer.hasRemaining()) {
+        throw new IOException("Truncated game record");
+      }
+      int current = buffer.get();
+      value |= (long) (current & 0x7F) << shift;
+      if ((current & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Invalid game record");
+  }
+}
@@ -0,0 +1,111 @@
+package archive;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads game records one at a time from an archive written by {@link GameRecordWriter}. The
+ * archive header is checked when the reader is created.
+ */
+public class GameRecordReader implements Closeable {
+  private final InputStream in;
+
+  /**
+   * Constructs a new GameRecordReader and checks the archive header.
+   *
+   * @param in the stream to read the archive from, which the reader buffers and closes
+   * @throws IOException              if the header cannot be read or is not an archive header
+   * @throws IllegalArgumentException if the stream is null
+   */
+  public GameRecordReader(InputStream in) throws IOException, IllegalArgumentException {
+    if (in == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    this.in = new BufferedInputStream(in);
+    int magic = 0;
+    for (int i = 0; i < Integer.BYTES; i++) {
+      magic = (magic << Byte.SIZE) | readByte();
+    }
+    if (magic != GameRecordFormat.MAGIC || readByte() != GameRecordFormat.VERSION) {
+      throw new IOException("Not a game archive");
+    }
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the record, or null at the end of the archive
+   * @throws IOException if the record cannot be read, is truncated or is invalid
+   */
+  public GameRecord read() throws IOException {
+    int first = in.read();
+    if (first < 0) {
+      return null;
+    }
+    long rows = readVarint(first);
+    long columns = readVarint(readByte());
+    long countAndOutcome = readVarint(readByte());
+    GameRecord.Outcome[] outcomes = GameRecord.Outcome.values();
+    int outcome = (int) (countAndOutcome & ((1 << GameRecordFormat.OUTCOME_BITS) - 1));
+    long moveCount = countAndOutcome >>> GameRecordFormat.OUTCOME_BITS;
+    if (rows <= 0 || rows > Integer.MAX_VALUE || columns <= 0 || columns > Integer.MAX_VALUE
+        || outcome >= outcomes.length || moveCount > Math.min(rows * columns, Integer.MAX_VALUE)) {
+      throw new IOException("Invalid game record");
+    }
+
+    int[] moves = new int[(int) moveCount];
+    int bits = GameRecordFormat.bitsPerMove((int) columns);
+    long buffer = 0;
+    int buffered = 0;
+    for (int i = 0; i < moves.length; i++) {
+      while (buffered < bits) {
+        buffer = (buffer << Byte.SIZE) | readByte();
+        buffered += Byte.SIZE;
+      }
+      buffered -= bits;
+      moves[i] = (int) (buffer >>> buffered);
+      buffer &= (1L << buffered) - 1;
+    }
+    try {
+      return new GameRecord((int) rows, (int) columns, moves, outcomes[outcome]);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid game record: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Closes the stream.
+   *
+   * @throws IOException if the stream cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private int readByte() throws IOException {
+    int value = in.read();
+    if (value < 0) {
+      throw new EOFException("Truncated game archive");
+    }
+    return value;
+  }
+
+  private long readVarint(int first) throws IOException {
+    long value = first & 0x7F;
+    int shift = 7;
+    int current = first;
+    while ((current & 0x80) != 0) {
+      if (shift >= Long.SIZE) {
+        throw new IOException("Invalid game record");
+      }
+      current = readByte();
+      value |= (long) (current & 0x7F) << shift;
+      shift += 7;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,108 @@
+package archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes game records to an archive in the compact format described by {@link GameRecordFormat}.
+ * The archive header is written when the writer is created.
+ */
+public class GameRecordWriter implements Closeable {
+  private final OutputStream out;
+  private long recordsWritten;
+
+  /**
+   * Constructs a new GameRecordWriter and writes the archive header.
+   *
+   * @param out the stream to write the archive to, which the writer buffers and closes
+   * @throws IOException              if the header cannot be written
+   * @throws IllegalArgumentException if the stream is null
+   */
+  public GameRecordWriter(OutputStream out) throws IOException, IllegalArgumentException {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    this.out = new BufferedOutputStream(out);
+    writeInt(GameRecordFormat.MAGIC);
+    this.out.write(GameRecordFormat.VERSION);
+  }
+
+  /**
+   * Appends a record to the archive.
+   *
+   * @param record the record to write
+   * @throws IOException              if the record cannot be written
+   * @throws IllegalArgumentException if the record is null
+   */
+  public void write(GameRecord record) throws IOException, IllegalArgumentException {
+    if (record == null) {
+      throw new IllegalArgumentException("Record cannot be null");
+    }
+    int moves = record.getMoveCount();
+    writeVarint(record.getRows());
+    writeVarint(record.getColumns());
+    writeVarint(((long) moves << GameRecordFormat.OUTCOME_BITS)
+        | record.getOutcome().ordinal());
+
+    int bits = GameRecordFormat.bitsPerMove(record.getColumns());
+    long buffer = 0;
+    int buffered = 0;
+    for (int i = 0; i < moves; i++) {
+      buffer = (buffer << bits) | record.getMove(i);
+      buffered += bits;
+      while (buffered >= Byte.SIZE) {
+        buffered -= Byte.SIZE;
+        out.write((int) (buffer >>> buffered));
+        buffer &= (1L << buffered) - 1;
+      }
+    }
+    if (buffered > 0) {
+      out.write((int) (buffer << (Byte.SIZE - buffered)));
+    }
+    recordsWritten++;
+  }
+
+  /**
+   * Retrieves the number of records written so far.
+   *
+   * @return the number of records
+   */
+  public long getRecordsWritten() {
+    return recordsWritten;
+  }
+
+  /**
+   * Writes any buffered records to the stream.
+   *
+   * @throws IOException if the records cannot be written
+   */
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  /**
+   * Writes any buffered records and closes the stream.
+   *
+   * @throws IOException if the records cannot be written or the stream cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  private void writeInt(int value) throws IOException {
+    for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      out.write(value >>> shift);
+    }
+  }
+
+  private void writeVarint(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+}
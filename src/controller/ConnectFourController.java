@@ -1,6 +1,8 @@
 package controller;
 
+import ai.ComputerPlayer;
 import model.ConnectFourModel;
+import model.Player;
 
 /**
  * Represents a Controller for the Connect Four game.
@@ -19,6 +21,17 @@ public interface ConnectFourController {
   void playGame(ConnectFourModel m) throws IllegalArgumentException;
 
 
+  /**
+   * Let a computer player make the moves of the given player. Passing null hands the player back
+   * to the user.
+   *
+   * @param player   the player the computer plays for
+   * @param computer the computer player, or null to let the user play
+   * @throws IllegalArgumentException if the player is null
+   */
+  void setComputerPlayer(Player player, ComputerPlayer computer) throws IllegalArgumentException;
+
+
   /**
    * Make a move in the Connect Four game. The move is executed using the model.
    * The move is made in the column specified by the user.
@@ -36,6 +49,26 @@ public interface ConnectFourController {
   void resetGame();
 
 
+  /**
+   * Take back the last move. If there is no move to take back, an error is displayed.
+   */
+  void undoMove();
+
+
+  /**
+   * Make the last move that was taken back again. If there is no such move, an error is
+   * displayed.
+   */
+  void redoMove();
+
+
+  /**
+   * Stop the game. A computer move being searched is abandoned and the threads searching for
+   * computer moves are stopped.
+   */
+  void close();
+
+
   /**
    * Get the status message for the current player's turn.
    * This message is displayed to the user to indicate whose turn it is.
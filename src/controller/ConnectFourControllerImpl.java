@@ -1,18 +1,56 @@
 package controller;
 
+import ai.ComputerPlayer;
+import ai.SearchListener;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import metrics.GameMetrics;
 import model.ConnectFourModel;
+import model.MoveEvent;
+import model.MoveListener;
 import model.Player;
+import model.ReadOnlyBoard;
 import view.ConnectFourView;
 
 /**
  * Represents a Controller for the Connect Four game.
  * The controller is responsible for handling user
  * moves by executing them using the model and conveying move outcomes to the user.
+ * The controller listens to the model, so each move is forwarded to the view as a single
+ * changed cell and the whole board is only redrawn when it is reset. Either player can be
+ * handed to a computer player, which then moves as soon as it is its turn.
+ *
+ * <p>By default the computer's moves are searched on the thread that calls the controller. A
+ * controller built with a UI executor searches them on a background thread instead, so the user
+ * interface keeps drawing while the computer thinks. The search is stopped at a deadline, its
+ * progress is shown by the view as each depth is completed, and resetting the game, taking back
+ * a move or closing the controller abandons it at once. Such a controller must only be called on
+ * the thread the UI executor runs its tasks on, such as the Swing event dispatch thread, and the
+ * computer's moves are applied on that thread too.
+ *
+ * <p>While {@link GameMetrics} are enabled, the controller records its moves, the moves the
+ * model rejects and the time spent handing updates to the view.
  */
 
-public class ConnectFourControllerImpl implements ConnectFourController {
+public class ConnectFourControllerImpl implements ConnectFourController, MoveListener {
   private final ConnectFourModel model;
   private final ConnectFourView view;
+  private final Map<Player, ComputerPlayer> computerPlayers = new EnumMap<>(Player.class);
+  private final Executor uiExecutor;
+  private final ExecutorService searchThread;
+  private final ScheduledExecutorService deadlineTimer;
+  private final long deadlineMillis;
+  private long searchId;
+  private AtomicBoolean searchStop;
+  private boolean closed;
 
   /**
    * Constructs a new SwingConnectFourController object with the specified input source, view, and
@@ -24,13 +62,50 @@ public class ConnectFourControllerImpl implements ConnectFourController {
    */
   public ConnectFourControllerImpl(ConnectFourView view, ConnectFourModel model)
       throws IllegalArgumentException {
+    this(view, model, null, 0);
+  }
+
+  /**
+   * Constructs a new ConnectFourControllerImpl that searches the computer's moves on a
+   * background thread. The computer's moves and its progress are handed to the UI executor,
+   * which must run them on the thread the controller is called on.
+   *
+   * @param view           the view for the Connect Four game
+   * @param model          the model for the Connect Four game
+   * @param uiExecutor     the executor of the user interface thread, or null to search on the
+   *                       calling thread
+   * @param deadlineMillis the time after which a search is stopped and its best column so far
+   *                       is played, in milliseconds
+   * @throws IllegalArgumentException if the view or model is null, or the deadline is not
+   *                                  positive while a UI executor is given
+   */
+  public ConnectFourControllerImpl(ConnectFourView view, ConnectFourModel model,
+      Executor uiExecutor, long deadlineMillis) throws IllegalArgumentException {
     if (view == null || model == null) {
       throw new IllegalArgumentException("View and model cannot be null");
     }
+    if (uiExecutor != null && deadlineMillis <= 0) {
+      throw new IllegalArgumentException("The deadline must be positive");
+    }
 
     this.model = model;
     this.view = view;
+    this.uiExecutor = uiExecutor;
+    this.deadlineMillis = deadlineMillis;
+    if (uiExecutor != null) {
+      ThreadFactory threads = runnable -> {
+        Thread thread = new Thread(runnable, "computer-player");
+        thread.setDaemon(true);
+        return thread;
+      };
+      this.searchThread = Executors.newSingleThreadExecutor(threads);
+      this.deadlineTimer = Executors.newSingleThreadScheduledExecutor(threads);
+    } else {
+      this.searchThread = null;
+      this.deadlineTimer = null;
+    }
     this.view.setController(this);
+    this.model.addMoveListener(this);
   }
 
 
@@ -48,15 +123,43 @@ public class ConnectFourControllerImpl implements ConnectFourController {
       throw new IllegalArgumentException("Model can't be null");
     }
 
+    cancelComputerMove();
     model.initializeBoard();
-    view.displayGameState(model.getBoardState());
     view.displayPlayerTurn(getStatusMessage());
+    playComputerTurns();
+  }
+
+  /**
+   * Let a computer player make the moves of the given player. Passing null hands the player back
+   * to the user. A move being searched in the background is abandoned and searched again by the
+   * new computer player, if any.
+   *
+   * @param player   the player the computer plays for
+   * @param computer the computer player, or null to let the user play
+   * @throws IllegalArgumentException if the player is null
+   */
+  @Override
+  public void setComputerPlayer(Player player, ComputerPlayer computer)
+      throws IllegalArgumentException {
+    if (player == null) {
+      throw new IllegalArgumentException("Player cannot be null");
+    }
+    if (computer == null) {
+      computerPlayers.remove(player);
+    } else {
+      computerPlayers.put(player, computer);
+    }
+    if (searchStop != null) {
+      cancelComputerMove();
+      startComputerMove();
+    }
   }
 
   /**
    * Make a move in the Connect Four game. The move is executed using the model.
    * If the game is over, an IllegalStateException is thrown. If the move is invalid,
-   * an IllegalArgumentException is thrown.
+   * an IllegalArgumentException is thrown. While the computer is searching for its move, an
+   * error is displayed instead.
    *
    * @param column the column in which to place the disc
    */
@@ -65,19 +168,156 @@ public class ConnectFourControllerImpl implements ConnectFourController {
     if (model.isGameOver()) {
       throw new IllegalStateException("The game is over");
     }
+    if (searchStop != null) {
+      view.displayError("Wait for the computer to move");
+      return;
+    }
 
+    long start = GameMetrics.startTimer();
     try {
       model.makeMove(column);
-
-      view.displayGameState(model.getBoardState());
-      if (model.isGameOver()) {
-        view.displayGameOver(model.getWinner());
-      } else {
-        view.displayPlayerTurn(getStatusMessage());
-      }
     } catch (IllegalArgumentException e) {
+      GameMetrics.get().invalidMoveSince(start);
       view.displayError(e.getMessage());
+      return;
+    }
+    displayOutcome();
+    GameMetrics.get().moveMadeSince(start, model.isGameOver());
+    playComputerTurns();
+  }
+
+  /**
+   * Displays the game over message if the last move ended the game, or whose turn it is
+   * otherwise.
+   */
+  private void displayOutcome() {
+    long start = GameMetrics.startTimer();
+    if (model.isGameOver()) {
+      view.displayGameOver(model.getWinner());
+    } else {
+      view.displayPlayerTurn(getStatusMessage());
     }
+    GameMetrics.get().renderDispatchedSince(start);
+  }
+
+  /**
+   * Makes the computer's moves for as long as it is a computer player's turn. With a UI
+   * executor, the first of them is searched in the background and the others follow it.
+   */
+  private void playComputerTurns() {
+    if (uiExecutor != null) {
+      startComputerMove();
+      return;
+    }
+    ComputerPlayer computer = computerToMove();
+    while (computer != null) {
+      playComputerMove(computer.chooseColumn(model));
+      computer = computerToMove();
+    }
+  }
+
+  /**
+   * Makes a move chosen by the computer and displays its outcome.
+   *
+   * @param column the column the computer chose
+   */
+  private void playComputerMove(int column) {
+    long start = GameMetrics.startTimer();
+    model.makeMove(column);
+    displayOutcome();
+    GameMetrics.get().moveMadeSince(start, model.isGameOver());
+  }
+
+  /**
+   * Starts searching the computer's move on the background thread, if it is a computer player's
+   * turn and no search is running. The search works on a copy of the model, and a timer stops it
+   * at the deadline. Its progress and its move are handed to the UI executor, which drops them
+   * if the search has been abandoned in the meantime.
+   */
+  private void startComputerMove() {
+    ComputerPlayer computer = computerToMove();
+    if (computer == null || searchStop != null || closed) {
+      return;
+    }
+    ConnectFourModel position = model.copy();
+    AtomicBoolean stop = new AtomicBoolean();
+    long id = ++searchId;
+    searchStop = stop;
+    SearchListener listener = progress -> uiExecutor.execute(() -> {
+      if (id == searchId) {
+        view.displaySearchProgress(progress);
+      }
+    });
+    ScheduledFuture<?> deadline = deadlineTimer.schedule(() -> stop.set(true), deadlineMillis,
+        TimeUnit.MILLISECONDS);
+    searchThread.execute(() -> {
+      try {
+        int column = computer.chooseColumn(position, stop, listener);
+        uiExecutor.execute(() -> finishComputerMove(id, column));
+      } catch (RuntimeException e) {
+        uiExecutor.execute(() -> failComputerMove(id, e));
+      } finally {
+        deadline.cancel(false);
+      }
+    });
+  }
+
+  /**
+   * Plays the column a background search chose, unless the search was abandoned, and starts
+   * the next search if it is a computer player's turn again. A column the model rejects is
+   * displayed as a failed search, and the user can move again.
+   *
+   * @param id     the number of the search
+   * @param column the column the computer chose
+   */
+  private void finishComputerMove(long id, int column) {
+    if (id != searchId) {
+      return;
+    }
+    searchStop = null;
+    try {
+      playComputerMove(column);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      failComputerMove(id, e);
+      return;
+    }
+    startComputerMove();
+  }
+
+  /**
+   * Displays the failure of a background search, unless the search was abandoned.
+   *
+   * @param id    the number of the search
+   * @param error the reason the search failed
+   */
+  private void failComputerMove(long id, RuntimeException error) {
+    if (id != searchId) {
+      return;
+    }
+    searchStop = null;
+    view.displayError("The computer could not move: " + error.getMessage());
+  }
+
+  /**
+   * Abandons the background search, if one is running. The search is told to stop, and its
+   * progress and its move are dropped when they arrive.
+   */
+  private void cancelComputerMove() {
+    searchId++;
+    if (searchStop != null) {
+      searchStop.set(true);
+      searchStop = null;
+    }
+  }
+
+  /**
+   * Retrieves the computer player whose turn it is.
+   *
+   * @return the computer player to move, or null if the game is over or the user is to move
+   */
+  private ComputerPlayer computerToMove() {
+    Player turn = model.getTurn();
+    return turn == null ? null : computerPlayers.get(turn);
   }
 
   /**
@@ -87,9 +327,65 @@ public class ConnectFourControllerImpl implements ConnectFourController {
    */
   @Override
   public void resetGame() {
+    cancelComputerMove();
     model.resetBoard();
-    view.displayGameState(model.getBoardState());
     view.displayPlayerTurn(getStatusMessage());
+    playComputerTurns();
+  }
+
+  /**
+   * Take back the last move. If there is no move to take back, an error is displayed. When
+   * playing against the computer, the computer's reply is taken back as well, so it is the
+   * user's turn again. A computer move being searched is abandoned.
+   */
+  @Override
+  public void undoMove() {
+    cancelComputerMove();
+    try {
+      model.undoMove();
+      if (computerToMove() != null && model.canUndo()) {
+        model.undoMove();
+      }
+      view.displayPlayerTurn(getStatusMessage());
+    } catch (IllegalStateException e) {
+      view.displayError(e.getMessage());
+    }
+    playComputerTurns();
+  }
+
+  /**
+   * Make the last move that was taken back again. If there is no such move, an error is
+   * displayed. When playing against the computer, the computer's reply is made again as well.
+   * A computer move being searched is abandoned.
+   */
+  @Override
+  public void redoMove() {
+    cancelComputerMove();
+    try {
+      model.redoMove();
+      if (computerToMove() != null && model.canRedo()) {
+        model.redoMove();
+      }
+    } catch (IllegalStateException e) {
+      view.displayError(e.getMessage());
+      return;
+    }
+    displayOutcome();
+    playComputerTurns();
+  }
+
+  /**
+   * Stop the game. A computer move being searched is abandoned and the background threads are
+   * stopped, so no computer move is made afterwards.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    cancelComputerMove();
+    if (searchThread != null) {
+      searchThread.shutdownNow();
+      deadlineTimer.shutdownNow();
+    }
   }
 
   /**
@@ -108,4 +404,40 @@ public class ConnectFourControllerImpl implements ConnectFourController {
       return model.getTurn() + " Player's turn";
     }
   }
+
+  /**
+   * Forwards a move made on the model to the view, which only has to repaint one cell.
+   *
+   * @param event the move that was made
+   */
+  @Override
+  public void moveMade(MoveEvent event) {
+    long start = GameMetrics.startTimer();
+    view.displayMove(event);
+    GameMetrics.get().renderDispatchedSince(start);
+  }
+
+  /**
+   * Forwards a move taken back on the model to the view, which only has to clear one cell.
+   *
+   * @param event the move that was taken back
+   */
+  @Override
+  public void moveUndone(MoveEvent event) {
+    long start = GameMetrics.startTimer();
+    view.displayUndo(event);
+    GameMetrics.get().renderDispatchedSince(start);
+  }
+
+  /**
+   * Redraws the whole board after the model has been cleared.
+   *
+   * @param board the read-only view of the cleared board
+   */
+  @Override
+  public void boardReset(ReadOnlyBoard board) {
+    long start = GameMetrics.startTimer();
+    view.displayBoard(board);
+    GameMetrics.get().renderDispatchedSince(start);
+  }
 }
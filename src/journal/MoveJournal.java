@@ -0,0 +1,458 @@
+package journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.MoveEvent;
+import model.MoveListener;
+import model.ReadOnlyBoard;
+import model.SparseConnectFourModel;
+
+/**
+ * Write-ahead journal of one game. The journal listens to the game's model and appends every
+ * move, undo and board reset to a file, so that the game can be rebuilt by replaying the file
+ * after the program stops, whether it was closed or died. Records are gathered in a buffer and
+ * written with a single write and a single flush to the disk as decided by the
+ * {@link SyncPolicy}, so a batch of moves costs one flush instead of one each.
+ *
+ * <p>The file starts with a header holding a magic number, a format version and the size of the
+ * board. Each record is an opcode byte, followed for a move by the column as a varint. A record
+ * that was only partly written when the program died is dropped, along with anything after it,
+ * when the journal is recovered.
+ *
+ * <p>Only the position is journaled. Redone moves are recorded as ordinary moves, and moves that
+ * were undone but not redone are not restored, so a recovered game cannot redo them.
+ */
+public final class MoveJournal implements MoveListener, Closeable {
+  static final int MAGIC = 0x43344A4E;
+  static final byte VERSION = 1;
+  static final int HEADER_BYTES = 13;
+  static final byte MOVE = 1;
+  static final byte UNDO = 2;
+  static final byte RESET = 3;
+
+  private static final int MAX_RECORD_BYTES = 6;
+  private static final int BUFFER_BYTES = 8192;
+  private static final ScheduledExecutorService SYNC_TIMER =
+      Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "journal-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Path file;
+  private final FileChannel channel;
+  private final ConnectFourModel model;
+  private final SyncPolicy policy;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+  private final ScheduledFuture<?> timer;
+  private int bufferedRecords;
+  private long syncs;
+  private IOException failure;
+  private boolean closed;
+
+  /**
+   * Constructs a new MoveJournal that appends to an open file and listens to the model.
+   *
+   * @param file    the journal file
+   * @param channel the journal file, opened for writing at its end
+   * @param model   the model of the game, already in the position the file describes
+   * @param policy  when the records are written and flushed
+   */
+  private MoveJournal(Path file, FileChannel channel, ConnectFourModel model, SyncPolicy policy) {
+    this.file = file;
+    this.channel = channel;
+    this.model = model;
+    this.policy = policy;
+    if (policy.getIntervalMillis() > 0) {
+      this.timer = SYNC_TIMER.scheduleWithFixedDelay(this::timedSync, policy.getIntervalMillis(),
+          policy.getIntervalMillis(), TimeUnit.MILLISECONDS);
+    } else {
+      this.timer = null;
+    }
+    model.addMoveListener(this);
+  }
+
+  /**
+   * Starts a new game with an empty journal. An existing file is replaced.
+   *
+   * @param file    the journal file
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @param policy  when the records are written and flushed
+   * @return the journal, whose model is the new game
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if the file or policy is null or the board size is invalid
+   */
+  public static MoveJournal create(Path file, int rows, int columns, SyncPolicy policy)
+      throws IOException, IllegalArgumentException {
+    if (file == null || policy == null) {
+      throw new IllegalArgumentException("File and policy cannot be null");
+    }
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    return new MoveJournal(file, startFile(file, rows, columns), model, policy);
+  }
+
+  /**
+   * Starts journaling a game whose model was built elsewhere, such as by a tournament or a
+   * server. The model must be at the start of a game; its listeners and players are left as
+   * they are. An existing file is replaced. The journal is recovered with
+   * {@link #recover(Path, SyncPolicy)} like any other, onto a new model of the same size.
+   *
+   * @param model  the model of the game, with no disc on the board
+   * @param file   the journal file
+   * @param policy when the records are written and flushed
+   * @return the journal, whose model is the given one
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if the model, file or policy is null, the model already
+   *                                  has discs on the board, or four in a row does not win it
+   */
+  public static MoveJournal attach(ConnectFourModel model, Path file, SyncPolicy policy)
+      throws IOException, IllegalArgumentException {
+    if (model == null || file == null || policy == null) {
+      throw new IllegalArgumentException("Model, file and policy cannot be null");
+    }
+    if (model instanceof SparseConnectFourModel
+        && ((SparseConnectFourModel) model).getRunLength() != 4) {
+      throw new IllegalArgumentException("Only games of four in a row can be journaled");
+    }
+    ReadOnlyBoard board = model.getBoard();
+    for (int column = 0; column < board.getColumns(); column++) {
+      if (board.getColumnHeight(column) != 0) {
+        throw new IllegalArgumentException("The game has already started");
+      }
+    }
+    return new MoveJournal(file, startFile(file, board.getRows(), board.getColumns()), model,
+        policy);
+  }
+
+  /**
+   * Creates a journal file holding only the header and flushes it to the disk.
+   *
+   * @param file    the journal file
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @return the journal file, opened for writing at its end
+   * @throws IOException if the file cannot be written
+   */
+  private static FileChannel startFile(Path file, int rows, int columns) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).put(VERSION).putInt(rows).putInt(columns).flip();
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return channel;
+  }
+
+  /**
+   * Rebuilds a game from its journal and continues journaling it. Records are replayed in order
+   * until the end of the file or the first record that is incomplete or cannot be applied; the
+   * file is cut after the last good record so that new records follow it.
+   *
+   * @param file   the journal file
+   * @param policy when the new records are written and flushed
+   * @return the journal, whose model is the rebuilt game
+   * @throws IOException              if the file cannot be read or has no valid header
+   * @throws IllegalArgumentException if the file or policy is null
+   */
+  public static MoveJournal recover(Path file, SyncPolicy policy)
+      throws IOException, IllegalArgumentException {
+    if (file == null || policy == null) {
+      throw new IllegalArgumentException("File and policy cannot be null");
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Journal too large");
+      }
+      ByteBuffer contents = ByteBuffer.allocate((int) size);
+      while (contents.hasRemaining() && channel.read(contents) >= 0) {
+        // Keep reading until the whole file is in memory.
+      }
+      contents.flip();
+      if (contents.remaining() < HEADER_BYTES || contents.getInt() != MAGIC
+          || contents.get() != VERSION) {
+        throw new IOException("Not a move journal");
+      }
+      int rows = contents.getInt();
+      int columns = contents.getInt();
+      ConnectFourModel model;
+      try {
+        model = ConnectFourModelFactory.createModel(rows, columns);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Invalid board size in the journal", e);
+      }
+
+      int end = replay(contents, model);
+      if (end < size) {
+        channel.truncate(end);
+        channel.force(false);
+      }
+      channel.position(end);
+      return new MoveJournal(file, channel, model, policy);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Applies the records to the model until one is incomplete or invalid.
+   *
+   * @param contents the records, positioned after the header
+   * @param model    the model, at the start of the game
+   * @return the offset just after the last record applied
+   */
+  private static int replay(ByteBuffer contents, ConnectFourModel model) {
+    int end = contents.position();
+    while (contents.hasRemaining()) {
+      byte opcode = contents.get();
+      try {
+        if (opcode == MOVE) {
+          int column = readVarint(contents);
+          if (column < 0) {
+            break;
+          }
+          model.makeMove(column);
+        } else if (opcode == UNDO) {
+          model.undoMove();
+        } else if (opcode == RESET) {
+          model.resetBoard();
+        } else {
+          break;
+        }
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        break;
+      }
+      end = contents.position();
+    }
+    return end;
+  }
+
+  /**
+   * Reads a column written as a varint.
+   *
+   * @param contents the buffer to read from
+   * @return the column, or -1 if the varint is incomplete or too long
+   */
+  private static int readVarint(ByteBuffer contents) {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE && contents.hasRemaining(); shift += 7) {
+      byte b = contents.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Retrieves the model of the journaled game.
+   *
+   * @return the model
+   */
+  public ConnectFourModel getModel() {
+    return model;
+  }
+
+  /**
+   * Retrieves the journal file.
+   *
+   * @return the path of the file
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Retrieves the policy deciding when records are written and flushed.
+   *
+   * @return the policy
+   */
+  public SyncPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Retrieves the number of times buffered records have been flushed to the disk, which is less
+   * than the number of records when they are grouped.
+   *
+   * @return the number of flushes
+   */
+  public synchronized long getSyncCount() {
+    return syncs;
+  }
+
+  @Override
+  public void moveMade(MoveEvent event) {
+    int column = event.getColumn();
+    synchronized (this) {
+      prepareAppend();
+      buffer.put(MOVE);
+      while ((column & ~0x7F) != 0) {
+        buffer.put((byte) ((column & 0x7F) | 0x80));
+        column >>>= 7;
+      }
+      buffer.put((byte) column);
+      appended();
+    }
+  }
+
+  @Override
+  public synchronized void moveUndone(MoveEvent event) {
+    prepareAppend();
+    buffer.put(UNDO);
+    appended();
+  }
+
+  @Override
+  public synchronized void boardReset(ReadOnlyBoard board) {
+    prepareAppend();
+    buffer.put(RESET);
+    appended();
+  }
+
+  /**
+   * Writes the buffered records to the file and flushes them to the disk, whatever the policy.
+   *
+   * @throws IOException if the records cannot be written, now or by an earlier timed flush
+   */
+  public synchronized void sync() throws IOException {
+    checkFailure();
+    if (!closed) {
+      commit();
+    }
+  }
+
+  /**
+   * Flushes the buffered records, stops listening to the model and closes the file. The model
+   * can still be used, but its moves are no longer journaled.
+   *
+   * @throws IOException if the records cannot be written or the file cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    model.removeMoveListener(this);
+    if (timer != null) {
+      timer.cancel(false);
+    }
+    try {
+      checkFailure();
+      commit();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Makes room for one record, writing the buffer out if it is full.
+   *
+   * @throws UncheckedIOException if the journal cannot be written
+   * @throws IllegalStateException if the journal is closed
+   */
+  private void prepareAppend() {
+    if (closed) {
+      throw new IllegalStateException("The journal is closed");
+    }
+    try {
+      checkFailure();
+      if (buffer.remaining() < MAX_RECORD_BYTES) {
+        commit();
+      }
+    } catch (IOException e) {
+      if (failure == null) {
+        failure = e;
+      }
+      throw new UncheckedIOException("Could not write the move journal", e);
+    }
+  }
+
+  /**
+   * Counts a buffered record and writes the batch out if it is complete.
+   *
+   * @throws UncheckedIOException if the journal cannot be written
+   */
+  private void appended() {
+    bufferedRecords++;
+    if (bufferedRecords >= policy.getBatchRecords()) {
+      try {
+        commit();
+      } catch (IOException e) {
+        failure = e;
+        throw new UncheckedIOException("Could not write the move journal", e);
+      }
+    }
+  }
+
+  /**
+   * Writes the buffered records to the file in one write and flushes the file to the disk. Does
+   * nothing if no record is buffered.
+   *
+   * @throws IOException if the records cannot be written
+   */
+  private void commit() throws IOException {
+    if (buffer.position() == 0) {
+      return;
+    }
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+    bufferedRecords = 0;
+    channel.force(false);
+    syncs++;
+  }
+
+  /**
+   * Writes the buffered records from the timer thread. A failure is kept and reported by the
+   * next call on the journal.
+   */
+  private synchronized void timedSync() {
+    if (closed || failure != null) {
+      return;
+    }
+    try {
+      commit();
+    } catch (IOException e) {
+      failure = e;
+    }
+  }
+
+  /**
+   * Reports a failure of an earlier write. Once a write has failed the file may be missing
+   * records, so the journal refuses any more.
+   *
+   * @throws IOException the earlier failure
+   */
+  private void checkFailure() throws IOException {
+    if (failure != null) {
+      throw new IOException("An earlier write of the move journal failed", failure);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package journal;
+
+/**
+ * When a move journal writes its buffered records to the file and forces them to the disk.
+ * Forcing after every move survives any crash but costs a disk flush per move; the other
+ * policies group moves into one write and one flush, and may lose the moves since the last
+ * flush if the machine goes down. A crash of the JVM alone loses at most the records that were
+ * still buffered.
+ */
+public final class SyncPolicy {
+  private final int batchRecords;
+  private final long intervalMillis;
+
+  /**
+   * Constructs a new SyncPolicy.
+   *
+   * @param batchRecords   the number of records buffered before they are written and forced
+   * @param intervalMillis the time between writes of whatever is buffered, or 0 for none
+   */
+  private SyncPolicy(int batchRecords, long intervalMillis) {
+    this.batchRecords = batchRecords;
+    this.intervalMillis = intervalMillis;
+  }
+
+  /**
+   * Writes and forces every record as soon as it is made.
+   *
+   * @return the policy
+   */
+  public static SyncPolicy everyMove() {
+    return new SyncPolicy(1, 0);
+  }
+
+  /**
+   * Writes and forces the records once a given number of them has been buffered.
+   *
+   * @param records the number of records in a batch
+   * @return the policy
+   * @throws IllegalArgumentException if the number of records is not positive
+   */
+  public static SyncPolicy everyBatch(int records) throws IllegalArgumentException {
+    if (records <= 0) {
+      throw new IllegalArgumentException("The batch size must be positive");
+    }
+    return new SyncPolicy(records, 0);
+  }
+
+  /**
+   * Writes and forces the buffered records at a fixed interval, from a background thread.
+   *
+   * @param millis the time between writes, in milliseconds
+   * @return the policy
+   * @throws IllegalArgumentException if the interval is not positive
+   */
+  public static SyncPolicy everyMillis(long millis) throws IllegalArgumentException {
+    if (millis <= 0) {
+      throw new IllegalArgumentException("The interval must be positive");
+    }
+    return new SyncPolicy(Integer.MAX_VALUE, millis);
+  }
+
+  /**
+   * Retrieves the number of records buffered before they are written.
+   *
+   * @return the batch size, which is Integer.MAX_VALUE for a timed policy
+   */
+  public int getBatchRecords() {
+    return batchRecords;
+  }
+
+  /**
+   * Retrieves the time between timed writes.
+   *
+   * @return the interval in milliseconds, or 0 if writes are not timed
+   */
+  public long getIntervalMillis() {
+    return intervalMillis;
+  }
+
+  @Override
+  public String toString() {
+    if (intervalMillis > 0) {
+      return "every " + intervalMillis + " ms";
+    }
+    return batchRecords == 1 ? "every move" : "every " + batchRecords + " moves";
+  }
+}
@@ -0,0 +1,300 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Runtime metrics of the game, shared by every controller and model in the program: moves made
+ * and rejected, games completed, and the time taken by moves, win checks and the dispatch of
+ * updates to the view. Counters are {@link LongAdder}s and times go into
+ * {@link LatencyHistogram}s, so recording never takes a lock.
+ *
+ * <p>Metrics are off unless the program is started with {@code -Dconnectfour.metrics=true} or
+ * they are turned on with {@link #setEnabled(boolean)}. Code that records a time takes its start
+ * from {@link #startTimer()} and hands it to one of the {@code ...Since} methods, so while
+ * metrics are off it does not even read the clock. Models record every win check, including
+ * those of the moves a computer player tries while searching.
+ *
+ * <p>The metrics can be read over JMX once {@link #registerMBeans()} has been called, under
+ * {@value #OBJECT_NAME} for the counters and {@code connectfour:type=LatencyHistogram,name=...}
+ * for each histogram, or as text from {@link #dump()}.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+  public static final String OBJECT_NAME = "connectfour:type=GameMetrics";
+  /**
+   * The start time {@link #startTimer()} returns while metrics are off.
+   */
+  public static final long NOT_TIMED = Long.MIN_VALUE;
+  private static final String HISTOGRAM_OBJECT_NAME = "connectfour:type=LatencyHistogram,name=";
+  private static final GameMetrics INSTANCE = new GameMetrics();
+  private static volatile boolean enabled = Boolean.getBoolean("connectfour.metrics");
+
+  private final LongAdder movesMade = new LongAdder();
+  private final LongAdder invalidMoves = new LongAdder();
+  private final LongAdder gamesCompleted = new LongAdder();
+  private final LatencyHistogram moveTime = new LatencyHistogram("moveTime");
+  private final LatencyHistogram winCheckTime = new LatencyHistogram("winCheckTime");
+  private final LatencyHistogram renderDispatchTime = new LatencyHistogram("renderDispatchTime");
+  private volatile long startNanos = System.nanoTime();
+
+  /**
+   * Not instantiable, use {@link #get()}.
+   */
+  private GameMetrics() {
+  }
+
+  /**
+   * Retrieves the metrics of the program.
+   *
+   * @return the metrics
+   */
+  public static GameMetrics get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Checks whether metrics are being recorded. This is cheap enough to call on every move.
+   *
+   * @return true if metrics are recorded, false otherwise
+   */
+  public static boolean enabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts timing an operation. The result is passed to one of the {@code ...Since} methods when
+   * the operation ends.
+   *
+   * @return the current time in nanoseconds, or {@link #NOT_TIMED} if metrics are off
+   */
+  public static long startTimer() {
+    return enabled ? System.nanoTime() : NOT_TIMED;
+  }
+
+  /**
+   * Registers the metrics and their histograms with the platform MBean server. Beans that are
+   * already registered are left as they are.
+   *
+   * @throws IllegalStateException if the beans cannot be registered
+   */
+  public static void registerMBeans() throws IllegalStateException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      register(server, INSTANCE, new ObjectName(OBJECT_NAME));
+      for (LatencyHistogram histogram : INSTANCE.getHistograms()) {
+        register(server, histogram, new ObjectName(HISTOGRAM_OBJECT_NAME + histogram.getName()));
+      }
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not register the metrics", e);
+    }
+  }
+
+  /**
+   * Registers one bean unless a bean of the same name is registered.
+   *
+   * @param server the MBean server
+   * @param bean   the bean
+   * @param name   the name of the bean
+   * @throws JMException if the bean cannot be registered
+   */
+  private static void register(MBeanServer server, Object bean, ObjectName name)
+      throws JMException {
+    if (!server.isRegistered(name)) {
+      server.registerMBean(bean, name);
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    GameMetrics.enabled = enabled;
+  }
+
+  /**
+   * Records a move made through the controller.
+   *
+   * @param nanos    the time taken to make the move and show it
+   * @param gameOver whether the move ended the game
+   */
+  public void moveMade(long nanos, boolean gameOver) {
+    movesMade.increment();
+    moveTime.record(nanos);
+    if (gameOver) {
+      gamesCompleted.increment();
+    }
+  }
+
+  /**
+   * Records a move made through the controller that was timed from the given start.
+   *
+   * @param start    the result of {@link #startTimer()} when the move began; nothing is recorded
+   *                 if it is {@link #NOT_TIMED}
+   * @param gameOver whether the move ended the game
+   */
+  public void moveMadeSince(long start, boolean gameOver) {
+    if (start != NOT_TIMED) {
+      moveMade(System.nanoTime() - start, gameOver);
+    }
+  }
+
+  /**
+   * Records a move the model rejected.
+   */
+  public void invalidMove() {
+    invalidMoves.increment();
+  }
+
+  /**
+   * Records a move the model rejected, if the move was timed from the given start.
+   *
+   * @param start the result of {@link #startTimer()} when the move began; nothing is recorded if
+   *              it is {@link #NOT_TIMED}
+   */
+  public void invalidMoveSince(long start) {
+    if (start != NOT_TIMED) {
+      invalidMove();
+    }
+  }
+
+  /**
+   * Records the time a model took to check whether a move ended the game.
+   *
+   * @param nanos the time of the check
+   */
+  public void winChecked(long nanos) {
+    winCheckTime.record(nanos);
+  }
+
+  /**
+   * Records a win check that was timed from the given start.
+   *
+   * @param start the result of {@link #startTimer()} when the check began; nothing is recorded
+   *              if it is {@link #NOT_TIMED}
+   */
+  public void winCheckedSince(long start) {
+    if (start != NOT_TIMED) {
+      winChecked(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Records the time taken to hand an update to the view.
+   *
+   * @param nanos the time of the dispatch
+   */
+  public void renderDispatched(long nanos) {
+    renderDispatchTime.record(nanos);
+  }
+
+  /**
+   * Records an update handed to the view that was timed from the given start.
+   *
+   * @param start the result of {@link #startTimer()} when the dispatch began; nothing is
+   *              recorded if it is {@link #NOT_TIMED}
+   */
+  public void renderDispatchedSince(long start) {
+    if (start != NOT_TIMED) {
+      renderDispatched(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public long getMovesMade() {
+    return movesMade.sum();
+  }
+
+  @Override
+  public double getMovesPerSecond() {
+    long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+    return movesMade.sum() * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public long getInvalidMoves() {
+    return invalidMoves.sum();
+  }
+
+  @Override
+  public double getInvalidMoveRate() {
+    long invalid = invalidMoves.sum();
+    long attempts = invalid + movesMade.sum();
+    return attempts == 0 ? 0 : (double) invalid / attempts;
+  }
+
+  @Override
+  public long getGamesCompleted() {
+    return gamesCompleted.sum();
+  }
+
+  /**
+   * Retrieves the times of moves made through the controller, including showing them.
+   *
+   * @return the histogram of move times
+   */
+  public LatencyHistogram getMoveTime() {
+    return moveTime;
+  }
+
+  /**
+   * Retrieves the times of the models' checks for the end of the game.
+   *
+   * @return the histogram of win check times
+   */
+  public LatencyHistogram getWinCheckTime() {
+    return winCheckTime;
+  }
+
+  /**
+   * Retrieves the times taken to hand updates to the view.
+   *
+   * @return the histogram of dispatch times
+   */
+  public LatencyHistogram getRenderDispatchTime() {
+    return renderDispatchTime;
+  }
+
+  /**
+   * Retrieves all the histograms.
+   *
+   * @return the histograms
+   */
+  private LatencyHistogram[] getHistograms() {
+    return new LatencyHistogram[] {moveTime, winCheckTime, renderDispatchTime};
+  }
+
+  @Override
+  public void reset() {
+    movesMade.reset();
+    invalidMoves.reset();
+    gamesCompleted.reset();
+    for (LatencyHistogram histogram : getHistograms()) {
+      histogram.reset();
+    }
+    startNanos = System.nanoTime();
+  }
+
+  @Override
+  public String dump() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(String.format("moves: %d (%.2f/s)%n", getMovesMade(), getMovesPerSecond()));
+    builder.append(String.format("invalidMoves: %d (%.2f%%)%n", getInvalidMoves(),
+        getInvalidMoveRate() * 100));
+    builder.append(String.format("gamesCompleted: %d%n", getGamesCompleted()));
+    for (LatencyHistogram histogram : getHistograms()) {
+      builder.append(histogram).append(System.lineSeparator());
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public String toString() {
+    return dump();
+  }
+}
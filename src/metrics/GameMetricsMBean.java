@@ -0,0 +1,69 @@
+package metrics;
+
+/**
+ * Management interface of the {@link GameMetrics}, exposing the game counters over JMX. The
+ * latency histograms are registered as their own beans.
+ */
+public interface GameMetricsMBean {
+
+  /**
+   * Checks whether metrics are being recorded.
+   *
+   * @return true if metrics are recorded, false otherwise
+   */
+  boolean isEnabled();
+
+  /**
+   * Starts or stops recording metrics.
+   *
+   * @param enabled true to record metrics, false to stop
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * Retrieves the number of moves made through the controller.
+   *
+   * @return the number of moves
+   */
+  long getMovesMade();
+
+  /**
+   * Retrieves the number of moves made per second since the metrics were started or reset.
+   *
+   * @return the rate of moves
+   */
+  double getMovesPerSecond();
+
+  /**
+   * Retrieves the number of moves the model rejected.
+   *
+   * @return the number of invalid moves
+   */
+  long getInvalidMoves();
+
+  /**
+   * Retrieves the share of attempted moves that the model rejected.
+   *
+   * @return the rate of invalid moves, from 0 to 1
+   */
+  double getInvalidMoveRate();
+
+  /**
+   * Retrieves the number of games that ended with a win or a full board.
+   *
+   * @return the number of games completed
+   */
+  long getGamesCompleted();
+
+  /**
+   * Forgets all the metrics recorded and restarts the clock of the rates.
+   */
+  void reset();
+
+  /**
+   * Writes all the metrics as text.
+   *
+   * @return the metrics, one per line
+   */
+  String dump();
+}
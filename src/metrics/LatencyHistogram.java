@@ -0,0 +1,186 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of operation times that any number of threads can record into without locking. Like
+ * HdrHistogram, times are counted in buckets whose width grows with the time: below 64 ns each
+ * nanosecond has its own bucket, and above that every power of two is split into 32 buckets, so
+ * a percentile read from the histogram is within about 3% of the exact one. Recording a time is
+ * an increment of one bucket, an addition to the sum and, for a new maximum only, a
+ * compare-and-set, and the whole range of a long fits in under two thousand buckets.
+ *
+ * <p>The summary is read from the buckets without stopping the threads that record, so it may
+ * miss times recorded while it is being read.
+ */
+public final class LatencyHistogram implements LatencyHistogramMBean {
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+  private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS)
+      * HALF_SUB_BUCKETS;
+
+  private final String name;
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Constructs a new empty LatencyHistogram.
+   *
+   * @param name the name of the measured operation
+   * @throws IllegalArgumentException if the name is null
+   */
+  public LatencyHistogram(String name) throws IllegalArgumentException {
+    if (name == null) {
+      throw new IllegalArgumentException("Name cannot be null");
+    }
+    this.name = name;
+  }
+
+  /**
+   * Records the time of one operation. Negative times, which a clock adjustment can produce, are
+   * recorded as 0.
+   *
+   * @param nanos the time of the operation in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(bucketOf(value));
+    total.add(value);
+    long longest = max.get();
+    while (value > longest && !max.compareAndSet(longest, value)) {
+      longest = max.get();
+    }
+  }
+
+  /**
+   * Retrieves the time at or below which a percentage of the recorded times lie. The time is the
+   * upper bound of the bucket holding that percentile, but never more than the longest time.
+   *
+   * @param percentile the percentage, from 0 to 100
+   * @return the time in nanoseconds, or 0 if nothing was recorded
+   * @throws IllegalArgumentException if the percentage is not between 0 and 100
+   */
+  public long getPercentileNanos(double percentile) throws IllegalArgumentException {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    long[] snapshot = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  @Override
+  public double getMeanNanos() {
+    long count = getCount();
+    return count == 0 ? 0 : (double) total.sum() / count;
+  }
+
+  @Override
+  public long getMedianNanos() {
+    return getPercentileNanos(50);
+  }
+
+  @Override
+  public long getP90Nanos() {
+    return getPercentileNanos(90);
+  }
+
+  @Override
+  public long getP99Nanos() {
+    return getPercentileNanos(99);
+  }
+
+  @Override
+  public long getMaxNanos() {
+    return max.get();
+  }
+
+  /**
+   * Forgets all the times recorded. Times recorded while the histogram is being reset may be
+   * kept in part.
+   */
+  @Override
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    total.reset();
+    max.set(0);
+  }
+
+  /**
+   * Returns a one-line summary of the histogram, with times in microseconds.
+   *
+   * @return the summary
+   */
+  @Override
+  public String toString() {
+    return String.format("%s: count=%d mean=%.2fus p50=%.2fus p90=%.2fus p99=%.2fus max=%.2fus",
+        name, getCount(), getMeanNanos() / 1e3, getMedianNanos() / 1e3, getP90Nanos() / 1e3,
+        getP99Nanos() / 1e3, getMaxNanos() / 1e3);
+  }
+
+  /**
+   * Finds the bucket of a time.
+   *
+   * @param value the time, not negative
+   * @return the index of the bucket
+   */
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int top = (int) (value >>> shift);
+    return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + top - HALF_SUB_BUCKETS;
+  }
+
+  /**
+   * Finds the largest time counted in a bucket.
+   *
+   * @param bucket the index of the bucket
+   * @return the largest time of the bucket
+   */
+  static long highestValueOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+    long top = (bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+    long highest = ((top + 1) << shift) - 1;
+    return highest < 0 ? Long.MAX_VALUE : highest;
+  }
+}
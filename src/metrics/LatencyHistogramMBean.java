@@ -0,0 +1,62 @@
+package metrics;
+
+/**
+ * Management interface of a {@link LatencyHistogram}, exposing its summary over JMX. All times are
+ * in nanoseconds.
+ */
+public interface LatencyHistogramMBean {
+
+  /**
+   * Retrieves the name of the measured operation.
+   *
+   * @return the name
+   */
+  String getName();
+
+  /**
+   * Retrieves the number of times recorded.
+   *
+   * @return the number of times
+   */
+  long getCount();
+
+  /**
+   * Retrieves the mean of the times recorded.
+   *
+   * @return the mean time, or 0 if nothing was recorded
+   */
+  double getMeanNanos();
+
+  /**
+   * Retrieves the median of the times recorded.
+   *
+   * @return the median time, or 0 if nothing was recorded
+   */
+  long getMedianNanos();
+
+  /**
+   * Retrieves the 90th percentile of the times recorded.
+   *
+   * @return the 90th percentile, or 0 if nothing was recorded
+   */
+  long getP90Nanos();
+
+  /**
+   * Retrieves the 99th percentile of the times recorded.
+   *
+   * @return the 99th percentile, or 0 if nothing was recorded
+   */
+  long getP99Nanos();
+
+  /**
+   * Retrieves the longest time recorded.
+   *
+   * @return the longest time, or 0 if nothing was recorded
+   */
+  long getMaxNanos();
+
+  /**
+   * Forgets all the times recorded.
+   */
+  void reset();
+}
@@ -0,0 +1,576 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import metrics.GameMetrics;
+
+/**
+ * Base class of the Connect Four game models. It keeps everything that does not depend on how
+ * the discs are stored: the move history and undo and redo, the turn, the cached game state, the
+ * Zobrist keys, the listeners and the read-only board view. Subclasses store the discs and
+ * decide whether a new disc wins the game.
+ *
+ * <p>Discs are addressed by column and height, where height 0 is the bottom of the column, so
+ * the disc at height h is shown in row {@code rows - 1 - h} of the board.
+ */
+public abstract class AbstractConnectFourModel implements ConnectFourModel {
+  protected final int rows;
+  protected final int columns;
+  protected int[] moveHistory;
+  protected int filledCells;
+  protected int historySize;
+  protected int movesCount;
+  protected boolean gameOver;
+  protected Player winner;
+  protected int lastRow = -1;
+  protected int lastColumn = -1;
+  protected long boardVersion;
+  protected long positionKey;
+  protected long mirroredKey;
+  protected final ReadOnlyBoard boardView = new BoardView();
+  private final List<MoveListener> moveListeners = new ArrayList<>();
+
+  /**
+   * Constructor for the AbstractConnectFourModel class. Subclasses allocate their storage and
+   * then call resetBoard.
+   *
+   * @param rows            the number of rows in the game board
+   * @param columns         the number of columns in the game board
+   * @param historyCapacity the initial length of the move history, which grows when it is full
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4
+   */
+  protected AbstractConnectFourModel(int rows, int columns, int historyCapacity)
+      throws IllegalArgumentException {
+    if (rows < 4 || columns < 4) {
+      throw new IllegalArgumentException("The number of rows and columns must be at least 4.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.moveHistory = new int[historyCapacity];
+  }
+
+  /**
+   * Copy constructor for the AbstractConnectFourModel class. Copies the move history and game
+   * state of another model, but not its listeners.
+   *
+   * @param other the model to copy
+   */
+  protected AbstractConnectFourModel(AbstractConnectFourModel other) {
+    this.rows = other.rows;
+    this.columns = other.columns;
+    this.moveHistory = other.moveHistory.clone();
+    this.filledCells = other.filledCells;
+    this.historySize = other.historySize;
+    this.movesCount = other.movesCount;
+    this.gameOver = other.gameOver;
+    this.winner = other.winner;
+    this.lastRow = other.lastRow;
+    this.lastColumn = other.lastColumn;
+    this.positionKey = other.positionKey;
+    this.mirroredKey = other.mirroredKey;
+  }
+
+  /**
+   * Removes every disc from the storage of the subclass.
+   */
+  protected abstract void clearDiscs();
+
+  /**
+   * Stores a disc on top of a column that is known to have room.
+   *
+   * @param player the player the disc belongs to
+   * @param column the column of the disc
+   * @param height the height of the disc, which is the old height of the column
+   */
+  protected abstract void placeDisc(Player player, int column, int height);
+
+  /**
+   * Removes the top disc of a column.
+   *
+   * @param column the column of the disc
+   * @param height the height of the disc, which is the new height of the column
+   * @return the player the disc belonged to
+   */
+  protected abstract Player removeDisc(int column, int height);
+
+  /**
+   * Retrieves the player owning a cell, without checking that the cell lies on the board.
+   *
+   * @param column the column of the cell
+   * @param height the height of the cell in its column
+   * @return the player occupying the cell, or null if it is empty
+   */
+  protected abstract Player discAt(int column, int height);
+
+  /**
+   * Retrieves the number of discs in a column, without checking that the column lies on the
+   * board.
+   *
+   * @param column the column
+   * @return the number of discs in the column
+   */
+  protected abstract int heightOf(int column);
+
+  /**
+   * Checks whether a disc that has just been placed completes a winning run.
+   *
+   * @param player the player the disc belongs to
+   * @param column the column of the disc
+   * @param height the height of the disc in its column
+   * @return true if the disc wins the game, false otherwise
+   */
+  protected abstract boolean isWinningDisc(Player player, int column, int height);
+
+  /**
+   * Checks that an offset and length describe a part of an array of moves. Every implementation
+   * of makeMoves checks its arguments with this method, so they all reject the same ranges with
+   * the same message.
+   *
+   * @param columnNums the columns of the moves
+   * @param offset     the index of the first move in the array
+   * @param length     the number of moves
+   * @throws IllegalArgumentException if the array is null or the offset and length do not
+   *                                  describe a part of it
+   */
+  static void checkMoveRange(int[] columnNums, int offset, int length)
+      throws IllegalArgumentException {
+    if (columnNums == null) {
+      throw new IllegalArgumentException("Columns cannot be null");
+    }
+    if (offset < 0 || length < 0 || length > columnNums.length - offset) {
+      throw new IllegalArgumentException("Invalid range of " + length + " moves at " + offset
+          + " in an array of " + columnNums.length);
+    }
+  }
+
+  /**
+   * Empties the board and the move history.
+   */
+  @Override
+  public void initializeBoard() {
+    clearDiscs();
+    filledCells = 0;
+    historySize = 0;
+    positionKey = 0L;
+    mirroredKey = 0L;
+    boardVersion++;
+    fireBoardReset();
+  }
+
+  /**
+   * Select a column to drop the disc at, the disc will be dropped to the lowest non-occupied row.
+   * If column is full, reject the selection
+   *
+   * @param columnNum the column to drop the disc
+   * @throws IllegalArgumentException if column is out of range or full
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public void makeMove(int columnNum) throws IllegalArgumentException {
+    checkColumn(columnNum);
+    if (gameOver) {
+      throw new IllegalStateException("The game is already over");
+    }
+    if (heightOf(columnNum) == rows) {
+      throw new IllegalArgumentException("The column " + columnNum + " is full");
+    }
+
+    dropDisc(columnNum);
+    historySize = filledCells;
+  }
+
+  /**
+   * Makes a sequence of moves in one call. Each move is checked with comparisons instead of the
+   * exceptions of makeMove, and the subclasses skip the win check while it cannot succeed. The
+   * sequence stops at the first move that ends the game or before the first move that is not
+   * legal.
+   *
+   * @param columnNums the columns of the moves
+   * @param offset     the index of the first move in the array
+   * @param length     the number of moves
+   * @return the number of moves made
+   * @throws IllegalArgumentException if the array is null or the offset and length do not
+   *                                  describe a part of it
+   */
+  @Override
+  public int makeMoves(int[] columnNums, int offset, int length)
+      throws IllegalArgumentException {
+    checkMoveRange(columnNums, offset, length);
+    int applied = 0;
+    while (applied < length && !gameOver) {
+      int columnNum = columnNums[offset + applied];
+      if (columnNum < 0 || columnNum >= columns || heightOf(columnNum) == rows) {
+        break;
+      }
+      dropDisc(columnNum);
+      applied++;
+    }
+    if (applied > 0) {
+      historySize = filledCells;
+    }
+    return applied;
+  }
+
+  /**
+   * Drops the current player's disc into a column that is known to have room, records it in the
+   * move history and evaluates whether it ended the game.
+   *
+   * @param columnNum the column to drop the disc
+   */
+  private void dropDisc(int columnNum) {
+    int height = heightOf(columnNum);
+    Player player = getTurn();
+    placeDisc(player, columnNum, height);
+    positionKey ^= Zobrist.cellKey(player, columnNum, height);
+    mirroredKey ^= Zobrist.cellKey(player, columns - 1 - columnNum, height);
+    if (filledCells == moveHistory.length) {
+      moveHistory = Arrays.copyOf(moveHistory, 2 * moveHistory.length);
+    }
+    moveHistory[filledCells] = columnNum;
+    filledCells++;
+    boardVersion++;
+    lastRow = rows - 1 - height;
+    lastColumn = columnNum;
+    movesCount++;
+
+    long start = GameMetrics.startTimer();
+    if (isWinningDisc(player, columnNum, height)) {
+      winner = player;
+      gameOver = true;
+    } else if (filledCells == (long) rows * columns) {
+      winner = null;
+      gameOver = true;
+    }
+    GameMetrics.get().winCheckedSince(start);
+    fireMoveMade(player);
+  }
+
+  /**
+   * Takes back the last move. The disc is removed from the top of its column, and the previous
+   * move, turn and game state are restored from the move history without touching other cells.
+   * The move can be made again with redoMove until a different move is made.
+   *
+   * @throws IllegalStateException if there is no move to undo
+   */
+  @Override
+  public void undoMove() throws IllegalStateException {
+    if (filledCells == 0) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+
+    int columnNum = moveHistory[filledCells - 1];
+    int height = heightOf(columnNum) - 1;
+    Player player = removeDisc(columnNum, height);
+    positionKey ^= Zobrist.cellKey(player, columnNum, height);
+    mirroredKey ^= Zobrist.cellKey(player, columns - 1 - columnNum, height);
+    filledCells--;
+    boardVersion++;
+    movesCount--;
+    gameOver = false;
+    winner = null;
+    if (filledCells == 0) {
+      lastRow = -1;
+      lastColumn = -1;
+    } else {
+      lastColumn = moveHistory[filledCells - 1];
+      lastRow = rows - heightOf(lastColumn);
+    }
+    fireMoveUndone(rows - 1 - height, columnNum, player);
+  }
+
+  /**
+   * Makes the last undone move again.
+   *
+   * @throws IllegalStateException if there is no undone move to redo
+   */
+  @Override
+  public void redoMove() throws IllegalStateException {
+    if (filledCells >= historySize) {
+      throw new IllegalStateException("There is no move to redo");
+    }
+    dropDisc(moveHistory[filledCells]);
+  }
+
+  /**
+   * Checks if there is a move that can be undone.
+   *
+   * @return true if at least one move has been made, false otherwise
+   */
+  @Override
+  public boolean canUndo() {
+    return filledCells > 0;
+  }
+
+  /**
+   * Checks if there is an undone move that can be made again.
+   *
+   * @return true if redoMove can be called, false otherwise
+   */
+  @Override
+  public boolean canRedo() {
+    return filledCells < historySize;
+  }
+
+  /**
+   * Retrieves the player whose turn it is to make a move.
+   *
+   * @return the player whose turn it is, or null if the game is over
+   */
+  @Override
+  public Player getTurn() {
+    if (gameOver) {
+      return null;
+    }
+
+    if (movesCount % 2 == 0) {
+      return Player.RED;
+    } else {
+      return Player.YELLOW;
+    }
+  }
+
+  /**
+   * Checks if the game is over. The game is over when either the board is full, or
+   * one player has won vertically, diagonally or horizontally. The result is computed once
+   * per move, so this only reads the cached state.
+   *
+   * @return true if game is over, false otherwise.
+   */
+  @Override
+  public boolean isGameOver() {
+    return gameOver;
+  }
+
+  /**
+   * Retrieves the winner of the game, or null if there is no winner. If the game is not
+   * over, returns null
+   *
+   * @return the winner, or null if there is no winner
+   */
+  @Override
+  public Player getWinner() {
+    if (gameOver) {
+      return winner;
+    }
+    return null;
+  }
+
+  /**
+   * Reset all the cells in the board for a new game.
+   */
+  @Override
+  public void resetBoard() {
+    this.movesCount = 0;
+    this.gameOver = false;
+    this.winner = null;
+    lastRow = -1;
+    lastColumn = -1;
+    initializeBoard();
+  }
+
+  /**
+   * Retrieves the current state of the game board. This method is useful
+   * for the View component to display the current game status.
+   *
+   * @return a 2D array representing the current state of the board
+   */
+  @Override
+  public Player[][] getBoardState() {
+    Player[][] copy = new Player[rows][columns];
+    for (int col = 0; col < columns; col++) {
+      for (int h = heightOf(col) - 1; h >= 0; h--) {
+        copy[rows - 1 - h][col] = discAt(col, h);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Retrieves a read-only view of the game board. Unlike getBoardState, the view is not a copy:
+   * it always reflects the current board, and reading it allocates nothing.
+   *
+   * @return a read-only view of the current board
+   */
+  @Override
+  public ReadOnlyBoard getBoard() {
+    return boardView;
+  }
+
+  /**
+   * Retrieves the Zobrist key of the current position. The key is updated with one XOR on every
+   * move and undo, so reading it is free.
+   *
+   * @return the key of the current position
+   */
+  @Override
+  public long getPositionKey() {
+    return positionKey;
+  }
+
+  /**
+   * Retrieves the key of the current position or of its mirror image, whichever is smaller. The
+   * key of the mirror image is kept up to date with one more XOR on every move and undo.
+   *
+   * @return the key shared by the position and its mirror image
+   */
+  @Override
+  public long getCanonicalKey() {
+    return Math.min(positionKey, mirroredKey);
+  }
+
+  /**
+   * Registers a listener that is notified after every move and every board reset.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  @Override
+  public void addMoveListener(MoveListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    moveListeners.add(listener);
+  }
+
+  /**
+   * Removes a previously registered listener. Does nothing if the listener is not registered.
+   *
+   * @param listener the listener to remove
+   */
+  @Override
+  public void removeMoveListener(MoveListener listener) {
+    moveListeners.remove(listener);
+  }
+
+  /**
+   * Notifies the listeners of the last move. No event is created when nobody is listening.
+   *
+   * @param player the player who made the move
+   */
+  private void fireMoveMade(Player player) {
+    if (moveListeners.isEmpty()) {
+      return;
+    }
+    MoveEvent event = new MoveEvent(lastRow, lastColumn, player, movesCount, boardView);
+    for (int i = 0; i < moveListeners.size(); i++) {
+      moveListeners.get(i).moveMade(event);
+    }
+  }
+
+  /**
+   * Notifies the listeners that a move has been taken back.
+   *
+   * @param row       the row the disc was removed from
+   * @param columnNum the column the disc was removed from
+   * @param player    the player whose disc was removed
+   */
+  private void fireMoveUndone(int row, int columnNum, Player player) {
+    if (moveListeners.isEmpty()) {
+      return;
+    }
+    MoveEvent event = new MoveEvent(row, columnNum, player, movesCount + 1, boardView);
+    for (int i = 0; i < moveListeners.size(); i++) {
+      moveListeners.get(i).moveUndone(event);
+    }
+  }
+
+  /**
+   * Notifies the listeners that the board has been cleared.
+   */
+  private void fireBoardReset() {
+    for (int i = 0; i < moveListeners.size(); i++) {
+      moveListeners.get(i).boardReset(boardView);
+    }
+  }
+
+  /**
+   * Checks that a cell lies on the board.
+   *
+   * @param row    the row of the cell
+   * @param column the column of the cell
+   * @throws IllegalArgumentException if the row or column is out of range
+   */
+  protected void checkCell(int row, int column) throws IllegalArgumentException {
+    if (row < 0 || row >= rows) {
+      throw new IllegalArgumentException("Row " + row
+          + " is out of boundary. Valid rows are between 0 and " + (rows - 1));
+    }
+    checkColumn(column);
+  }
+
+  /**
+   * Checks that a column lies on the board.
+   *
+   * @param column the column to check
+   * @throws IllegalArgumentException if the column is out of range
+   */
+  protected void checkColumn(int column) throws IllegalArgumentException {
+    if (column < 0 || column >= columns) {
+      throw new IllegalArgumentException("Column " + column
+          + " is out of boundary. Valid columns are between 0 and " + (columns - 1));
+    }
+  }
+
+  /**
+   * Returns a string representation of the game board.
+   * Keep for testing
+   *
+   * @return a string representation of the game board
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+
+    sb.append(" |");
+    for (int col = 0; col < columns; col++) {
+      sb.append(" ").append(col + 1).append(" |");
+    }
+    sb.append("\n");
+
+    for (int row = 0; row < rows; row++) {
+      sb.append("|");
+      for (int col = 0; col < columns; col++) {
+        Player cell = discAt(col, rows - 1 - row);
+        String cellRepresentation = cell == null ? "   |" :
+            " " + cell.toString().charAt(0) + " |";
+        sb.append(cellRepresentation);
+      }
+      sb.append("\n");
+      sb.append(" ").append("---+".repeat(columns)).append("\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Read-only view of the live board of this model.
+   */
+  private final class BoardView implements ReadOnlyBoard {
+    @Override
+    public int getRows() {
+      return rows;
+    }
+
+    @Override
+    public int getColumns() {
+      return columns;
+    }
+
+    @Override
+    public Player getCell(int row, int column) throws IllegalArgumentException {
+      checkCell(row, column);
+      return discAt(column, rows - 1 - row);
+    }
+
+    @Override
+    public int getColumnHeight(int column) throws IllegalArgumentException {
+      checkColumn(column);
+      return heightOf(column);
+    }
+
+    @Override
+    public long getVersion() {
+      return boardVersion;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package model;
+
+/**
+ * Class for the Connect Four game model backed by bitboards. Each player's discs are stored as
+ * one bit per cell in a single long, so boards of at most 64 cells are supported. Cells are laid
+ * out column by column, starting from the bottom of column 0, so the disc at height h of column c
+ * is stored at bit c * rows + h.
+ */
+public class BitboardConnectFourModel extends AbstractConnectFourModel {
+  /**
+   * The largest number of cells a bitboard can hold.
+   */
+  public static final int MAX_CELLS = Long.SIZE;
+  /**
+   * The first move that can win: red's fourth disc.
+   */
+  private static final int MIN_WINNING_MOVES = 7;
+
+  protected final long[] bitboards = new long[Player.values().length];
+  protected final int[] heights;
+
+  private final int[] shifts;
+  private final long[] startMasks;
+
+  /**
+   * Constructor for the BitboardConnectFourModel class.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @throws IllegalArgumentException if the board is smaller than 4x4 or larger than 64 cells
+   */
+  public BitboardConnectFourModel(int rows, int columns) throws IllegalArgumentException {
+    super(rows, columns, checkFits(rows, columns));
+    this.heights = new int[columns];
+
+    // Vertical, horizontal, bottom-left to top-right and top-left to bottom-right.
+    this.shifts = new int[] {1, rows, rows + 1, rows - 1};
+    this.startMasks = new long[shifts.length];
+    for (int col = 0; col < columns; col++) {
+      for (int h = 0; h < rows; h++) {
+        long bit = 1L << (col * rows + h);
+        boolean roomUp = h + 3 < rows;
+        boolean roomDown = h - 3 >= 0;
+        boolean roomRight = col + 3 < columns;
+        if (roomUp) {
+          startMasks[0] |= bit;
+        }
+        if (roomRight) {
+          startMasks[1] |= bit;
+        }
+        if (roomRight && roomUp) {
+          startMasks[2] |= bit;
+        }
+        if (roomRight && roomDown) {
+          startMasks[3] |= bit;
+        }
+      }
+    }
+    resetBoard();
+  }
+
+  /**
+   * Copy constructor for the BitboardConnectFourModel class. Copies the board and game state of
+   * another model, but not its listeners. The win masks never change, so they are shared.
+   *
+   * @param other the model to copy
+   */
+  protected BitboardConnectFourModel(BitboardConnectFourModel other) {
+    super(other);
+    System.arraycopy(other.bitboards, 0, bitboards, 0, bitboards.length);
+    this.heights = other.heights.clone();
+    this.shifts = other.shifts;
+    this.startMasks = other.startMasks;
+  }
+
+  /**
+   * Checks whether a board of the given size can be stored in a bitboard.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @return true if the board has at most 64 cells, false otherwise
+   */
+  public static boolean fits(int rows, int columns) {
+    return (long) rows * columns <= MAX_CELLS;
+  }
+
+  /**
+   * Checks that a board fits in a bitboard, before anything is allocated for it.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @return the number of cells of the board
+   * @throws IllegalArgumentException if the board has more than 64 cells
+   */
+  private static int checkFits(int rows, int columns) throws IllegalArgumentException {
+    if (!fits(rows, columns)) {
+      throw new IllegalArgumentException("A bitboard holds at most " + MAX_CELLS + " cells, but "
+          + rows + "x" + columns + " has " + ((long) rows * columns));
+    }
+    return rows * columns;
+  }
+
+  /**
+   * Clears both bitboards and the column heights.
+   */
+  @Override
+  protected void clearDiscs() {
+    bitboards[Player.RED.ordinal()] = 0L;
+    bitboards[Player.YELLOW.ordinal()] = 0L;
+    for (int j = 0; j < columns; j++) {
+      heights[j] = 0;
+    }
+  }
+
+  @Override
+  protected void placeDisc(Player player, int column, int height) {
+    bitboards[player.ordinal()] |= 1L << (column * rows + height);
+    heights[column] = height + 1;
+  }
+
+  @Override
+  protected Player removeDisc(int column, int height) {
+    long bit = 1L << (column * rows + height);
+    Player player = (bitboards[Player.RED.ordinal()] & bit) != 0 ? Player.RED : Player.YELLOW;
+    bitboards[player.ordinal()] &= ~bit;
+    heights[column] = height;
+    return player;
+  }
+
+  @Override
+  protected Player discAt(int column, int height) {
+    long bit = 1L << (column * rows + height);
+    if ((bitboards[Player.RED.ordinal()] & bit) != 0) {
+      return Player.RED;
+    }
+    if ((bitboards[Player.YELLOW.ordinal()] & bit) != 0) {
+      return Player.YELLOW;
+    }
+    return null;
+  }
+
+  @Override
+  protected int heightOf(int column) {
+    return heights[column];
+  }
+
+  /**
+   * Checks the mover's whole bitboard for four in a row, once the mover can have four discs.
+   *
+   * @param player the player the disc belongs to
+   * @param column the column of the disc
+   * @param height the height of the disc in its column
+   * @return true if the mover has four in a row, false otherwise
+   */
+  @Override
+  protected boolean isWinningDisc(Player player, int column, int height) {
+    return movesCount >= MIN_WINNING_MOVES && hasFourInARow(bitboards[player.ordinal()]);
+  }
+
+  /**
+   * Checks for four discs in a row in any direction. For each direction the board is shifted
+   * onto itself three times, and the start mask drops runs that would wrap around an edge.
+   *
+   * @param board the bitboard of one player
+   * @return true if the board contains four in a row, false otherwise
+   */
+  private boolean hasFourInARow(long board) {
+    for (int d = 0; d < shifts.length; d++) {
+      int shift = shifts[d];
+      long pairs = board & (board >>> shift);
+      if ((pairs & (pairs >>> (2 * shift)) & startMasks[d]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Creates an independent copy of this model with the same board, move history and game state.
+   * Listeners are not copied.
+   *
+   * @return a copy of this model
+   */
+  @Override
+  public ConnectFourModel copy() {
+    return new BitboardConnectFourModel(this);
+  }
+}
@@ -22,6 +22,39 @@ public interface ConnectFourModel {
    */
   void makeMove(int columnNum) throws IllegalArgumentException;
 
+  /**
+   * Makes a sequence of moves in one call, as if makeMove were called for each in order. The
+   * sequence stops early, without an exception, at the first move that ends the game or just
+   * before the first move that is not legal: a column out of range, a full column, or any move
+   * once the game is over. The caller can tell the two apart with isGameOver.
+   *
+   * <p>This default calls makeMove for each move; the models in this package override it to
+   * skip the checks that cannot fail and the win checks that cannot succeed.
+   *
+   * @param columnNums the columns of the moves
+   * @param offset     the index of the first move in the array
+   * @param length     the number of moves
+   * @return the number of moves made
+   * @throws IllegalArgumentException if the array is null or the offset and length do not
+   *                                  describe a part of it
+   */
+  default int makeMoves(int[] columnNums, int offset, int length)
+      throws IllegalArgumentException {
+    AbstractConnectFourModel.checkMoveRange(columnNums, offset, length);
+    ReadOnlyBoard board = getBoard();
+    int applied = 0;
+    while (applied < length && !isGameOver()) {
+      int columnNum = columnNums[offset + applied];
+      if (columnNum < 0 || columnNum >= board.getColumns()
+          || board.getColumnHeight(columnNum) == board.getRows()) {
+        break;
+      }
+      makeMove(columnNum);
+      applied++;
+    }
+    return applied;
+  }
+
 
   /**
    * Retrieves the player whose turn it is to make a move.
@@ -31,6 +64,40 @@ public interface ConnectFourModel {
   Player getTurn();
 
 
+  /**
+   * Takes back the last move, restoring the turn and the game state from before it was made.
+   * A finished game becomes playable again.
+   *
+   * @throws IllegalStateException if there is no move to undo
+   */
+  void undoMove() throws IllegalStateException;
+
+
+  /**
+   * Makes the last undone move again. Making any other move discards the moves that could be
+   * redone.
+   *
+   * @throws IllegalStateException if there is no undone move to redo
+   */
+  void redoMove() throws IllegalStateException;
+
+
+  /**
+   * Checks if there is a move that can be undone.
+   *
+   * @return true if at least one move has been made, false otherwise
+   */
+  boolean canUndo();
+
+
+  /**
+   * Checks if there is an undone move that can be made again.
+   *
+   * @return true if redoMove can be called, false otherwise
+   */
+  boolean canRedo();
+
+
   /**
    * Checks if the game is over. The game is over when either the board is full, or
    * one player has won vertically, diagonally or horizontally.
@@ -62,4 +129,57 @@ public interface ConnectFourModel {
    */
   Player[][] getBoardState();
 
+  /**
+   * Retrieves a read-only view of the game board. Unlike getBoardState, the view is not a copy:
+   * it always reflects the current board, and reading it allocates nothing.
+   *
+   * @return a read-only view of the current board
+   */
+  ReadOnlyBoard getBoard();
+
+  /**
+   * Retrieves a hash key of the current position. Positions with the same discs in the same
+   * cells have the same key, no matter in which order the moves were made, so the key can be
+   * used to look positions up in a transposition table. See {@link Zobrist}.
+   *
+   * @return the key of the current position
+   */
+  long getPositionKey();
+
+  /**
+   * Retrieves a hash key of the current position that is also the key of its mirror image, the
+   * position with every column swapped with the one at the same distance from the other edge.
+   * Mirrored positions have mirrored best moves and the same score, so tables keyed by this key
+   * need to hold only one of them. The key is the smaller of the position's key and its mirror's,
+   * so the position is the mirrored one of the pair when this key differs from
+   * {@link #getPositionKey()}, and moves must then be mirrored before they are stored or after
+   * they are read.
+   *
+   * @return the key shared by the position and its mirror image
+   */
+  long getCanonicalKey();
+
+  /**
+   * Creates an independent copy of this model with the same board, move history and game state.
+   * Listeners are not copied, so moves made on the copy are not published, which makes copies
+   * suitable for searching ahead without disturbing the view.
+   *
+   * @return a copy of this model
+   */
+  ConnectFourModel copy();
+
+  /**
+   * Registers a listener that is notified after every move and every board reset.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void addMoveListener(MoveListener listener) throws IllegalArgumentException;
+
+  /**
+   * Removes a previously registered listener. Does nothing if the listener is not registered.
+   *
+   * @param listener the listener to remove
+   */
+  void removeMoveListener(MoveListener listener);
 }
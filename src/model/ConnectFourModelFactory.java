@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * Factory for Connect Four game models. Picks the fastest model implementation that can hold a
+ * board of the requested size.
+ */
+public final class ConnectFourModelFactory {
+  /**
+   * The largest board, in cells, that gets a model storing every cell. Larger boards get a
+   * {@link SparseConnectFourModel}, which stores only the cells holding a disc.
+   */
+  public static final long MAX_DENSE_CELLS = 1 << 20;
+
+  /**
+   * Not instantiable, use the static factory methods.
+   */
+  private ConnectFourModelFactory() {
+  }
+
+  /**
+   * Creates a model for a board with the given number of rows and columns. Boards of at most 64
+   * cells use a {@link BitboardConnectFourModel}, boards of up to MAX_DENSE_CELLS cells a
+   * {@link ConnectFourModelImpl}, and larger boards a {@link SparseConnectFourModel}.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @return a new model for an empty board
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4
+   */
+  public static ConnectFourModel createModel(int rows, int columns)
+      throws IllegalArgumentException {
+    if (BitboardConnectFourModel.fits(rows, columns)) {
+      return new BitboardConnectFourModel(rows, columns);
+    }
+    if ((long) rows * columns > MAX_DENSE_CELLS) {
+      return new SparseConnectFourModel(rows, columns);
+    }
+    return new ConnectFourModelImpl(rows, columns);
+  }
+
+  /**
+   * Creates a model for Connect-N, where a run of the given length wins. Runs of four get the
+   * same model as {@link #createModel(int, int)}; other lengths get a
+   * {@link SparseConnectFourModel}.
+   *
+   * @param rows      the number of rows in the game board
+   * @param columns   the number of columns in the game board
+   * @param runLength the number of discs in a row that wins the game
+   * @return a new model for an empty board
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4, or the
+   *                                  run length is less than 2
+   */
+  public static ConnectFourModel createModel(int rows, int columns, int runLength)
+      throws IllegalArgumentException {
+    if (runLength == 4) {
+      return createModel(rows, columns);
+    }
+    return new SparseConnectFourModel(rows, columns, runLength);
+  }
+}
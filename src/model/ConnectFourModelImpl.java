@@ -3,15 +3,14 @@ package model;
 /**
  * Class for the Connect Four game model.
  */
-public class ConnectFourModelImpl implements ConnectFourModel {
-  protected final int rows;
-  protected final int columns;
+public class ConnectFourModelImpl extends AbstractConnectFourModel {
+  /**
+   * The first move that can win: red's fourth disc.
+   */
+  private static final int MIN_WINNING_MOVES = 7;
+
   protected Player[][] board;
-  protected int movesCount;
-  protected boolean gameOver;
-  protected Player winner;
-  protected int lastRow = -1;
-  protected int lastColumn = -1;
+  protected int[] heights;
 
   /**
    * Constructor for the ConnectFourModelImpl class.
@@ -21,85 +20,82 @@ public class ConnectFourModelImpl implements ConnectFourModel {
    */
 
   public ConnectFourModelImpl(int rows, int columns) throws IllegalArgumentException {
-    if (rows < 4 || columns < 4) {
-      throw new IllegalArgumentException("The number of rows and columns must be at least 4.");
-    }
-    this.rows = rows;
-    this.columns = columns;
+    super(rows, columns, checkCells(rows, columns));
     this.board = new Player[rows][columns];
-    this.movesCount = 0;
-    this.gameOver = false;
-    this.winner = null;
+    this.heights = new int[columns];
     resetBoard();
   }
 
-
   /**
-   * Initializes the game board with a specified number of rows and columns.
-   * Loop through each cell and make it null.
+   * Copy constructor for the ConnectFourModelImpl class. Copies the board and game state of
+   * another model, but not its listeners.
+   *
+   * @param other the model to copy
    */
-  @Override
-  public void initializeBoard() {
+  protected ConnectFourModelImpl(ConnectFourModelImpl other) {
+    super(other);
     this.board = new Player[rows][columns];
     for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < columns; j++) {
-        board[i][j] = null;
-      }
+      System.arraycopy(other.board[i], 0, board[i], 0, columns);
     }
+    this.heights = other.heights.clone();
   }
 
   /**
-   * Select a column to drop the disc at, the disc will be dropped to the lowest non-occupied row.
-   * If column is full, reject the selection
+   * Checks that the cells of a board can be counted in an int, before anything is allocated for
+   * it. Larger boards need a {@link SparseConnectFourModel}.
    *
-   * @param columnNum the column to drop the disc
-   * @throws IllegalArgumentException if column is out of range
-   * @throws IllegalStateException    if the game is already over
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @return the number of cells of the board
+   * @throws IllegalArgumentException if the board has more than Integer.MAX_VALUE cells
    */
-  @Override
-  public void makeMove(int columnNum) throws IllegalArgumentException {
-    if (columnNum < 0 || columnNum >= columns) {
-      throw new IllegalArgumentException("Column " + columnNum + " is out of boundary. Valid columns are between 0 and " + (columns - 1));
-    }
-
-    if (gameOver) {
-      throw new IllegalStateException("The game is already over");
-    }
-
-    if (board[0][columnNum] != null) {
-      throw new IllegalArgumentException("The column " + columnNum + " is full");
-    }
-
-    for (int i = rows - 1; i >= 0; i--) {
-      if (board[i][columnNum] == null) {
-        board[i][columnNum] = getTurn();
-        lastRow = i;
-        lastColumn = columnNum;
-        movesCount++;
-        gameOver = isGameOver();
-        return;
-      }
+  private static int checkCells(int rows, int columns) throws IllegalArgumentException {
+    if ((long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A dense board holds at most " + Integer.MAX_VALUE
+          + " cells, but " + rows + "x" + columns + " has " + ((long) rows * columns));
     }
+    return rows * columns;
   }
 
   /**
-   * Retrieves the player whose turn it is to make a move.
-   *
-   * @return the player whose turn it is
+   * Loop through each cell and make it null, and empty every column height.
    */
   @Override
-  public Player getTurn() {
-    if (gameOver) {
-      return null;
+  protected void clearDiscs() {
+    this.board = new Player[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        board[i][j] = null;
+      }
     }
+    this.heights = new int[columns];
+  }
 
-    if (movesCount % 2 == 0) {
-      return Player.RED;
-    } else {
-      return Player.YELLOW;
-    }
+  @Override
+  protected void placeDisc(Player player, int column, int height) {
+    board[rows - 1 - height][column] = player;
+    heights[column] = height + 1;
   }
 
+  @Override
+  protected Player removeDisc(int column, int height) {
+    int row = rows - 1 - height;
+    Player player = board[row][column];
+    board[row][column] = null;
+    heights[column] = height;
+    return player;
+  }
+
+  @Override
+  protected Player discAt(int column, int height) {
+    return board[rows - 1 - height][column];
+  }
+
+  @Override
+  protected int heightOf(int column) {
+    return heights[column];
+  }
 
   /**
    * When there is a player's consecutive vertical count of one player, that player wins.
@@ -232,73 +228,22 @@ public class ConnectFourModelImpl implements ConnectFourModel {
   }
 
   /**
-   * Checks if the game is over. The game is over when either the board is full
-   *
-   * @return true if the game is over, false otherwise
-   */
-  private boolean isBoardFull() {
-    for (int j = 0; j < columns; j++) {
-      if (board[0][j] == null) {
-        return false;
-      }
-    }
-    winner = null;
-    return true;
-  }
-
-
-  /**
-   * Checks if the game is over. The game is over when either the board is full, or
-   * one player has won vertically, diagonally or horizontally.
+   * Evaluates whether the last move won the game. This runs the four directional win checks
+   * around the new disc once, and is skipped while the mover has fewer than four discs.
    *
-   * @return true if game is over, false otherwise.
+   * @param player the player the disc belongs to
+   * @param column the column of the disc
+   * @param height the height of the disc in its column
+   * @return true if the last move won the game, false otherwise
    */
   @Override
-  public boolean isGameOver() {
-    if (lastRow != -1 && lastColumn != -1) {
-      if (checkVerticalWin(lastRow, lastColumn)
-          || checkHorizontalWin(lastRow, lastColumn)
-          || checkWinTopLeftBottomRight(lastRow, lastColumn)
-          || checkWinTopRightBottomLeft(lastRow, lastColumn)) {
-        gameOver = true;
-        return true;
-      }
-    }
-
-    if (isBoardFull()) {
-      gameOver = true;
-      return true;
-    }
-
-    return false;
-  }
-
-
-  /**
-   * Retrieves the winner of the game, or null if there is no winner. If the game is not
-   * over, returns null
-   *
-   * @return the winner, or null if there is no winner
-   */
-  @Override
-  public Player getWinner() {
-    if (isGameOver()) {
-      return winner;
-    }
-    return null;
-  }
-
-  /**
-   * Reset all the cells in the board for a new game.
-   */
-  @Override
-  public void resetBoard() {
-    initializeBoard();
-    this.movesCount = 0;
-    this.gameOver = false;
-    this.winner = null;
-    lastRow = -1;
-    lastColumn = -1;
+  protected boolean isWinningDisc(Player player, int column, int height) {
+    int row = rows - 1 - height;
+    return movesCount >= MIN_WINNING_MOVES
+        && (checkVerticalWin(row, column)
+        || checkHorizontalWin(row, column)
+        || checkWinTopLeftBottomRight(row, column)
+        || checkWinTopRightBottomLeft(row, column));
   }
 
   /**
@@ -317,32 +262,13 @@ public class ConnectFourModelImpl implements ConnectFourModel {
   }
 
   /**
-   * Returns a string representation of the game board.
-   * Keep for testing
+   * Creates an independent copy of this model with the same board, move history and game state.
+   * Listeners are not copied.
    *
-   * @return a string representation of the game board
+   * @return a copy of this model
    */
   @Override
-  public String toString() {
-    StringBuilder sb = new StringBuilder();
-    Player[][] boardCopy = getBoardState();
-
-    sb.append(" |");
-    for (int col = 0; col < columns; col++) {
-      sb.append(" ").append(col + 1).append(" |");
-    }
-    sb.append("\n");
-
-    for (int row = 0; row < rows; row++) {
-      sb.append("|");
-      for (int col = 0; col < columns; col++) {
-        String cellRepresentation = boardCopy[row][col] == null ? "   |" :
-            " " + boardCopy[row][col].toString().charAt(0) + " |";
-        sb.append(cellRepresentation);
-      }
-      sb.append("\n");
-      sb.append(" ").append("---+".repeat(columns)).append("\n");
-    }
-    return sb.toString();
+  public ConnectFourModel copy() {
+    return new ConnectFourModelImpl(this);
   }
 }
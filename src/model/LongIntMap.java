@@ -0,0 +1,151 @@
+package model;
+
+/**
+ * Hash map from long keys to non-zero int values, stored in two primitive arrays with open
+ * addressing and linear probing, so an entry costs 12 bytes and no object. A value of 0 means
+ * that the key is absent: reading a missing key returns 0 and storing 0 removes the key. Removed
+ * entries are closed up by shifting the entries after them back, so lookups never have to skip
+ * deleted slots. The table doubles when it is half full.
+ */
+final class LongIntMap {
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+
+  /**
+   * Constructs a new empty LongIntMap.
+   */
+  LongIntMap() {
+    clear();
+  }
+
+  /**
+   * Constructs a new LongIntMap with the same entries as another map.
+   *
+   * @param other the map to copy
+   */
+  LongIntMap(LongIntMap other) {
+    this.keys = other.keys.clone();
+    this.values = other.values.clone();
+    this.mask = other.mask;
+    this.size = other.size;
+  }
+
+  /**
+   * Retrieves the value of a key.
+   *
+   * @param key the key
+   * @return the value, or 0 if the key is absent
+   */
+  int get(long key) {
+    for (int slot = slotOf(key); values[slot] != 0; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Sets the value of a key. Setting 0 removes the key.
+   *
+   * @param key   the key
+   * @param value the new value, or 0 to remove the key
+   */
+  void put(long key, int value) {
+    int slot = slotOf(key);
+    while (values[slot] != 0 && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    if (values[slot] != 0) {
+      if (value == 0) {
+        remove(slot);
+      } else {
+        values[slot] = value;
+      }
+    } else if (value != 0) {
+      keys[slot] = key;
+      values[slot] = value;
+      size++;
+      if (2 * size > values.length) {
+        resize(2 * values.length);
+      }
+    }
+  }
+
+  /**
+   * Retrieves the number of keys in the map.
+   *
+   * @return the number of keys
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Removes every key and gives back the memory of a grown table.
+   */
+  void clear() {
+    keys = new long[MIN_CAPACITY];
+    values = new int[MIN_CAPACITY];
+    mask = MIN_CAPACITY - 1;
+    size = 0;
+  }
+
+  /**
+   * Empties a slot and moves back the entries of the same probe run that would no longer be
+   * found past the gap.
+   *
+   * @param slot the slot to empty
+   */
+  private void remove(int slot) {
+    int gap = slot;
+    for (int next = (gap + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+      int home = slotOf(keys[next]);
+      // Move the entry if its home slot is not in the cyclic range (gap, next].
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+    }
+    values[gap] = 0;
+    size--;
+  }
+
+  /**
+   * Moves every entry into a table of a new size.
+   *
+   * @param capacity the new number of slots, a power of two
+   */
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != 0) {
+        int slot = slotOf(oldKeys[i]);
+        while (values[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Finds the slot where the probe for a key starts.
+   *
+   * @param key the key
+   * @return the home slot of the key
+   */
+  private int slotOf(long key) {
+    return (int) Zobrist.mix(key) & mask;
+  }
+}
@@ -0,0 +1,81 @@
+package model;
+
+/**
+ * Event published by a Connect Four game model after a disc has been dropped. It describes the
+ * single cell that changed, so a listener can update its display without reading the whole
+ * board.
+ */
+public final class MoveEvent {
+  private final int row;
+  private final int column;
+  private final Player player;
+  private final int moveNumber;
+  private final ReadOnlyBoard board;
+
+  /**
+   * Constructs a new MoveEvent for a disc dropped into the given cell.
+   *
+   * @param row        the row the disc landed in, where row 0 is the top row
+   * @param column     the column the disc was dropped into
+   * @param player     the player who made the move
+   * @param moveNumber the number of the move in the current game, starting at 1
+   * @param board      the read-only view of the board the move was made on
+   */
+  public MoveEvent(int row, int column, Player player, int moveNumber, ReadOnlyBoard board) {
+    this.row = row;
+    this.column = column;
+    this.player = player;
+    this.moveNumber = moveNumber;
+    this.board = board;
+  }
+
+  /**
+   * Retrieves the row the disc landed in.
+   *
+   * @return the row of the move, where row 0 is the top row
+   */
+  public int getRow() {
+    return row;
+  }
+
+  /**
+   * Retrieves the column the disc was dropped into.
+   *
+   * @return the column of the move
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * Retrieves the player who made the move.
+   *
+   * @return the player who made the move
+   */
+  public Player getPlayer() {
+    return player;
+  }
+
+  /**
+   * Retrieves the number of the move in the current game.
+   *
+   * @return the move number, starting at 1
+   */
+  public int getMoveNumber() {
+    return moveNumber;
+  }
+
+  /**
+   * Retrieves the read-only view of the board the move was made on.
+   *
+   * @return the read-only view of the board
+   */
+  public ReadOnlyBoard getBoard() {
+    return board;
+  }
+
+  @Override
+  public String toString() {
+    return "Move " + moveNumber + ": " + player + " at row " + row + ", column " + column;
+  }
+}
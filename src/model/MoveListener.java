@@ -0,0 +1,30 @@
+package model;
+
+/**
+ * Listener for changes to a Connect Four game model. Listeners are called on the thread that
+ * changed the model, after the model has been fully updated.
+ */
+public interface MoveListener {
+
+  /**
+   * Called after a disc has been dropped. Only the cell described by the event has changed.
+   *
+   * @param event the move that was made
+   */
+  void moveMade(MoveEvent event);
+
+  /**
+   * Called after a move has been taken back. Only the cell described by the event has changed,
+   * and it is now empty.
+   *
+   * @param event the move that was taken back
+   */
+  void moveUndone(MoveEvent event);
+
+  /**
+   * Called after the board has been cleared, so every cell may have changed.
+   *
+   * @param board the read-only view of the cleared board
+   */
+  void boardReset(ReadOnlyBoard board);
+}
@@ -0,0 +1,200 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the move sequences of a given length from a position, in the style of the chess perft
+ * tool. A game that is won or drawn is not continued, so a sequence that ends the game before
+ * the last move is not counted, while one whose last move ends the game is. The counts are a
+ * correctness check for any model implementation, and the time taken is a measure of raw move
+ * throughput.
+ *
+ * <p>Usage: {@code java model.Perft [rows columns depth threads]} which defaults to a 6x7 board,
+ * depth 9 and every available core. Every depth up to the given one is counted and reported
+ * with the number of positions per second.
+ */
+public final class Perft {
+  /**
+   * Perft counts of the empty 6x7 board at depths 0 to 10.
+   */
+  private static final long[] STANDARD_COUNTS = {
+      1L, 7L, 49L, 343L, 2_401L, 16_807L, 117_649L, 823_536L, 5_673_234L, 39_394_572L,
+      268_031_646L
+  };
+
+  private static final int SEQUENTIAL_DEPTH = 6;
+
+  /**
+   * Not instantiable, use the static methods.
+   */
+  private Perft() {
+  }
+
+  /**
+   * Retrieves the known perft counts of the empty 6x7 board, which any correct model must
+   * reproduce.
+   *
+   * @return a copy of the counts, indexed by depth from 0 to 10
+   */
+  public static long[] getStandardCounts() {
+    return STANDARD_COUNTS.clone();
+  }
+
+  /**
+   * Counts the move sequences of the given length from the model's position on the calling
+   * thread. The model is changed during the count and restored afterwards.
+   *
+   * @param model the model of the position to count from
+   * @param depth the number of moves in each sequence
+   * @return the number of sequences
+   * @throws IllegalArgumentException if the model is null or the depth is negative
+   */
+  public static long perft(ConnectFourModel model, int depth) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth cannot be negative");
+    }
+    return count(model, depth);
+  }
+
+  /**
+   * Counts the move sequences of the given length from the model's position on a fork-join pool.
+   * The work is split by first move, and again by second move and so on while more than a few
+   * plies remain, each part counting on its own copy of the model. The model is not changed.
+   *
+   * @param model the model of the position to count from
+   * @param depth the number of moves in each sequence
+   * @param pool  the pool counting the parts
+   * @return the number of sequences
+   * @throws IllegalArgumentException if the model or pool is null or the depth is negative
+   */
+  public static long parallelPerft(ConnectFourModel model, int depth, ForkJoinPool pool)
+      throws IllegalArgumentException {
+    if (model == null || pool == null) {
+      throw new IllegalArgumentException("Model and pool cannot be null");
+    }
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth cannot be negative");
+    }
+    return pool.invoke(new PerftTask(model.copy(), depth));
+  }
+
+  /**
+   * Counts the move sequences of the given length by making and undoing moves. At depth 1 the
+   * open columns are counted without making the moves.
+   *
+   * @param model the model, changed during the count and restored afterwards
+   * @param depth the number of moves in each sequence
+   * @return the number of sequences
+   */
+  private static long count(ConnectFourModel model, int depth) {
+    if (depth == 0) {
+      return 1;
+    }
+    if (model.isGameOver()) {
+      return 0;
+    }
+    ReadOnlyBoard board = model.getBoard();
+    int rows = board.getRows();
+    long nodes = 0;
+    for (int column = 0; column < board.getColumns(); column++) {
+      if (board.getColumnHeight(column) < rows) {
+        if (depth == 1) {
+          nodes++;
+        } else {
+          model.makeMove(column);
+          nodes += count(model, depth - 1);
+          model.undoMove();
+        }
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * Part of a parallel count: the sequences of a given length from one position.
+   */
+  private static final class PerftTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient ConnectFourModel model;
+    private final int depth;
+
+    private PerftTask(ConnectFourModel model, int depth) {
+      this.model = model;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute() {
+      if (depth <= SEQUENTIAL_DEPTH || model.isGameOver()) {
+        return count(model, depth);
+      }
+      ReadOnlyBoard board = model.getBoard();
+      List<PerftTask> parts = new ArrayList<>();
+      for (int column = 0; column < board.getColumns(); column++) {
+        if (board.getColumnHeight(column) < board.getRows()) {
+          ConnectFourModel child = model.copy();
+          child.makeMove(column);
+          parts.add(new PerftTask(child, depth - 1));
+        }
+      }
+      invokeAll(parts);
+      long nodes = 0;
+      for (PerftTask part : parts) {
+        nodes += part.join();
+      }
+      return nodes;
+    }
+  }
+
+  /**
+   * Counts every depth up to the given one from the empty board and prints the counts and speed.
+   * On the standard board the counts are checked against the known values.
+   *
+   * @param args optional rows, columns, depth and number of threads
+   */
+  public static void main(String[] args) {
+    int rows = 6;
+    int columns = 7;
+    int depth = 9;
+    int threads = Runtime.getRuntime().availableProcessors();
+    try {
+      if (args.length >= 2) {
+        rows = Integer.parseInt(args[0]);
+        columns = Integer.parseInt(args[1]);
+      }
+      if (args.length >= 3) {
+        depth = Integer.parseInt(args[2]);
+      }
+      if (args.length >= 4) {
+        threads = Integer.parseInt(args[3]);
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Invalid arguments, using the defaults.");
+    }
+
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    boolean standard = rows == 6 && columns == 7;
+    System.out.printf("Board %dx%d, %d threads%n", rows, columns, threads);
+    System.out.printf("%6s %16s %12s %16s%n", "depth", "positions", "time (ms)", "positions/s");
+    for (int d = 0; d <= depth; d++) {
+      long start = System.nanoTime();
+      long nodes = threads == 1 ? perft(model, d) : parallelPerft(model, d, pool);
+      long elapsedNanos = System.nanoTime() - start;
+      String check = "";
+      if (standard && d < STANDARD_COUNTS.length) {
+        check = nodes == STANDARD_COUNTS[d] ? "  ok" : "  expected " + STANDARD_COUNTS[d];
+      }
+      System.out.printf("%6d %16d %12d %16d%s%n", d, nodes, elapsedNanos / 1_000_000,
+          (long) (nodes * 1e9 / Math.max(1, elapsedNanos)), check);
+    }
+    pool.shutdown();
+  }
+}
@@ -0,0 +1,66 @@
+package model;
+
+/**
+ * Read-only view of a Connect Four game board. A view reads the live board of its model, so it
+ * never copies cells and always reflects the latest move. Callers that need a snapshot can use
+ * {@link #toArray()} or {@link ConnectFourModel#getBoardState()}.
+ */
+public interface ReadOnlyBoard {
+
+  /**
+   * Retrieves the number of rows in the board.
+   *
+   * @return the number of rows
+   */
+  int getRows();
+
+  /**
+   * Retrieves the number of columns in the board.
+   *
+   * @return the number of columns
+   */
+  int getColumns();
+
+  /**
+   * Retrieves the player occupying a cell. Row 0 is the top row of the board.
+   *
+   * @param row    the row of the cell
+   * @param column the column of the cell
+   * @return the player occupying the cell, or null if it is empty
+   * @throws IllegalArgumentException if the row or column is out of range
+   */
+  Player getCell(int row, int column) throws IllegalArgumentException;
+
+  /**
+   * Retrieves the number of discs in a column.
+   *
+   * @param column the column to check
+   * @return the number of discs in the column, between 0 and the number of rows
+   * @throws IllegalArgumentException if the column is out of range
+   */
+  int getColumnHeight(int column) throws IllegalArgumentException;
+
+  /**
+   * Retrieves the version of the board. The version changes every time the board changes, so a
+   * view can skip redrawing a board it has already drawn.
+   *
+   * @return the current version of the board
+   */
+  long getVersion();
+
+  /**
+   * Copies the board into a new 2D array, in the same layout as
+   * {@link ConnectFourModel#getBoardState()}.
+   *
+   * @return a 2D array representing the current state of the board
+   */
+  default Player[][] toArray() {
+    Player[][] copy = new Player[getRows()][getColumns()];
+    for (int row = 0; row < copy.length; row++) {
+      for (int col = 0; col < copy[row].length; col++) {
+        copy[row][col] = getCell(row, col);
+      }
+    }
+    return copy;
+  }
+}
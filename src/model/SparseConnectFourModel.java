@@ -0,0 +1,209 @@
+package model;
+
+/**
+ * Class for the Connect Four game model on very large boards, such as 10,000 by 10,000, and for
+ * Connect-N with any run length. Only the cells that hold a disc are stored, in a primitive hash
+ * map from cell to owner, and only the columns that hold a disc have their height stored, so the
+ * memory used grows with the number of moves played instead of the size of the board. A move
+ * checks for a win by looking at most N - 1 cells each way from the new disc along the four
+ * directions, however large the board.
+ *
+ * <p>{@link #getBoardState()} and {@link ReadOnlyBoard#toArray()} still build a dense copy of the
+ * whole board, which should be avoided on huge boards; read cells through {@link #getBoard()}
+ * instead.
+ */
+public class SparseConnectFourModel extends AbstractConnectFourModel {
+  private static final int INITIAL_HISTORY = 16;
+  private static final Player[] PLAYERS = Player.values();
+
+  private final int runLength;
+  private final LongIntMap cells;
+  private final LongIntMap heights;
+
+  /**
+   * Constructs a new SparseConnectFourModel for Connect Four, where four in a row wins.
+   *
+   * @param rows    the number of rows in the game board
+   * @param columns the number of columns in the game board
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4
+   */
+  public SparseConnectFourModel(int rows, int columns) throws IllegalArgumentException {
+    this(rows, columns, 4);
+  }
+
+  /**
+   * Constructs a new SparseConnectFourModel where a run of the given length wins.
+   *
+   * @param rows      the number of rows in the game board
+   * @param columns   the number of columns in the game board
+   * @param runLength the number of discs in a row that wins the game
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4, or the
+   *                                  run length is less than 2
+   */
+  public SparseConnectFourModel(int rows, int columns, int runLength)
+      throws IllegalArgumentException {
+    super(rows, columns, INITIAL_HISTORY);
+    if (runLength < 2) {
+      throw new IllegalArgumentException("The run length must be at least 2");
+    }
+    this.runLength = runLength;
+    this.cells = new LongIntMap();
+    this.heights = new LongIntMap();
+    resetBoard();
+  }
+
+  /**
+   * Copy constructor for the SparseConnectFourModel class. Copies the board and game state of
+   * another model, but not its listeners.
+   *
+   * @param other the model to copy
+   */
+  private SparseConnectFourModel(SparseConnectFourModel other) {
+    super(other);
+    this.runLength = other.runLength;
+    this.cells = new LongIntMap(other.cells);
+    this.heights = new LongIntMap(other.heights);
+  }
+
+  /**
+   * Retrieves the number of discs in a row that wins the game.
+   *
+   * @return the run length
+   */
+  public int getRunLength() {
+    return runLength;
+  }
+
+  /**
+   * Empties the maps of cells and heights and the move history, giving back their memory.
+   */
+  @Override
+  protected void clearDiscs() {
+    cells.clear();
+    heights.clear();
+    moveHistory = new int[INITIAL_HISTORY];
+  }
+
+  @Override
+  protected void placeDisc(Player player, int column, int height) {
+    cells.put(cellKey(column, height), player.ordinal() + 1);
+    heights.put(column, height + 1);
+  }
+
+  @Override
+  protected Player removeDisc(int column, int height) {
+    long cell = cellKey(column, height);
+    Player player = PLAYERS[cells.get(cell) - 1];
+    cells.put(cell, 0);
+    heights.put(column, height);
+    return player;
+  }
+
+  @Override
+  protected Player discAt(int column, int height) {
+    int owner = cells.get(cellKey(column, height));
+    return owner == 0 ? null : PLAYERS[owner - 1];
+  }
+
+  @Override
+  protected int heightOf(int column) {
+    return heights.get(column);
+  }
+
+  /**
+   * Checks for a run through the new disc, once the mover can have runLength discs.
+   *
+   * @param player the player the disc belongs to
+   * @param column the column of the disc
+   * @param height the height of the disc in its column
+   * @return true if the disc completes a winning run, false otherwise
+   */
+  @Override
+  protected boolean isWinningDisc(Player player, int column, int height) {
+    return filledCells >= 2 * runLength - 1 && hasRun(column, height, player.ordinal() + 1);
+  }
+
+  /**
+   * Checks whether a disc is part of a run of the winning length. Each direction is followed at
+   * most runLength - 1 cells each way from the disc.
+   *
+   * @param column the column of the disc
+   * @param height the height of the disc in its column
+   * @param owner  the owner of the disc, as stored in the map of cells
+   * @return true if the disc completes a winning run, false otherwise
+   */
+  private boolean hasRun(int column, int height, int owner) {
+    // Vertical, horizontal, bottom-left to top-right and top-left to bottom-right.
+    return runThrough(column, height, owner, 0, 1)
+        || runThrough(column, height, owner, 1, 0)
+        || runThrough(column, height, owner, 1, 1)
+        || runThrough(column, height, owner, 1, -1);
+  }
+
+  /**
+   * Counts the discs of one owner in an unbroken line through a disc, in both senses of a
+   * direction.
+   *
+   * @param column     the column of the disc
+   * @param height     the height of the disc in its column
+   * @param owner      the owner of the disc, as stored in the map of cells
+   * @param columnStep the column step of the direction
+   * @param heightStep the height step of the direction
+   * @return true if the line holds at least runLength discs, false otherwise
+   */
+  private boolean runThrough(int column, int height, int owner, int columnStep, int heightStep) {
+    int count = 1;
+    for (int sign = 1; sign >= -1; sign -= 2) {
+      long c = column;
+      long h = height;
+      for (int i = 1; i < runLength; i++) {
+        c += sign * columnStep;
+        h += sign * heightStep;
+        if (c < 0 || c >= columns || h < 0 || h >= rows || cells.get(cellKey(c, h)) != owner) {
+          break;
+        }
+        count++;
+      }
+    }
+    return count >= runLength;
+  }
+
+  /**
+   * Creates an independent copy of this model with the same board, move history and game state.
+   * Listeners are not copied. The copy takes memory in proportion to the number of moves played.
+   *
+   * @return a copy of this model
+   */
+  @Override
+  public ConnectFourModel copy() {
+    return new SparseConnectFourModel(this);
+  }
+
+  /**
+   * Computes the key of a cell in the map of cells.
+   *
+   * @param column the column of the cell
+   * @param height the height of the cell in its column
+   * @return the key of the cell
+   */
+  private static long cellKey(long column, long height) {
+    return column << Integer.SIZE | height;
+  }
+
+  /**
+   * Returns the size of the board, the run length and the moves played, by column. The board
+   * itself is not drawn, since it can be far too large to print.
+   *
+   * @return a string representation of the game
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(rows).append('x').append(columns).append(", connect ").append(runLength)
+        .append(", moves:");
+    for (int i = 0; i < filledCells; i++) {
+      sb.append(' ').append(moveHistory[i]);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,44 @@
+package model;
+
+/**
+ * Zobrist keys for Connect Four positions. Every combination of player and cell has its own
+ * pseudo-random 64-bit key, and the key of a position is the XOR of the keys of its discs, so a
+ * model can update it with a single XOR per move or undo. The keys are computed by a fixed mixing
+ * function instead of being stored in a table, so they cost no memory on huge boards and are the
+ * same in every run, which lets keys be saved to files.
+ */
+public final class Zobrist {
+
+  /**
+   * Not instantiable, use the static methods.
+   */
+  private Zobrist() {
+  }
+
+  /**
+   * Retrieves the key of a disc. Cells are addressed by column and height from the bottom, so the
+   * key does not depend on the number of rows.
+   *
+   * @param player the player owning the disc
+   * @param column the column of the disc
+   * @param height the height of the disc in its column, where 0 is the bottom cell
+   * @return the key of the disc
+   */
+  public static long cellKey(Player player, int column, int height) {
+    long cell = ((long) column << 32) | ((long) height << 1) | player.ordinal();
+    return mix(cell + 0x9E3779B97F4A7C15L);
+  }
+
+  /**
+   * Scrambles a 64-bit value with the SplitMix64 finalizer.
+   *
+   * @param value the value to scramble
+   * @return the scrambled value
+   */
+  static long mix(long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,272 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import model.Player;
+
+/**
+ * Server hosting many independent games for remote players over a line-based TCP protocol on
+ * the loopback interface. Each connection is served by its own thread, which blocks on its
+ * socket, and may play any number of games; games outlive the connection that created them
+ * until they are closed.
+ *
+ * <p>Every request is one line and gets one line back, either {@code OK} with a result or
+ * {@code ERR} with a message. The requests are:
+ * <ul>
+ *   <li>{@code NEW rows columns [RED|YELLOW [millis]]} starts a game, optionally with the
+ *   computer playing one side, and answers its id. Boards have at most {@value #MAX_CELLS}
+ *   cells and the computer thinks for at most {@value #MAX_COMPUTER_MILLIS} ms per move, so
+ *   that one request cannot take the memory or the time of every game</li>
+ *   <li>{@code MOVE id column} drops a disc, columns counting from 0</li>
+ *   <li>{@code UNDO id}, {@code REDO id} and {@code RESET id}</li>
+ *   <li>{@code BOARD id} answers the status and the board, rows top to bottom separated by
+ *   slashes</li>
+ *   <li>{@code CLOSE id} ends a game, and {@code QUIT} ends the connection</li>
+ * </ul>
+ * The status after a move is {@code TURN RED}, {@code TURN YELLOW}, {@code WIN RED},
+ * {@code WIN YELLOW} or {@code DRAW}.
+ *
+ * <p>Usage: {@code java server.GameServer [port maxGames]}
+ */
+public class GameServer implements Closeable {
+  /**
+   * The largest number of cells of a board a client can ask for.
+   */
+  public static final int MAX_CELLS = 10_000;
+  /**
+   * The longest time per move a client can give the computer, in milliseconds.
+   */
+  public static final long MAX_COMPUTER_MILLIS = 10_000;
+  private static final long DEFAULT_COMPUTER_MILLIS = 100;
+
+  private final SessionRegistry registry;
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+  private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructs a new GameServer listening on the loopback interface. Connections are not
+   * accepted until the server is started.
+   *
+   * @param port        the port to listen on, or 0 for any free port
+   * @param registry    the registry of the hosted games
+   * @param connections the executor running one task per connection for as long as it is open,
+   *                    which must not bound the number of threads
+   * @throws IOException              if the port cannot be opened
+   * @throws IllegalArgumentException if the registry or executor is null
+   */
+  public GameServer(int port, SessionRegistry registry, ExecutorService connections)
+      throws IOException, IllegalArgumentException {
+    if (registry == null || connections == null) {
+      throw new IllegalArgumentException("Registry and executor cannot be null");
+    }
+    this.registry = registry;
+    this.connections = connections;
+    this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+  }
+
+  /**
+   * Starts accepting connections on a new thread, which runs until the server is closed.
+   */
+  public void start() {
+    new Thread(this::acceptConnections, "game-server-acceptor").start();
+  }
+
+  /**
+   * Retrieves the port the server listens on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones. The games are kept in the registry.
+   *
+   * @throws IOException if the server socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket client : clients) {
+      client.close();
+    }
+    connections.shutdownNow();
+  }
+
+  /**
+   * Accepts connections until the server socket is closed, handing each to the executor.
+   */
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket client = serverSocket.accept();
+        clients.add(client);
+        connections.execute(() -> serve(client));
+      } catch (IOException e) {
+        // The server socket was closed, or the connection failed before it was accepted.
+      }
+    }
+  }
+
+  /**
+   * Answers the requests of one connection until the client quits or disconnects.
+   *
+   * @param client the client's socket
+   */
+  private void serve(Socket client) {
+    try (client;
+         BufferedReader in = new BufferedReader(
+             new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+         PrintWriter out = new PrintWriter(
+             new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), true)) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.trim().equalsIgnoreCase("QUIT")) {
+          out.println("OK BYE");
+          break;
+        }
+        out.println(respond(line));
+      }
+    } catch (SocketException e) {
+      // The client disconnected or the server is closing.
+    } catch (IOException e) {
+      System.err.println("Connection failed: " + e.getMessage());
+    } finally {
+      clients.remove(client);
+    }
+  }
+
+  /**
+   * Answers one request.
+   *
+   * @param line the request
+   * @return OK followed by the result, or ERR followed by a message
+   */
+  String respond(String line) {
+    String[] words = line.trim().split("\\s+");
+    try {
+      switch (words[0].toUpperCase()) {
+        case "NEW":
+          return "OK " + create(words).getId();
+        case "MOVE":
+          requireWords(words, 3);
+          return "OK " + session(words).move(Integer.parseInt(words[2]));
+        case "UNDO":
+          return "OK " + session(words).undo();
+        case "REDO":
+          return "OK " + session(words).redo();
+        case "RESET":
+          return "OK " + session(words).reset();
+        case "BOARD":
+          return "OK " + session(words).board();
+        case "CLOSE":
+          requireWords(words, 2);
+          registry.remove(Long.parseLong(words[1]));
+          return "OK";
+        default:
+          return "ERR Unknown request " + words[0];
+      }
+    } catch (NumberFormatException e) {
+      return "ERR Not a number: " + e.getMessage();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return "ERR " + e.getMessage();
+    }
+  }
+
+  /**
+   * Starts the game described by a NEW request.
+   *
+   * @param words the words of the request
+   * @return the new session
+   * @throws IllegalArgumentException if the request is invalid, or asks for a board or a time
+   *                                  budget above the server's limits
+   * @throws IllegalStateException    if the registry is full
+   */
+  private GameSession create(String[] words)
+      throws IllegalArgumentException, IllegalStateException {
+    requireWords(words, 3);
+    int rows = Integer.parseInt(words[1]);
+    int columns = Integer.parseInt(words[2]);
+    Player computerSide = words.length >= 4 ? Player.valueOf(words[3].toUpperCase()) : null;
+    long millis = words.length >= 5 ? Long.parseLong(words[4]) : DEFAULT_COMPUTER_MILLIS;
+    // Checked before anything is allocated for the board.
+    if ((long) rows * columns > MAX_CELLS) {
+      throw new IllegalArgumentException("Boards can have at most " + MAX_CELLS + " cells");
+    }
+    if (millis > MAX_COMPUTER_MILLIS) {
+      throw new IllegalArgumentException("The computer can think for at most "
+          + MAX_COMPUTER_MILLIS + " ms");
+    }
+    return registry.create(rows, columns, computerSide, millis);
+  }
+
+  /**
+   * Finds the session named by the second word of a request.
+   *
+   * @param words the words of the request
+   * @return the session
+   * @throws IllegalArgumentException if the id is missing or there is no such session
+   */
+  private GameSession session(String[] words) throws IllegalArgumentException {
+    requireWords(words, 2);
+    return registry.get(Long.parseLong(words[1]));
+  }
+
+  /**
+   * Checks that a request has enough words.
+   *
+   * @param words the words of the request
+   * @param count the number of words needed
+   * @throws IllegalArgumentException if there are fewer words
+   */
+  private static void requireWords(String[] words, int count) throws IllegalArgumentException {
+    if (words.length < count) {
+      throw new IllegalArgumentException(words[0].toUpperCase() + " needs "
+          + (count - 1) + " arguments");
+    }
+  }
+
+  /**
+   * Runs a server until the process is stopped.
+   *
+   * @param args optional port (4004 by default) and maximum number of games (100000 by default)
+   */
+  public static void main(String[] args) {
+    int port = 4004;
+    int maxGames = 100_000;
+    try {
+      if (args.length >= 1) {
+        port = Integer.parseInt(args[0]);
+      }
+      if (args.length >= 2) {
+        maxGames = Integer.parseInt(args[1]);
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Invalid arguments, using the defaults.");
+    }
+
+    try {
+      GameServer server = new GameServer(port, new SessionRegistry(maxGames),
+          Executors.newCachedThreadPool());
+      server.start();
+      System.out.println("Connect Four server listening on localhost:" + server.getPort());
+    } catch (IOException e) {
+      System.out.println("Could not start the server: " + e.getMessage());
+    }
+  }
+}
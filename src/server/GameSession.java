@@ -0,0 +1,199 @@
+package server;
+
+import ai.AlphaBetaPlayer;
+import controller.ConnectFourController;
+import controller.ConnectFourControllerImpl;
+import model.ConnectFourModel;
+import model.ConnectFourModelImpl;
+import model.MoveEvent;
+import model.Player;
+import model.ReadOnlyBoard;
+import view.ConnectFourView;
+
+/**
+ * One game hosted by the server. Each session owns its own model and a controller driven by a
+ * headless view that only remembers the last error, so a session plays exactly like the Swing
+ * game, including an optional computer opponent. Every method holds the session's own lock, so
+ * moves in one game are serialized while different games run in parallel.
+ */
+public class GameSession {
+  private final long id;
+  private final ConnectFourModel model;
+  private final ConnectFourController controller;
+  private final SessionView view = new SessionView();
+
+  /**
+   * Constructs a new GameSession.
+   *
+   * @param id               the id of the session
+   * @param rows             the number of rows in the game board
+   * @param columns          the number of columns in the game board
+   * @param computerSide     the side the computer plays, or null for two remote players
+   * @param timeBudgetMillis the computer's time per move, in milliseconds
+   * @throws IllegalArgumentException if the board size or time budget is invalid
+   */
+  public GameSession(long id, int rows, int columns, Player computerSide, long timeBudgetMillis)
+      throws IllegalArgumentException {
+    this.id = id;
+    this.model = new ConnectFourModelImpl(rows, columns);
+    this.controller = new ConnectFourControllerImpl(view, model);
+    if (computerSide != null) {
+      controller.setComputerPlayer(computerSide, new AlphaBetaPlayer(timeBudgetMillis));
+    }
+    controller.playGame(model);
+  }
+
+  /**
+   * Retrieves the id of the session.
+   *
+   * @return the id
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Drops a disc for the player whose turn it is, followed by the computer's reply if any.
+   *
+   * @param column the column to drop the disc in
+   * @return the status of the game after the move
+   * @throws IllegalArgumentException if the column is invalid or full
+   * @throws IllegalStateException    if the game is already over
+   */
+  public synchronized String move(int column)
+      throws IllegalArgumentException, IllegalStateException {
+    view.error = null;
+    controller.makeMove(column);
+    if (view.error != null) {
+      throw new IllegalArgumentException(view.error);
+    }
+    return status();
+  }
+
+  /**
+   * Takes back the last move, and the computer's reply if any.
+   *
+   * @return the status of the game after the undo
+   * @throws IllegalStateException if there is no move to take back
+   */
+  public synchronized String undo() throws IllegalStateException {
+    view.error = null;
+    controller.undoMove();
+    if (view.error != null) {
+      throw new IllegalStateException(view.error);
+    }
+    return status();
+  }
+
+  /**
+   * Makes the last move that was taken back again, and the computer's reply if any.
+   *
+   * @return the status of the game after the redo
+   * @throws IllegalStateException if there is no move to make again
+   */
+  public synchronized String redo() throws IllegalStateException {
+    view.error = null;
+    controller.redoMove();
+    if (view.error != null) {
+      throw new IllegalStateException(view.error);
+    }
+    return status();
+  }
+
+  /**
+   * Starts the game over.
+   *
+   * @return the status of the new game
+   */
+  public synchronized String reset() {
+    controller.resetGame();
+    return status();
+  }
+
+  /**
+   * Describes the game: its status followed by the board, one row per slash-separated group
+   * from top to bottom, with R and Y for discs and a dot for an empty cell.
+   *
+   * @return the status and board of the game
+   */
+  public synchronized String board() {
+    ReadOnlyBoard board = model.getBoard();
+    StringBuilder sb = new StringBuilder(status()).append(' ');
+    for (int row = 0; row < board.getRows(); row++) {
+      if (row > 0) {
+        sb.append('/');
+      }
+      for (int column = 0; column < board.getColumns(); column++) {
+        Player player = board.getCell(row, column);
+        sb.append(player == null ? "." : player.getDisplayName());
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Describes the status of the game: whose turn it is, who won, or that it is a draw.
+   *
+   * @return TURN followed by a player, WIN followed by a player, or DRAW
+   */
+  private String status() {
+    if (!model.isGameOver()) {
+      return "TURN " + model.getTurn().name();
+    }
+    Player winner = model.getWinner();
+    return winner == null ? "DRAW" : "WIN " + winner.name();
+  }
+
+  /**
+   * View without a display. It only keeps the last error, and ignores board updates so that no
+   * move copies the board.
+   */
+  private static final class SessionView implements ConnectFourView {
+    private String error;
+
+    @Override
+    public void setController(ConnectFourController controller) {
+      // The session drives the controller itself.
+    }
+
+    @Override
+    public void updateBoard(Player[][] board) {
+      // Clients ask for the board when they need it.
+    }
+
+    @Override
+    public void displayPlayerTurn(String message) {
+      // The status is derived from the model.
+    }
+
+    @Override
+    public void displayGameState(Player[][] boardState) {
+      // Clients ask for the board when they need it.
+    }
+
+    @Override
+    public void displayBoard(ReadOnlyBoard board) {
+      // Clients ask for the board when they need it.
+    }
+
+    @Override
+    public void displayMove(MoveEvent event) {
+      // Clients ask for the board when they need it.
+    }
+
+    @Override
+    public void displayUndo(MoveEvent event) {
+      // Clients ask for the board when they need it.
+    }
+
+    @Override
+    public void displayError(String message) {
+      error = message;
+    }
+
+    @Override
+    public void displayGameOver(Player winner) {
+      // The status is derived from the model.
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Player;
+
+/**
+ * Registry of the games hosted by the server. Sessions are kept in a concurrent map, whose
+ * internal bins are locked independently, so creating, finding and closing games never takes a
+ * lock shared by every game.
+ */
+public class SessionRegistry {
+  private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong(1);
+  private final AtomicInteger count = new AtomicInteger();
+  private final int maxSessions;
+
+  /**
+   * Constructs a new SessionRegistry.
+   *
+   * @param maxSessions the largest number of games hosted at once
+   * @throws IllegalArgumentException if the maximum is not positive
+   */
+  public SessionRegistry(int maxSessions) throws IllegalArgumentException {
+    if (maxSessions <= 0) {
+      throw new IllegalArgumentException("The maximum number of sessions must be positive");
+    }
+    this.maxSessions = maxSessions;
+  }
+
+  /**
+   * Starts a new game.
+   *
+   * @param rows             the number of rows in the game board
+   * @param columns          the number of columns in the game board
+   * @param computerSide     the side the computer plays, or null for two remote players
+   * @param timeBudgetMillis the computer's time per move, in milliseconds
+   * @return the new session
+   * @throws IllegalArgumentException if the board size or time budget is invalid
+   * @throws IllegalStateException    if the registry is full
+   */
+  public GameSession create(int rows, int columns, Player computerSide, long timeBudgetMillis)
+      throws IllegalArgumentException, IllegalStateException {
+    if (count.incrementAndGet() > maxSessions) {
+      count.decrementAndGet();
+      throw new IllegalStateException("Too many games, close one first");
+    }
+    boolean created = false;
+    try {
+      GameSession session = new GameSession(nextId.getAndIncrement(), rows, columns,
+          computerSide, timeBudgetMillis);
+      sessions.put(session.getId(), session);
+      created = true;
+      return session;
+    } finally {
+      // Also gives the slot back after an Error, such as running out of memory.
+      if (!created) {
+        count.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Finds a game.
+   *
+   * @param id the id of the session
+   * @return the session
+   * @throws IllegalArgumentException if there is no such session
+   */
+  public GameSession get(long id) throws IllegalArgumentException {
+    GameSession session = sessions.get(id);
+    if (session == null) {
+      throw new IllegalArgumentException("No game " + id);
+    }
+    return session;
+  }
+
+  /**
+   * Closes a game.
+   *
+   * @param id the id of the session
+   * @throws IllegalArgumentException if there is no such session
+   */
+  public void remove(long id) throws IllegalArgumentException {
+    if (sessions.remove(id) == null) {
+      throw new IllegalArgumentException("No game " + id);
+    }
+    count.decrementAndGet();
+  }
+
+  /**
+   * Retrieves the number of games hosted.
+   *
+   * @return the number of open sessions
+   */
+  public int size() {
+    return count.get();
+  }
+}
@@ -1,7 +1,10 @@
 package view;
 
+import ai.SearchResult;
 import controller.ConnectFourController;
+import model.MoveEvent;
 import model.Player;
+import model.ReadOnlyBoard;
 
 /**
  * Interface for the View component in the MVC architecture of a Connect Four game.
@@ -46,6 +49,51 @@ public interface ConnectFourView {
   void displayGameState(Player[][] boardState);
 
 
+  /**
+   * Displays the current game state from a read-only view of the model's board. Views that can
+   * read the board cell by cell should override this to avoid copying it; by default the board
+   * is copied and passed to displayGameState.
+   *
+   * @param board the read-only view of the current board
+   */
+  default void displayBoard(ReadOnlyBoard board) {
+    displayGameState(board.toArray());
+  }
+
+
+  /**
+   * Displays a single move. Only the cell described by the event has changed since the last
+   * display, so views should override this to repaint that one cell. By default the whole board
+   * is displayed again.
+   *
+   * @param event the move that was made
+   */
+  default void displayMove(MoveEvent event) {
+    displayBoard(event.getBoard());
+  }
+
+
+  /**
+   * Displays a move that has been taken back. Only the cell described by the event has changed,
+   * and it is now empty. By default the whole board is displayed again.
+   *
+   * @param event the move that was taken back
+   */
+  default void displayUndo(MoveEvent event) {
+    displayBoard(event.getBoard());
+  }
+
+
+  /**
+   * Displays the progress of the computer's search for its move, once for each depth it
+   * completes. By default nothing is displayed.
+   *
+   * @param progress the depth completed so far and the best column found at that depth
+   */
+  default void displaySearchProgress(SearchResult progress) {
+  }
+
+
   /**
    * Displays an error message to the user. The error message is displayed in a dialog box.
    *
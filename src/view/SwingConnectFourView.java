@@ -1,10 +1,13 @@
 package view;
 
+import ai.SearchResult;
 import controller.ConnectFourController;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JFrame;
@@ -13,7 +16,9 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import model.MoveEvent;
 import model.Player;
+import model.ReadOnlyBoard;
 
 /**
  * View component in the MVC architecture of a Connect Four game. This class defines the core
@@ -26,6 +31,7 @@ public class SwingConnectFourView extends JFrame implements ConnectFourView {
   private final JPanel boardPanel = new JPanel();
   private final JLabel statusLabel = new JLabel("Welcome to Connect 4", SwingConstants.CENTER);
   private ConnectFourController controller;
+  private long renderedVersion = -1;
 
   /**
    * Constructs a new SwingConnectFourView object with the specified output destination. The view
@@ -50,6 +56,12 @@ public class SwingConnectFourView extends JFrame implements ConnectFourView {
    */
   private void initializeView() {
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosing(WindowEvent e) {
+        controller.close();
+      }
+    });
     setLayout(new BorderLayout());
 
     // Initialize the board panel
@@ -58,16 +70,25 @@ public class SwingConnectFourView extends JFrame implements ConnectFourView {
     initializeBoard();
     add(boardPanel, BorderLayout.CENTER);
 
-    // Initialize the reset and exit buttons
+    // Initialize the reset, undo, redo and exit buttons
     JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
     JButton resetButton = new JButton("Reset Game");
     resetButton.addActionListener(e -> {
       controller.resetGame();
       statusLabel.setText("Game restarted. Red's turn.");
     });
+    JButton undoButton = new JButton("Undo");
+    undoButton.addActionListener(e -> controller.undoMove());
+    JButton redoButton = new JButton("Redo");
+    redoButton.addActionListener(e -> controller.redoMove());
     JButton exitButton = new JButton("Exit Game");
-    exitButton.addActionListener(e -> System.exit(0));
+    exitButton.addActionListener(e -> {
+      controller.close();
+      System.exit(0);
+    });
     controlPanel.add(resetButton);
+    controlPanel.add(undoButton);
+    controlPanel.add(redoButton);
     controlPanel.add(exitButton);
     add(controlPanel, BorderLayout.SOUTH);
 
@@ -137,16 +158,10 @@ public class SwingConnectFourView extends JFrame implements ConnectFourView {
     SwingUtilities.invokeLater(() -> {
       for (int row = 0; row < rows; row++) {
         for (int col = 0; col < columns; col++) {
-          JLabel label = gridLabels[row][col];
-          if (board[row][col] == Player.RED) {
-            label.setBackground(Color.RED);
-          } else if (board[row][col] == Player.YELLOW) {
-            label.setBackground(Color.YELLOW);
-          } else {
-            label.setBackground(Color.WHITE);
-          }
+          gridLabels[row][col].setBackground(colorOf(board[row][col]));
         }
       }
+      renderedVersion = -1;
     });
   }
 
@@ -161,6 +176,18 @@ public class SwingConnectFourView extends JFrame implements ConnectFourView {
     statusLabel.setText(message);
   }
 
+  /**
+   * Displays the depth the computer has searched to and the column it would play so far in the
+   * status label. Columns are numbered from 1 on the left.
+   *
+   * @param progress the depth completed so far and the best column found at that depth
+   */
+  @Override
+  public void displaySearchProgress(SearchResult progress) {
+    statusLabel.setText(String.format("Computer thinking: depth %d, best column %d",
+        progress.getDepth(), progress.getColumn() + 1));
+  }
+
   /**
    * Displays the current game state. The game state is displayed by updating the game board.
    *
@@ -171,6 +198,65 @@ public class SwingConnectFourView extends JFrame implements ConnectFourView {
     updateBoard(boardState);
   }
 
+  /**
+   * Displays the current game state from a read-only view of the model's board. The cells are
+   * read directly from the board, and a board version that was already drawn is skipped.
+   *
+   * @param board the read-only view of the current board
+   */
+  @Override
+  public void displayBoard(ReadOnlyBoard board) {
+    SwingUtilities.invokeLater(() -> {
+      long version = board.getVersion();
+      if (version == renderedVersion) {
+        return;
+      }
+      for (int row = 0; row < rows; row++) {
+        for (int col = 0; col < columns; col++) {
+          gridLabels[row][col].setBackground(colorOf(board.getCell(row, col)));
+        }
+      }
+      renderedVersion = version;
+    });
+  }
+
+  /**
+   * Displays a single move by repainting only the cell the disc landed in.
+   *
+   * @param event the move that was made
+   */
+  @Override
+  public void displayMove(MoveEvent event) {
+    SwingUtilities.invokeLater(() ->
+        gridLabels[event.getRow()][event.getColumn()].setBackground(colorOf(event.getPlayer())));
+  }
+
+  /**
+   * Displays a move that has been taken back by clearing only the cell the disc was removed from.
+   *
+   * @param event the move that was taken back
+   */
+  @Override
+  public void displayUndo(MoveEvent event) {
+    SwingUtilities.invokeLater(() ->
+        gridLabels[event.getRow()][event.getColumn()].setBackground(Color.WHITE));
+  }
+
+  /**
+   * Retrieves the background color of a cell occupied by the given player.
+   *
+   * @param player the player occupying the cell, or null if it is empty
+   * @return red for red players, yellow for yellow players and white for empty cells
+   */
+  private static Color colorOf(Player player) {
+    if (player == Player.RED) {
+      return Color.RED;
+    } else if (player == Player.YELLOW) {
+      return Color.YELLOW;
+    }
+    return Color.WHITE;
+  }
+
   /**
    * Displays an error message to the user. The error message is displayed in a dialog box.
    *
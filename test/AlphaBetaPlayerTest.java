@@ -0,0 +1,118 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ai.AlphaBetaPlayer;
+import ai.SearchResult;
+import ai.TranspositionTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.ConnectFourModelImpl;
+import model.Player;
+import org.junit.Test;
+
+/**
+ * Test AlphaBetaPlayer class.
+ */
+public class AlphaBetaPlayerTest {
+
+  private static ConnectFourModel play(int rows, int columns, int... moves) {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    for (int column : moves) {
+      model.makeMove(column);
+    }
+    return model;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTimeBudget() {
+    new AlphaBetaPlayer(0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testChooseColumnAfterGameOver() {
+    ConnectFourModel model = play(6, 7, 0, 1, 0, 1, 0, 1, 0);
+    new AlphaBetaPlayer(100).chooseColumn(model);
+  }
+
+  @Test
+  public void testTakesImmediateWin() {
+    ConnectFourModel model = play(6, 7, 0, 6, 1, 6, 2, 5);
+    assertEquals(3, new AlphaBetaPlayer(100).chooseColumn(model));
+  }
+
+  @Test
+  public void testBlocksImmediateLoss() {
+    ConnectFourModel model = play(6, 7, 0, 6, 0, 5, 0);
+    assertEquals(0, new AlphaBetaPlayer(100).chooseColumn(model));
+  }
+
+  @Test
+  public void testDoesNotChangeModel() {
+    ConnectFourModel model = play(6, 7, 3, 3, 2);
+    String before = model.toString();
+    new AlphaBetaPlayer(50).chooseColumn(model);
+    assertEquals(before, model.toString());
+    assertEquals(Player.YELLOW, model.getTurn());
+  }
+
+  @Test
+  public void testStaysWithinTimeBudgetAndReportsThroughput() {
+    AlphaBetaPlayer player = new AlphaBetaPlayer(100);
+    long start = System.nanoTime();
+    int column = player.chooseColumn(play(6, 7));
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    SearchResult result = player.getLastResult();
+    assertEquals(column, result.getColumn());
+    assertTrue("Search took " + elapsedMillis + " ms", elapsedMillis < 500);
+    assertTrue(result.getDepth() >= 1);
+    assertTrue(result.getNodes() > 0);
+    assertTrue(result.getNodesPerSecond() > 0);
+  }
+
+  @Test
+  public void testWorksOnLargeBoard() {
+    ConnectFourModel model = new ConnectFourModelImpl(20, 20);
+    model.makeMove(0);
+    int column = new AlphaBetaPlayer(50).chooseColumn(model);
+    assertTrue(column >= 0 && column < 20);
+  }
+
+  @Test
+  public void testTranspositionTableAgreesWithPlainSearch() {
+    ConnectFourModel model = play(6, 7, 3, 3, 2, 4, 4, 2, 5);
+    AlphaBetaPlayer plain = new AlphaBetaPlayer(10_000, 8);
+    AlphaBetaPlayer cached = new AlphaBetaPlayer(10_000, 8, new TranspositionTable(1 << 20));
+    plain.chooseColumn(model);
+    cached.chooseColumn(model);
+    assertEquals(plain.getLastResult().getScore(), cached.getLastResult().getScore());
+    assertTrue(cached.getLastResult().getNodes() < plain.getLastResult().getNodes());
+    assertTrue(cached.getTranspositionTable().getHitRate() > 0);
+  }
+
+  @Test
+  public void testReportsEachCompletedDepth() {
+    ConnectFourModel model = play(6, 7, 3, 3);
+    List<SearchResult> progress = new ArrayList<>();
+    AlphaBetaPlayer player = new AlphaBetaPlayer(10_000, 6);
+    int column = player.chooseColumn(model, new AtomicBoolean(), progress::add);
+    assertEquals(6, progress.size());
+    for (int i = 0; i < progress.size(); i++) {
+      assertEquals(i + 1, progress.get(i).getDepth());
+    }
+    assertEquals(column, progress.get(5).getColumn());
+  }
+
+  @Test
+  public void testStoppedSearchStillMoves() {
+    ConnectFourModel model = play(6, 7, 3, 3, 3, 3, 3, 3);
+    AtomicBoolean stop = new AtomicBoolean(true);
+    long start = System.nanoTime();
+    int column = new AlphaBetaPlayer(60_000).chooseColumn(model, stop, null);
+    assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    assertTrue(column != 3);
+  }
+}
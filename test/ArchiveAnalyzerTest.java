@@ -0,0 +1,123 @@
+import static org.junit.Assert.assertEquals;
+
+import archive.ArchiveAnalyzer;
+import archive.BatchReplayer;
+import archive.BoardStatistics;
+import archive.GameRecord;
+import archive.GameRecord.Outcome;
+import archive.GameRecordReader;
+import archive.GameRecordWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import model.ConnectFourModel;
+import model.Player;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test ArchiveAnalyzer and BoardStatistics classes.
+ */
+public class ArchiveAnalyzerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path writeTournament(int games) throws IOException {
+    Path file = folder.newFile("games.c4r").toPath();
+    try (GameRecordWriter writer = new GameRecordWriter(Files.newOutputStream(file))) {
+      Tournament.play(6, 7, games, 2, "random", "random", writer);
+      writer.write(new GameRecord(20, 20, new int[] {10, 10, 3}, Outcome.UNFINISHED));
+    }
+    return file;
+  }
+
+  @Test
+  public void testMatchesReplay() throws IOException {
+    Path file = writeTournament(500);
+    List<BoardStatistics> statistics = ArchiveAnalyzer.analyze(file, 3, 256);
+    assertEquals(2, statistics.size());
+    BoardStatistics standard = statistics.get(0);
+    assertEquals(6, standard.getRows());
+    assertEquals(500, standard.getGames());
+
+    long[][] occupancy = new long[6][7];
+    long[] redWinsByFirstMove = new long[7];
+    long moves = 0;
+    try (GameRecordReader reader = new GameRecordReader(Files.newInputStream(file))) {
+      GameRecord record;
+      while ((record = reader.read()) != null) {
+        if (record.getRows() != 6) {
+          continue;
+        }
+        moves += record.getMoveCount();
+        if (record.getOutcome() == Outcome.RED_WINS) {
+          redWinsByFirstMove[record.getMove(0)]++;
+        }
+        ConnectFourModel model = BatchReplayer.replay(record);
+        for (int row = 0; row < 6; row++) {
+          for (int column = 0; column < 7; column++) {
+            if (model.getBoard().getCell(row, column) == Player.RED) {
+              occupancy[row][column]++;
+            }
+          }
+        }
+      }
+    }
+
+    assertEquals(moves / 500.0, standard.getAverageLength(), 1e-9);
+    for (int column = 0; column < 7; column++) {
+      assertEquals(redWinsByFirstMove[column],
+          standard.getFirstMoveCount(column, Outcome.RED_WINS));
+    }
+    for (int row = 0; row < 6; row++) {
+      for (int column = 0; column < 7; column++) {
+        assertEquals(occupancy[row][column], standard.getOccupancy(0, row, column));
+      }
+    }
+
+    BoardStatistics large = statistics.get(1);
+    assertEquals(1, large.getGames());
+    assertEquals(1, large.getLengthCount(3));
+    assertEquals(1, large.getOccupancy(0, 19, 10));
+    assertEquals(1, large.getOccupancy(1, 18, 10));
+    assertEquals(1, large.getOccupancy(0, 19, 3));
+  }
+
+  @Test
+  public void testChunkSizeDoesNotMatter() throws IOException {
+    Path file = writeTournament(200);
+    BoardStatistics whole = ArchiveAnalyzer.analyze(file, 1).get(0);
+    BoardStatistics split = ArchiveAnalyzer.analyze(file, 4, 1).get(0);
+    assertEquals(whole.toString(), split.toString());
+    long total = 0;
+    for (int length = 0; length <= 42; length++) {
+      total += split.getLengthCount(length);
+    }
+    assertEquals(200, total);
+  }
+
+  @Test
+  public void testEmptyArchive() throws IOException {
+    Path file = folder.newFile("empty.c4r").toPath();
+    new GameRecordWriter(Files.newOutputStream(file)).close();
+    assertEquals(0, ArchiveAnalyzer.analyze(file, 2).size());
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsTruncatedArchive() throws IOException {
+    Path file = writeTournament(10);
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+    ArchiveAnalyzer.analyze(file, 2);
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherFiles() throws IOException {
+    Path file = folder.newFile("other.txt").toPath();
+    Files.write(file, "hello".getBytes());
+    ArchiveAnalyzer.analyze(file, 2);
+  }
+}
@@ -0,0 +1,176 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import model.BitboardConnectFourModel;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.ConnectFourModelImpl;
+import model.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test BitboardConnectFourModel class.
+ */
+public class BitboardConnectFourModelTest {
+  private ConnectFourModel model;
+
+  @Before
+  public void setup() {
+    model = new BitboardConnectFourModel(6, 7);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBoardInitialization() {
+    new BitboardConnectFourModel(3, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBoardTooLargeForBitboard() {
+    new BitboardConnectFourModel(8, 9);
+  }
+
+  @Test
+  public void testFactoryPicksModelBySize() {
+    assertTrue(ConnectFourModelFactory.createModel(6, 7) instanceof BitboardConnectFourModel);
+    assertTrue(ConnectFourModelFactory.createModel(8, 8) instanceof BitboardConnectFourModel);
+    assertTrue(ConnectFourModelFactory.createModel(8, 9) instanceof ConnectFourModelImpl);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeMoveThrowsExceptionWhenColumnIsFull() {
+    for (int i = 0; i < 6; i++) {
+      model.makeMove(0);
+    }
+    model.makeMove(0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMakeMoveAfterGameOver() {
+    for (int i = 0; i < 4; i++) {
+      model.makeMove(0);
+      if (i < 3) {
+        model.makeMove(1);
+      }
+    }
+    model.makeMove(2);
+  }
+
+  @Test
+  public void testMakeMove() {
+    model.makeMove(0);
+    assertEquals("Player 1 should have made a move", Player.RED, model.getBoardState()[5][0]);
+    model.makeMove(0);
+    assertEquals("Player 2 should have made a move", Player.YELLOW, model.getBoardState()[4][0]);
+  }
+
+  @Test
+  public void testVerticalRunDoesNotWrapAcrossColumns() {
+    // Red fills the top of column 0 and the bottom of column 1, which are adjacent bits.
+    int[] moves = {2, 0, 3, 0, 2, 0, 0, 4, 0, 4, 0, 5, 1};
+    for (int column : moves) {
+      model.makeMove(column);
+    }
+    assertFalse("Vertical runs must not wrap into the next column", model.isGameOver());
+  }
+
+  @Test
+  public void testIsGameOverDiagonalWinTopRightRed() {
+    int[] moves = {3, 4, 4, 5, 5, 6, 5, 6, 6, 2, 6};
+    for (int column : moves) {
+      model.makeMove(column);
+    }
+    assertTrue(model.isGameOver());
+    assertEquals(Player.RED, model.getWinner());
+  }
+
+  @Test
+  public void testIsGameOverDiagonalWinTopLeftYellow() {
+    int[] moves = {0, 3, 2, 2, 1, 0, 0, 0, 1, 1};
+    for (int column : moves) {
+      model.makeMove(column);
+    }
+    assertTrue(model.isGameOver());
+    assertEquals(Player.YELLOW, model.getWinner());
+  }
+
+  @Test
+  public void testBoardFullDraw() {
+    model = new BitboardConnectFourModel(4, 4);
+    int[] moves = {0, 1, 0, 1, 1, 0, 1, 0, 2, 3, 2, 3, 3, 2, 3, 2};
+    for (int column : moves) {
+      model.makeMove(column);
+    }
+    assertTrue("The game should be over when the board is full", model.isGameOver());
+    assertNull("There should be no winner if the game ends in a draw", model.getWinner());
+  }
+
+  @Test
+  public void testResetBoard() {
+    model.makeMove(0);
+    model.makeMove(1);
+    model.resetBoard();
+    assertEquals(new ConnectFourModelImpl(6, 7).toString(), model.toString());
+    assertEquals(Player.RED, model.getTurn());
+  }
+
+  @Test
+  public void testMatchesReferenceModelOnRandomGames() {
+    Random random = new Random(42);
+    int[][] sizes = {{6, 7}, {4, 4}, {8, 8}, {4, 16}, {7, 6}};
+    for (int[] size : sizes) {
+      for (int game = 0; game < 200; game++) {
+        ConnectFourModel bitboard = new BitboardConnectFourModel(size[0], size[1]);
+        ConnectFourModel reference = new ConnectFourModelImpl(size[0], size[1]);
+        while (!reference.isGameOver()) {
+          int column = random.nextInt(size[1]);
+          if (reference.getBoardState()[0][column] != null) {
+            continue;
+          }
+          reference.makeMove(column);
+          bitboard.makeMove(column);
+          assertEquals(reference.isGameOver(), bitboard.isGameOver());
+          assertEquals(reference.getWinner(), bitboard.getWinner());
+          assertEquals(reference.getTurn(), bitboard.getTurn());
+          assertEquals(reference.getPositionKey(), bitboard.getPositionKey());
+          assertEquals(reference.getCanonicalKey(), bitboard.getCanonicalKey());
+        }
+        assertArrayEquals(reference.getBoardState(), bitboard.getBoardState());
+        assertArrayEquals(reference.getBoardState(), bitboard.getBoard().toArray());
+        assertEquals(reference.toString(), bitboard.toString());
+
+        while (reference.canUndo()) {
+          reference.undoMove();
+          bitboard.undoMove();
+          assertEquals(reference.getTurn(), bitboard.getTurn());
+          assertEquals(reference.isGameOver(), bitboard.isGameOver());
+        }
+        assertFalse(bitboard.canUndo());
+        assertEquals(reference.toString(), bitboard.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testMakeMovesMatchesReferenceModel() {
+    Random random = new Random(7);
+    for (int game = 0; game < 200; game++) {
+      int[] moves = new int[50];
+      for (int i = 0; i < moves.length; i++) {
+        moves[i] = random.nextInt(8);
+      }
+      ConnectFourModel bitboard = new BitboardConnectFourModel(6, 7);
+      ConnectFourModel reference = new ConnectFourModelImpl(6, 7);
+      int applied = bitboard.makeMoves(moves, 0, moves.length);
+      assertEquals(applied, reference.makeMoves(moves, 0, moves.length));
+      assertEquals(reference.toString(), bitboard.toString());
+      assertEquals(reference.isGameOver(), bitboard.isGameOver());
+      assertEquals(reference.getWinner(), bitboard.getWinner());
+      assertEquals(reference.getPositionKey(), bitboard.getPositionKey());
+    }
+  }
+}
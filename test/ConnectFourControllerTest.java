@@ -1,10 +1,24 @@
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import ai.AlphaBetaPlayer;
+import ai.ComputerPlayer;
+import ai.SearchListener;
+import ai.SearchResult;
 import controller.ConnectFourController;
 import controller.ConnectFourControllerImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 import model.ConnectFourModel;
 import model.ConnectFourModelImpl;
 import model.Player;
@@ -23,6 +37,7 @@ public class ConnectFourControllerTest {
     String displayedError;
     String playerTurnMessage;
     Player[][] lastBoardState;
+    List<SearchResult> searchProgress = new ArrayList<>();
 
 
     @Override
@@ -54,6 +69,40 @@ public class ConnectFourControllerTest {
       winnerDisplayed = winner;
       gameOverDisplayed = true;
     }
+
+    @Override
+    public void displaySearchProgress(SearchResult progress) {
+      searchProgress.add(progress);
+    }
+  }
+
+  /**
+   * Computer player that reports one depth and then thinks until it is stopped.
+   */
+  static class StubbornComputerPlayer implements ComputerPlayer {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch stopped = new CountDownLatch(1);
+
+    @Override
+    public int chooseColumn(ConnectFourModel model) {
+      throw new UnsupportedOperationException("Only searches in the background");
+    }
+
+    @Override
+    public int chooseColumn(ConnectFourModel model, AtomicBoolean stop, SearchListener listener) {
+      listener.depthCompleted(new SearchResult(2, 0, 1, 1, 0));
+      started.countDown();
+      while (!stop.get()) {
+        Thread.onSpinWait();
+      }
+      stopped.countDown();
+      return 2;
+    }
+
+    @Override
+    public SearchResult getLastResult() {
+      return null;
+    }
   }
 
   private ConnectFourModel model;
@@ -183,4 +232,162 @@ public class ConnectFourControllerTest {
       }
     }
   }
+
+  @Test
+  public void testUndoWithoutMovesDisplaysError() {
+    controller.playGame(model);
+    controller.undoMove();
+    assertEquals("There is no move to undo", view.displayedError);
+  }
+
+  @Test
+  public void testUndoMoveUpdatesBoardAndTurn() {
+    controller.playGame(model);
+    controller.makeMove(0);
+    controller.undoMove();
+    assertNull(view.lastBoardState[3][0]);
+    assertEquals("RED Player's turn", view.playerTurnMessage);
+  }
+
+  @Test
+  public void testComputerRepliesToMove() {
+    controller.setComputerPlayer(Player.YELLOW, new AlphaBetaPlayer(20));
+    controller.playGame(model);
+    controller.makeMove(0);
+    assertEquals(Player.RED, model.getTurn());
+    assertEquals("RED Player's turn", view.playerTurnMessage);
+
+    controller.undoMove();
+    assertEquals(Player.RED, model.getTurn());
+    assertNull(view.lastBoardState[3][0]);
+  }
+
+  @Test
+  public void testComputerOpensWhenPlayingRed() {
+    controller.setComputerPlayer(Player.RED, new AlphaBetaPlayer(20));
+    controller.playGame(model);
+    assertEquals(Player.YELLOW, model.getTurn());
+  }
+
+  @Test
+  public void testBackgroundComputerMoveDoesNotBlock() throws InterruptedException {
+    BlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+    ConnectFourControllerImpl async =
+        new ConnectFourControllerImpl(view, model, uiTasks::add, 60_000);
+    StubbornComputerPlayer computer = new StubbornComputerPlayer();
+    async.setComputerPlayer(Player.YELLOW, computer);
+    async.playGame(model);
+    async.makeMove(0);
+
+    // The move returned while the computer is still thinking, and its progress is shown.
+    assertTrue(computer.started.await(10, TimeUnit.SECONDS));
+    runUiTasksUntil(uiTasks, () -> !view.searchProgress.isEmpty());
+    assertEquals(2, view.searchProgress.get(0).getColumn());
+    assertEquals(Player.YELLOW, model.getTurn());
+
+    async.makeMove(1);
+    assertEquals("Wait for the computer to move", view.displayedError);
+    async.close();
+  }
+
+  @Test
+  public void testBackgroundComputerStopsAtDeadline() throws InterruptedException {
+    BlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+    ConnectFourControllerImpl async = new ConnectFourControllerImpl(view, model, uiTasks::add, 50);
+    async.setComputerPlayer(Player.YELLOW, new StubbornComputerPlayer());
+    async.playGame(model);
+    async.makeMove(0);
+    runUiTasksUntil(uiTasks, () -> model.getTurn() == Player.RED);
+    assertEquals(Player.YELLOW, model.getBoardState()[3][2]);
+    assertEquals("RED Player's turn", view.playerTurnMessage);
+    async.close();
+  }
+
+  @Test
+  public void testResetAbandonsBackgroundComputerMove() throws InterruptedException {
+    BlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+    ConnectFourControllerImpl async =
+        new ConnectFourControllerImpl(view, model, uiTasks::add, 60_000);
+    StubbornComputerPlayer computer = new StubbornComputerPlayer();
+    async.setComputerPlayer(Player.YELLOW, computer);
+    async.playGame(model);
+    async.makeMove(0);
+    assertTrue(computer.started.await(10, TimeUnit.SECONDS));
+
+    async.resetGame();
+    assertTrue(computer.stopped.await(10, TimeUnit.SECONDS));
+    // The abandoned move is dropped when it arrives.
+    Thread.sleep(50);
+    while (!uiTasks.isEmpty()) {
+      uiTasks.take().run();
+    }
+    assertFalse(model.canUndo());
+    assertEquals(Player.RED, model.getTurn());
+    async.close();
+  }
+
+  @Test
+  public void testBackgroundComputersPlayEachOther() throws InterruptedException {
+    BlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+    ConnectFourControllerImpl async =
+        new ConnectFourControllerImpl(view, model, uiTasks::add, 60_000);
+    async.setComputerPlayer(Player.RED, new AlphaBetaPlayer(5));
+    async.setComputerPlayer(Player.YELLOW, new AlphaBetaPlayer(5));
+    async.playGame(model);
+    runUiTasksUntil(uiTasks, model::isGameOver);
+    assertTrue(view.gameOverDisplayed);
+    assertTrue(view.searchProgress.size() >= 7);
+    async.close();
+  }
+
+  @Test
+  public void testBackgroundComputerIllegalColumnIsReported() throws InterruptedException {
+    BlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+    ConnectFourControllerImpl async =
+        new ConnectFourControllerImpl(view, model, uiTasks::add, 60_000);
+    async.setComputerPlayer(Player.YELLOW, new StubbornComputerPlayer() {
+      @Override
+      public int chooseColumn(ConnectFourModel model, AtomicBoolean stop,
+          SearchListener listener) {
+        return 9;
+      }
+    });
+    async.playGame(model);
+    async.makeMove(0);
+    runUiTasksUntil(uiTasks, () -> view.displayedError != null);
+    assertTrue(view.displayedError.startsWith("The computer could not move"));
+    assertEquals(Player.YELLOW, model.getTurn());
+
+    // The user is no longer told to wait, so the game can go on.
+    view.displayedError = null;
+    async.setComputerPlayer(Player.YELLOW, null);
+    async.makeMove(1);
+    assertNull(view.displayedError);
+    assertEquals(Player.RED, model.getTurn());
+    async.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBackgroundDeadlineMustBePositive() {
+    new ConnectFourControllerImpl(view, model, Runnable::run, 0);
+  }
+
+  /**
+   * Runs the tasks handed to the user interface thread until a condition holds.
+   *
+   * @param uiTasks   the tasks handed to the user interface thread
+   * @param condition the condition to wait for
+   * @throws InterruptedException if interrupted while waiting for a task
+   */
+  private static void runUiTasksUntil(BlockingQueue<Runnable> uiTasks, BooleanSupplier condition)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (!condition.getAsBoolean()) {
+      Runnable task = uiTasks.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (task == null) {
+        throw new AssertionError("Timed out waiting for the computer");
+      }
+      task.run();
+    }
+  }
 }
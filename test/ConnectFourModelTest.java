@@ -1,12 +1,20 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import model.ConnectFourModel;
 import model.ConnectFourModelImpl;
+import model.MoveEvent;
+import model.MoveListener;
 import model.Player;
+import model.ReadOnlyBoard;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -75,6 +83,20 @@ public class ConnectFourModelTest {
     model.makeMove(column);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeMoveFillsColumnOnTallBoard() {
+    model = new ConnectFourModelImpl(20, 4);
+    for (int i = 0; i < 20; i++) {
+      model.makeMove(0);
+    }
+    Player[][] boardState = model.getBoardState();
+    assertEquals(Player.RED, boardState[19][0]);
+    assertEquals(Player.YELLOW, boardState[0][0]);
+    assertFalse(model.isGameOver());
+
+    model.makeMove(0);
+  }
+
   @Test
   public void testMakeMove() {
     model.makeMove(0);
@@ -83,6 +105,156 @@ public class ConnectFourModelTest {
     assertEquals("Player 2 should have made a move", Player.YELLOW, model.getBoardState()[4][0]);
   }
 
+  @Test
+  public void testGetBoardReflectsMoves() {
+    ReadOnlyBoard board = model.getBoard();
+    assertEquals(6, board.getRows());
+    assertEquals(7, board.getColumns());
+    long version = board.getVersion();
+
+    model.makeMove(3);
+    model.makeMove(3);
+    assertSame("The board view should not be copied", board, model.getBoard());
+    assertEquals(Player.RED, board.getCell(5, 3));
+    assertEquals(Player.YELLOW, board.getCell(4, 3));
+    assertNull(board.getCell(3, 3));
+    assertEquals(2, board.getColumnHeight(3));
+    assertEquals(0, board.getColumnHeight(0));
+    assertNotEquals(version, board.getVersion());
+    assertArrayEquals(model.getBoardState(), board.toArray());
+
+    version = board.getVersion();
+    model.resetBoard();
+    assertNotEquals(version, board.getVersion());
+    assertEquals(0, board.getColumnHeight(3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetBoardCellOutOfBounds() {
+    model.getBoard().getCell(6, 0);
+  }
+
+  @Test
+  public void testMoveListenerReceivesMovesAndResets() {
+    List<MoveEvent> moves = new ArrayList<>();
+    List<ReadOnlyBoard> resets = new ArrayList<>();
+    MoveListener listener = new MoveListener() {
+      @Override
+      public void moveMade(MoveEvent event) {
+        moves.add(event);
+      }
+
+      @Override
+      public void moveUndone(MoveEvent event) {
+        moves.remove(moves.size() - 1);
+      }
+
+      @Override
+      public void boardReset(ReadOnlyBoard board) {
+        resets.add(board);
+      }
+    };
+    model.addMoveListener(listener);
+
+    model.makeMove(2);
+    model.makeMove(2);
+    assertEquals(2, moves.size());
+    MoveEvent second = moves.get(1);
+    assertEquals(4, second.getRow());
+    assertEquals(2, second.getColumn());
+    assertEquals(Player.YELLOW, second.getPlayer());
+    assertEquals(2, second.getMoveNumber());
+    assertSame(model.getBoard(), second.getBoard());
+
+    model.resetBoard();
+    assertEquals(1, resets.size());
+    assertEquals(0, resets.get(0).getColumnHeight(2));
+
+    model.removeMoveListener(listener);
+    model.makeMove(0);
+    assertEquals(2, moves.size());
+  }
+
+  @Test
+  public void testUndoAndRedoWinningMove() {
+    for (int i = 0; i < 4; i++) {
+      model.makeMove(0);
+      if (i < 3) {
+        model.makeMove(1);
+      }
+    }
+    assertTrue(model.isGameOver());
+
+    model.undoMove();
+    assertFalse("Undoing the winning move should reopen the game", model.isGameOver());
+    assertNull(model.getWinner());
+    assertEquals(Player.RED, model.getTurn());
+    assertNull(model.getBoardState()[2][0]);
+    assertEquals(3, model.getBoard().getColumnHeight(0));
+    assertTrue(model.canRedo());
+
+    model.redoMove();
+    assertTrue(model.isGameOver());
+    assertEquals(Player.RED, model.getWinner());
+    assertFalse(model.canRedo());
+  }
+
+  @Test
+  public void testUndoAllMovesRestoresEmptyBoard() {
+    String empty = model.toString();
+    model.makeMove(3);
+    model.makeMove(4);
+    model.makeMove(3);
+    model.undoMove();
+    model.undoMove();
+    model.undoMove();
+    assertFalse(model.canUndo());
+    assertEquals(empty, model.toString());
+    assertEquals(Player.RED, model.getTurn());
+  }
+
+  @Test
+  public void testMakeMoveDiscardsRedo() {
+    model.makeMove(3);
+    model.makeMove(4);
+    model.undoMove();
+    model.makeMove(5);
+    assertFalse(model.canRedo());
+    assertEquals(Player.YELLOW, model.getBoardState()[5][5]);
+    assertNull(model.getBoardState()[5][4]);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUndoWithoutMoves() {
+    model.undoMove();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRedoWithoutUndo() {
+    model.makeMove(0);
+    model.redoMove();
+  }
+
+  @Test
+  public void testPositionKeyIgnoresMoveOrder() {
+    ConnectFourModel other = new ConnectFourModelImpl(6, 7);
+    model.makeMove(0);
+    model.makeMove(1);
+    model.makeMove(2);
+    other.makeMove(2);
+    other.makeMove(1);
+    other.makeMove(0);
+    assertEquals(model.getPositionKey(), other.getPositionKey());
+
+    long key = model.getPositionKey();
+    model.makeMove(3);
+    assertNotEquals(key, model.getPositionKey());
+    model.undoMove();
+    assertEquals(key, model.getPositionKey());
+    model.resetBoard();
+    assertEquals(0L, model.getPositionKey());
+  }
+
   @Test
   public void testAlternatingTurns() {
     Player initialPlayer = model.getTurn();
@@ -406,4 +578,109 @@ public class ConnectFourModelTest {
     assertEquals(expected, model.toString());
   }
 
+  @Test
+  public void testMakeMovesStopsAtWin() {
+    int[] moves = {9, 0, 1, 0, 1, 0, 1, 0, 1, 2};
+    assertEquals(7, model.makeMoves(moves, 1, 9));
+    assertTrue(model.isGameOver());
+    assertEquals(Player.RED, model.getWinner());
+    assertEquals(0, model.makeMoves(moves, 9, 1));
+  }
+
+  @Test
+  public void testMakeMovesStopsBeforeInvalidMove() {
+    int[] moves = {3, 3, 3, 3, 3, 3, 3, 4};
+    assertEquals(6, model.makeMoves(moves, 0, moves.length));
+    assertFalse(model.isGameOver());
+    assertEquals(Player.RED, model.getTurn());
+    assertEquals(1, model.makeMoves(new int[] {4, 7}, 0, 2));
+    assertEquals(0, model.makeMoves(new int[] {-1}, 0, 1));
+    assertEquals(0, model.makeMoves(new int[0], 0, 0));
+  }
+
+  @Test
+  public void testMakeMovesMatchesMakeMove() {
+    int[] moves = {3, 2, 4, 5, 3, 3, 2, 6, 1, 0, 0};
+    ConnectFourModel single = new ConnectFourModelImpl(6, 7);
+    for (int column : moves) {
+      single.makeMove(column);
+    }
+    assertEquals(moves.length, model.makeMoves(moves, 0, moves.length));
+    assertEquals(single.toString(), model.toString());
+    assertEquals(single.getPositionKey(), model.getPositionKey());
+    assertEquals(single.getTurn(), model.getTurn());
+  }
+
+  @Test
+  public void testMakeMovesClearsRedoAndNotifiesListeners() {
+    model.makeMove(0);
+    model.undoMove();
+    assertTrue(model.canRedo());
+    List<Integer> columns = new ArrayList<>();
+    model.addMoveListener(new MoveListener() {
+      @Override
+      public void moveMade(MoveEvent event) {
+        columns.add(event.getColumn());
+      }
+
+      @Override
+      public void moveUndone(MoveEvent event) {
+      }
+
+      @Override
+      public void boardReset(ReadOnlyBoard board) {
+      }
+    });
+    model.makeMoves(new int[] {5, 6}, 0, 2);
+    assertFalse(model.canRedo());
+    assertEquals(List.of(5, 6), columns);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeMovesNullArray() {
+    model.makeMoves(null, 0, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeMovesInvalidRange() {
+    model.makeMoves(new int[3], 2, 2);
+  }
+
+  @Test
+  public void testCanonicalKeyIsSharedWithMirrorImage() {
+    int[][] sizes = {{6, 7}, {4, 4}, {5, 8}, {4, 300}, {20, 20}};
+    Random random = new Random(3);
+    for (int[] size : sizes) {
+      ConnectFourModel original = new ConnectFourModelImpl(size[0], size[1]);
+      ConnectFourModel mirrored = new ConnectFourModelImpl(size[0], size[1]);
+      for (int i = 0; i < 12 && !original.isGameOver(); i++) {
+        int column = random.nextInt(size[1]);
+        if (original.getBoard().getColumnHeight(column) == size[0]) {
+          continue;
+        }
+        original.makeMove(column);
+        mirrored.makeMove(size[1] - 1 - column);
+        assertEquals(original.getCanonicalKey(), mirrored.getCanonicalKey());
+        assertTrue(original.getCanonicalKey() == original.getPositionKey()
+            || original.getCanonicalKey() == mirrored.getPositionKey());
+      }
+      original.undoMove();
+      mirrored.undoMove();
+      assertEquals(original.getCanonicalKey(), mirrored.getCanonicalKey());
+      assertEquals(original.getCanonicalKey(), original.copy().getCanonicalKey());
+    }
+  }
+
+  @Test
+  public void testCanonicalKeyDistinguishesOtherPositions() {
+    model.makeMove(1);
+    long key = model.getCanonicalKey();
+    model.undoMove();
+    model.makeMove(2);
+    assertNotEquals(key, model.getCanonicalKey());
+    model.resetBoard();
+    assertEquals(0L, model.getCanonicalKey());
+    model.makeMove(3);
+    assertEquals(model.getPositionKey(), model.getCanonicalKey());
+  }
 }
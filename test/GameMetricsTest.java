@@ -0,0 +1,177 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import controller.ConnectFourController;
+import controller.ConnectFourControllerImpl;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import metrics.GameMetrics;
+import metrics.LatencyHistogram;
+import model.BitboardConnectFourModel;
+import model.ConnectFourModel;
+import model.ConnectFourModelImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test GameMetrics and LatencyHistogram classes.
+ */
+public class GameMetricsTest {
+  private final GameMetrics metrics = GameMetrics.get();
+
+  @Before
+  public void setUp() {
+    metrics.reset();
+    metrics.setEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+    metrics.setEnabled(false);
+    metrics.reset();
+  }
+
+  @Test
+  public void testEmptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram("empty");
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMeanNanos(), 0);
+    assertEquals(0, histogram.getP99Nanos());
+    assertEquals(0, histogram.getMaxNanos());
+  }
+
+  @Test
+  public void testHistogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram("test");
+    for (long nanos = 1; nanos <= 100_000; nanos++) {
+      histogram.record(nanos);
+    }
+    assertEquals(100_000, histogram.getCount());
+    assertEquals(50_000.5, histogram.getMeanNanos(), 1e-6);
+    assertEquals(100_000, histogram.getMaxNanos());
+    assertEquals(1, histogram.getPercentileNanos(0));
+    assertEquals(100_000, histogram.getPercentileNanos(100));
+    assertWithinPrecision(50_000, histogram.getMedianNanos());
+    assertWithinPrecision(90_000, histogram.getP90Nanos());
+    assertWithinPrecision(99_000, histogram.getP99Nanos());
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMaxNanos());
+  }
+
+  @Test
+  public void testHistogramExtremes() {
+    LatencyHistogram histogram = new LatencyHistogram("test");
+    histogram.record(-5);
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(2, histogram.getCount());
+    assertEquals(0, histogram.getPercentileNanos(50));
+    assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100));
+  }
+
+  @Test
+  public void testConcurrentRecording() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram("test");
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          histogram.record(i);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40_000, histogram.getCount());
+    assertEquals(9_999, histogram.getMaxNanos());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    new LatencyHistogram("test").getPercentileNanos(101);
+  }
+
+  @Test
+  public void testControllerRecordsMoves() {
+    ConnectFourModel model = new ConnectFourModelImpl(4, 5);
+    ConnectFourController controller = new ConnectFourControllerImpl(
+        new ConnectFourControllerTest.MockConnectFourView(), model);
+    controller.playGame(model);
+    int[] moves = {0, 1, 0, 1, 0, 1, 0};
+    for (int column : moves) {
+      controller.makeMove(column);
+    }
+
+    assertEquals(7, metrics.getMovesMade());
+    assertEquals(1, metrics.getGamesCompleted());
+    assertEquals(7, metrics.getMoveTime().getCount());
+    assertEquals(7, metrics.getWinCheckTime().getCount());
+    // The new board is drawn, then each move shows its disc and the turn or the winner.
+    assertEquals(15, metrics.getRenderDispatchTime().getCount());
+    assertTrue(metrics.getMovesPerSecond() > 0);
+
+    controller.resetGame();
+    controller.makeMove(9);
+    assertEquals(1, metrics.getInvalidMoves());
+    assertEquals(1.0 / 8, metrics.getInvalidMoveRate(), 1e-9);
+  }
+
+  @Test
+  public void testNothingRecordedWhenDisabled() {
+    metrics.setEnabled(false);
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    ConnectFourController controller = new ConnectFourControllerImpl(
+        new ConnectFourControllerTest.MockConnectFourView(), model);
+    controller.makeMove(3);
+    controller.makeMove(9);
+    assertEquals(0, metrics.getMovesMade());
+    assertEquals(0, metrics.getInvalidMoves());
+    assertEquals(0, metrics.getWinCheckTime().getCount());
+    assertEquals(0, metrics.getRenderDispatchTime().getCount());
+  }
+
+  @Test
+  public void testTimerSince() {
+    metrics.winCheckedSince(GameMetrics.startTimer());
+    assertEquals(1, metrics.getWinCheckTime().getCount());
+
+    metrics.setEnabled(false);
+    long start = GameMetrics.startTimer();
+    assertEquals(GameMetrics.NOT_TIMED, start);
+    metrics.winCheckedSince(start);
+    metrics.renderDispatchedSince(start);
+    metrics.moveMadeSince(start, true);
+    metrics.invalidMoveSince(start);
+    assertEquals(1, metrics.getWinCheckTime().getCount());
+    assertEquals(0, metrics.getRenderDispatchTime().getCount());
+    assertEquals(0, metrics.getGamesCompleted());
+    assertEquals(0, metrics.getInvalidMoves());
+  }
+
+  @Test
+  public void testMBeans() throws Exception {
+    GameMetrics.registerMBeans();
+    GameMetrics.registerMBeans();
+    new BitboardConnectFourModel(6, 7).makeMove(3);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    assertEquals(true, server.getAttribute(new ObjectName(GameMetrics.OBJECT_NAME), "Enabled"));
+    assertEquals(1L, server.getAttribute(
+        new ObjectName("connectfour:type=LatencyHistogram,name=winCheckTime"), "Count"));
+    String dump = (String) server.invoke(new ObjectName(GameMetrics.OBJECT_NAME), "dump",
+        null, null);
+    assertTrue(dump.contains("winCheckTime: count=1"));
+  }
+
+  private static void assertWithinPrecision(long expected, long actual) {
+    assertTrue(actual + " is not near " + expected,
+        actual >= expected && actual <= expected + expected / 32);
+  }
+}
@@ -0,0 +1,156 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import archive.BatchReplayer;
+import archive.GameRecord;
+import archive.GameRecord.Outcome;
+import archive.GameRecordReader;
+import archive.GameRecordWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.ConnectFourModel;
+import model.Player;
+import org.junit.Test;
+
+/**
+ * Test GameRecord, GameRecordWriter, GameRecordReader and BatchReplayer classes.
+ */
+public class GameRecordTest {
+  private static final GameRecord RED_WIN =
+      new GameRecord(6, 7, new int[] {0, 6, 1, 6, 2, 5, 3}, Outcome.RED_WINS);
+
+  private static byte[] write(GameRecord... records) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+      for (GameRecord record : records) {
+        writer.write(record);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<GameRecord> read(byte[] archive) throws IOException {
+    List<GameRecord> records = new ArrayList<>();
+    try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(archive))) {
+      GameRecord record;
+      while ((record = reader.read()) != null) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    int[] wide = new int[300];
+    for (int i = 0; i < wide.length; i++) {
+      wide[i] = (i * 37) % 100;
+    }
+    GameRecord[] records = {
+        RED_WIN,
+        new GameRecord(4, 4, new int[] {3, 2, 1, 0}, Outcome.UNFINISHED),
+        new GameRecord(5, 9, new int[] {8, 0, 8}, Outcome.UNFINISHED),
+        new GameRecord(6, 7, new int[0], Outcome.UNFINISHED),
+        new GameRecord(100, 100, wide, Outcome.DRAW),
+        new GameRecord(1, 1, new int[] {0}, Outcome.YELLOW_WINS)
+    };
+    assertEquals(Arrays.asList(records), read(write(records)));
+  }
+
+  @Test
+  public void testCompactSize() throws IOException {
+    // 5 header bytes, then 3 bytes of header and 3 bytes of moves for 7 moves of 3 bits.
+    assertEquals(5 + 3 + 3, write(RED_WIN).length);
+
+    int[] moves = new int[42];
+    GameRecord full = new GameRecord(6, 7, moves, Outcome.DRAW);
+    assertEquals(5 + 4 + 16, write(full).length);
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherFiles() throws IOException {
+    read("not an archive".getBytes());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testRejectsTruncatedRecord() throws IOException {
+    byte[] archive = write(RED_WIN);
+    read(Arrays.copyOf(archive, archive.length - 1));
+  }
+
+  @Test
+  public void testEmptyArchive() throws IOException {
+    try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(write()))) {
+      assertNull(reader.read());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsColumnOutsideBoard() {
+    new GameRecord(6, 7, new int[] {7}, Outcome.UNFINISHED);
+  }
+
+  @Test
+  public void testReplay() {
+    ConnectFourModel model = BatchReplayer.replay(RED_WIN);
+    assertTrue(model.isGameOver());
+    assertEquals(Player.RED, model.getWinner());
+    assertEquals(Player.RED, model.getBoard().getCell(5, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReplayChecksOutcome() {
+    BatchReplayer.replay(new GameRecord(6, 7, new int[] {0, 6, 1, 6, 2, 5, 3}, Outcome.DRAW));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReplayRejectsMovesAfterEnd() {
+    BatchReplayer.replay(new GameRecord(6, 7, new int[] {0, 6, 1, 6, 2, 5, 3, 4},
+        Outcome.RED_WINS));
+  }
+
+  @Test
+  public void testReplayAll() throws IOException {
+    GameRecord yellowWin = new GameRecord(6, 7, new int[] {6, 0, 6, 1, 5, 2, 5, 3},
+        Outcome.YELLOW_WINS);
+    GameRecord unfinished = new GameRecord(20, 20, new int[] {10, 10}, Outcome.UNFINISHED);
+    byte[] archive = write(RED_WIN, yellowWin, unfinished, RED_WIN);
+
+    List<Integer> heights = new ArrayList<>();
+    BatchReplayer.Summary summary;
+    try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(archive))) {
+      summary = BatchReplayer.replayAll(reader,
+          model -> heights.add(model.getBoard().getColumnHeight(0)));
+    }
+    assertEquals(4, summary.getGames());
+    assertEquals(7 + 8 + 2 + 7, summary.getMoves());
+    assertEquals(2, summary.getCount(Outcome.RED_WINS));
+    assertEquals(1, summary.getCount(Outcome.YELLOW_WINS));
+    assertEquals(1, summary.getCount(Outcome.UNFINISHED));
+    assertEquals(0, summary.getCount(Outcome.DRAW));
+    assertEquals(Arrays.asList(1, 1, 0, 1), heights);
+  }
+
+  @Test
+  public void testTournamentArchive() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Tournament.Result result;
+    try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+      result = Tournament.play(6, 7, 10, 2, "random", "random", writer);
+    }
+    List<GameRecord> records = read(bytes.toByteArray());
+    assertEquals(10, records.size());
+    int moves = 0;
+    for (GameRecord record : records) {
+      assertTrue(BatchReplayer.replay(record).isGameOver());
+      moves += record.getMoveCount();
+    }
+    assertEquals(result.getAverageLength(), moves / 10.0, 1e-9);
+  }
+}
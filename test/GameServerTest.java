@@ -0,0 +1,145 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import server.GameServer;
+import server.SessionRegistry;
+
+/**
+ * Test GameServer class.
+ */
+public class GameServerTest {
+  private SessionRegistry registry;
+  private GameServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    registry = new SessionRegistry(1000);
+    server = new GameServer(0, registry, Executors.newCachedThreadPool());
+    server.start();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  /**
+   * Connection to the test server that sends one request at a time.
+   */
+  private final class Client implements AutoCloseable {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final PrintWriter out;
+
+    private Client() throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+      in = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    private String send(String request) throws IOException {
+      out.println(request);
+      return in.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  @Test
+  public void testPlayGame() throws IOException {
+    try (Client client = new Client()) {
+      assertEquals("OK 1", client.send("NEW 6 7"));
+      assertEquals("OK TURN YELLOW", client.send("MOVE 1 0"));
+      assertEquals("OK TURN RED", client.send("MOVE 1 6"));
+      client.send("MOVE 1 1");
+      client.send("MOVE 1 6");
+      client.send("MOVE 1 2");
+      client.send("MOVE 1 5");
+      assertEquals("OK WIN RED", client.send("MOVE 1 3"));
+      assertEquals("OK WIN RED ......./......./......./......./"
+          + "......Y/RRRR.YY", client.send("BOARD 1"));
+      assertTrue(client.send("MOVE 1 4").startsWith("ERR"));
+      assertEquals("OK TURN RED", client.send("UNDO 1"));
+      assertEquals("OK WIN RED", client.send("REDO 1"));
+      assertEquals("OK TURN RED", client.send("RESET 1"));
+      assertEquals("OK", client.send("CLOSE 1"));
+      assertEquals("OK BYE", client.send("QUIT"));
+    }
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testErrors() throws IOException {
+    try (Client client = new Client()) {
+      assertTrue(client.send("MOVE 9 0").startsWith("ERR No game 9"));
+      assertTrue(client.send("NEW 2 2").startsWith("ERR"));
+      assertTrue(client.send("NEW six 7").startsWith("ERR"));
+      assertTrue(client.send("NEW 20000 20000").startsWith("ERR Boards can have at most"));
+      assertTrue(client.send("NEW 65536 65536").startsWith("ERR Boards can have at most"));
+      assertTrue(client.send("NEW 6 7 RED 3600000").startsWith("ERR The computer can think"));
+      assertEquals(0, registry.size());
+      assertTrue(client.send("JUMP").startsWith("ERR"));
+      String id = client.send("NEW 6 7").substring(3);
+      assertTrue(client.send("MOVE " + id + " 7").startsWith("ERR"));
+      assertTrue(client.send("MOVE " + id).startsWith("ERR"));
+      assertTrue(client.send("UNDO " + id).startsWith("ERR"));
+      assertEquals("OK TURN RED ......./......./......./......./......./.......",
+          client.send("BOARD " + id));
+    }
+  }
+
+  @Test
+  public void testComputerReplies() throws IOException {
+    try (Client client = new Client()) {
+      assertEquals("OK 1", client.send("NEW 6 7 YELLOW 20"));
+      assertEquals("OK TURN RED", client.send("MOVE 1 3"));
+      String board = client.send("BOARD 1").substring("OK TURN RED ".length());
+      assertEquals(1, board.chars().filter(c -> c == 'Y').count());
+      assertEquals(1, board.chars().filter(c -> c == 'R').count());
+      assertEquals("OK TURN RED", client.send("UNDO 1"));
+      assertEquals("OK TURN RED ......./......./......./......./......./.......",
+          client.send("BOARD 1"));
+    }
+  }
+
+  @Test
+  public void testConcurrentGames() throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(16);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      results.add(clients.submit(() -> {
+        try (Client client = new Client()) {
+          String id = client.send("NEW 6 7").substring(3);
+          for (int column : new int[] {0, 1, 0, 1, 0, 1}) {
+            client.send("MOVE " + id + " " + column);
+          }
+          return client.send("MOVE " + id + " 0");
+        }
+      }));
+    }
+    for (Future<String> result : results) {
+      assertEquals("OK WIN RED", result.get());
+    }
+    assertEquals(64, registry.size());
+    clients.shutdown();
+  }
+}
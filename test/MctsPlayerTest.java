@@ -0,0 +1,129 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ai.MctsPlayer;
+import ai.SearchResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.Player;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test MctsPlayer class.
+ */
+public class MctsPlayerTest {
+  private MctsPlayer player;
+
+  @Before
+  public void setUp() {
+    player = new MctsPlayer(300, 2, MctsPlayer.DEFAULT_EXPLORATION, 42);
+  }
+
+  @After
+  public void tearDown() {
+    player.shutdown();
+  }
+
+  private static ConnectFourModel play(int rows, int columns, int... moves) {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    for (int column : moves) {
+      model.makeMove(column);
+    }
+    return model;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRequiresPositiveBudget() {
+    new MctsPlayer(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRequiresThreads() {
+    new MctsPlayer(100, 0, MctsPlayer.DEFAULT_EXPLORATION, 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGameOver() {
+    player.chooseColumn(play(6, 7, 0, 1, 0, 1, 0, 1, 0));
+  }
+
+  @Test
+  public void testTakesImmediateWin() {
+    assertEquals(3, player.chooseColumn(play(6, 7, 0, 6, 1, 6, 2, 5)));
+  }
+
+  @Test
+  public void testBlocksImmediateLoss() {
+    assertEquals(3, player.chooseColumn(play(6, 7, 0, 6, 1, 6, 2)));
+  }
+
+  @Test
+  public void testDoesNotChangeModel() {
+    ConnectFourModel model = play(6, 7, 3, 3, 2);
+    long key = model.getPositionKey();
+    player.chooseColumn(model);
+    assertEquals(key, model.getPositionKey());
+    assertEquals(Player.YELLOW, model.getTurn());
+    assertTrue(model.canUndo());
+  }
+
+  @Test
+  public void testReportsPlayouts() {
+    int column = player.chooseColumn(play(20, 20));
+    SearchResult result = player.getLastResult();
+    assertEquals(column, result.getColumn());
+    assertTrue(result.getNodes() > 0);
+    assertTrue(result.getDepth() > 0);
+    assertTrue(player.getPlayoutsPerSecond() > 0);
+  }
+
+  @Test
+  public void testWideBoardComparesMoves() {
+    MctsPlayer fast = new MctsPlayer(100, 2, MctsPlayer.DEFAULT_EXPLORATION, 3);
+    try {
+      fast.chooseColumn(play(1000, 1000));
+      SearchResult result = fast.getLastResult();
+      assertTrue(result.getScore() > -1000);
+    } finally {
+      fast.shutdown();
+    }
+  }
+
+  @Test
+  public void testStopsWhenAsked() {
+    MctsPlayer slow = new MctsPlayer(60_000, 2, MctsPlayer.DEFAULT_EXPLORATION, 7);
+    try {
+      AtomicBoolean stop = new AtomicBoolean();
+      new Thread(() -> {
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        stop.set(true);
+      }).start();
+      long start = System.nanoTime();
+      int column = slow.chooseColumn(play(6, 7), stop, null);
+      assertTrue(System.nanoTime() - start < 10_000_000_000L);
+      assertTrue(column >= 0 && column < 7);
+      assertTrue(slow.getLastResult().getNodes() > 0);
+    } finally {
+      slow.shutdown();
+    }
+  }
+
+  @Test
+  public void testReportsProgress() {
+    List<SearchResult> progress = new ArrayList<>();
+    player.chooseColumn(play(6, 7), new AtomicBoolean(), progress::add);
+    assertTrue(progress.size() >= 1);
+    for (int i = 1; i < progress.size(); i++) {
+      assertTrue(progress.get(i).getNodes() > progress.get(i - 1).getNodes());
+    }
+  }
+}
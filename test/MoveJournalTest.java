@@ -0,0 +1,240 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import journal.MoveJournal;
+import journal.SyncPolicy;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.Player;
+import model.ReadOnlyBoard;
+import model.SparseConnectFourModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test MoveJournal and SyncPolicy classes.
+ */
+public class MoveJournalTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path newFile() throws IOException {
+    return folder.newFile().toPath();
+  }
+
+  private static int discs(MoveJournal journal) {
+    ReadOnlyBoard board = journal.getModel().getBoard();
+    int discs = 0;
+    for (int column = 0; column < board.getColumns(); column++) {
+      discs += board.getColumnHeight(column);
+    }
+    return discs;
+  }
+
+  @Test
+  public void testRecoverReplaysMovesUndosAndResets() throws IOException {
+    Path file = newFile();
+    String expected;
+    try (MoveJournal journal = MoveJournal.create(file, 6, 7, SyncPolicy.everyMove())) {
+      ConnectFourModel model = journal.getModel();
+      model.makeMove(0);
+      model.makeMove(1);
+      model.resetBoard();
+      model.makeMove(3);
+      model.makeMove(3);
+      model.makeMove(4);
+      model.undoMove();
+      model.makeMove(5);
+      expected = model.toString();
+    }
+
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      ConnectFourModel model = journal.getModel();
+      assertEquals(expected, model.toString());
+      assertEquals(Player.YELLOW, model.getTurn());
+      assertFalse(model.canRedo());
+    }
+  }
+
+  @Test
+  public void testRecoveredGameKeepsJournaling() throws IOException {
+    Path file = newFile();
+    try (MoveJournal journal = MoveJournal.create(file, 6, 7, SyncPolicy.everyBatch(3))) {
+      journal.getModel().makeMove(2);
+    }
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      journal.getModel().makeMove(2);
+    }
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      assertEquals(Player.RED, journal.getModel().getBoard().getCell(5, 2));
+      assertEquals(Player.YELLOW, journal.getModel().getBoard().getCell(4, 2));
+    }
+  }
+
+  @Test
+  public void testLargeBoardColumns() throws IOException {
+    Path file = newFile();
+    try (MoveJournal journal = MoveJournal.create(file, 4, 300, SyncPolicy.everyMove())) {
+      journal.getModel().makeMove(299);
+      journal.getModel().makeMove(128);
+    }
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      assertEquals(Player.RED, journal.getModel().getBoard().getCell(3, 299));
+      assertEquals(Player.YELLOW, journal.getModel().getBoard().getCell(3, 128));
+    }
+  }
+
+  @Test
+  public void testBatchesShareOneSync() throws IOException {
+    Path file = newFile();
+    try (MoveJournal journal = MoveJournal.create(file, 6, 7, SyncPolicy.everyBatch(4))) {
+      for (int i = 0; i < 8; i++) {
+        journal.getModel().makeMove(i % 7);
+      }
+      assertEquals(2, journal.getSyncCount());
+      journal.getModel().makeMove(0);
+      assertEquals(2, journal.getSyncCount());
+      journal.sync();
+      assertEquals(3, journal.getSyncCount());
+    }
+  }
+
+  @Test
+  public void testUnsyncedRecordsAreLostOnCrash() throws IOException {
+    Path file = newFile();
+    MoveJournal journal = MoveJournal.create(file, 6, 7, SyncPolicy.everyBatch(2));
+    journal.getModel().makeMove(0);
+    journal.getModel().makeMove(1);
+    journal.getModel().makeMove(2);
+    // The third move is still buffered; copying the file now is what a crash would leave.
+    Path crashed = newFile();
+    Files.copy(file, crashed, StandardCopyOption.REPLACE_EXISTING);
+    journal.close();
+
+    try (MoveJournal recovered = MoveJournal.recover(crashed, SyncPolicy.everyMove())) {
+      assertEquals(2, discs(recovered));
+    }
+  }
+
+  @Test
+  public void testTimedSync() throws IOException, InterruptedException {
+    Path file = newFile();
+    try (MoveJournal journal = MoveJournal.create(file, 6, 7, SyncPolicy.everyMillis(10))) {
+      journal.getModel().makeMove(3);
+      long deadline = System.currentTimeMillis() + 5000;
+      while (journal.getSyncCount() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      assertEquals(1, journal.getSyncCount());
+      assertEquals(15, Files.size(file));
+    }
+  }
+
+  @Test
+  public void testTornTailIsDropped() throws IOException {
+    Path file = newFile();
+    try (MoveJournal journal = MoveJournal.create(file, 4, 300, SyncPolicy.everyMove())) {
+      journal.getModel().makeMove(1);
+      journal.getModel().makeMove(200);
+    }
+    long size = Files.size(file);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(size - 1);
+    }
+
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      assertEquals(1, discs(journal));
+      assertEquals(size - 3, Files.size(file));
+      journal.getModel().makeMove(2);
+    }
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      assertEquals(Player.YELLOW, journal.getModel().getBoard().getCell(3, 2));
+    }
+  }
+
+  @Test
+  public void testInvalidMoveEndsReplay() throws IOException {
+    Path file = newFile();
+    try (MoveJournal journal = MoveJournal.create(file, 6, 7, SyncPolicy.everyMove())) {
+      journal.getModel().makeMove(1);
+    }
+    Files.write(file, new byte[] {1, 9, 1, 2}, StandardOpenOption.APPEND);
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      assertEquals(1, discs(journal));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRecoverRejectsOtherFiles() throws IOException {
+    Path file = newFile();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+    MoveJournal.recover(file, SyncPolicy.everyMove());
+  }
+
+  @Test
+  public void testClosedJournalStopsListening() throws IOException {
+    Path file = newFile();
+    MoveJournal journal = MoveJournal.create(file, 6, 7, SyncPolicy.everyMove());
+    journal.close();
+    journal.getModel().makeMove(0);
+    assertEquals(13, Files.size(file));
+  }
+
+  @Test
+  public void testAttachToExistingModel() throws IOException {
+    Path file = newFile();
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    model.makeMove(0);
+    model.resetBoard();
+    try (MoveJournal journal = MoveJournal.attach(model, file, SyncPolicy.everyMove())) {
+      assertSame(model, journal.getModel());
+      model.makeMove(4);
+      model.makeMove(4);
+    }
+    model.makeMove(5);
+
+    try (MoveJournal journal = MoveJournal.recover(file, SyncPolicy.everyMove())) {
+      assertEquals(2, discs(journal));
+      assertEquals(Player.YELLOW, journal.getModel().getBoard().getCell(4, 4));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAttachRejectsStartedGame() throws IOException {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    model.makeMove(3);
+    MoveJournal.attach(model, newFile(), SyncPolicy.everyMove());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAttachRejectsOtherRunLengths() throws IOException {
+    MoveJournal.attach(new SparseConnectFourModel(6, 7, 5), newFile(), SyncPolicy.everyMove());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBatch() {
+    SyncPolicy.everyBatch(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidInterval() {
+    SyncPolicy.everyMillis(0);
+  }
+
+  @Test
+  public void testPolicyDescriptions() {
+    assertEquals("every move", SyncPolicy.everyMove().toString());
+    assertEquals("every 8 moves", SyncPolicy.everyBatch(8).toString());
+    assertEquals("every 50 ms", SyncPolicy.everyMillis(50).toString());
+    assertTrue(SyncPolicy.everyMillis(50).getBatchRecords() > 1000);
+  }
+}
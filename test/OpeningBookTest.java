@@ -0,0 +1,102 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ai.AlphaBetaPlayer;
+import ai.BookPlayer;
+import ai.OpeningBook;
+import ai.OpeningBookGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test OpeningBook, OpeningBookGenerator and BookPlayer classes.
+ */
+public class OpeningBookTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path file;
+  private AlphaBetaPlayer searcher;
+  private int positions;
+
+  @Before
+  public void setUp() throws IOException {
+    file = folder.getRoot().toPath().resolve("book.bin");
+    searcher = new AlphaBetaPlayer(10_000, 4);
+    positions = OpeningBookGenerator.generate(6, 7, 2, searcher, file);
+  }
+
+  @Test
+  public void testGeneratesEveryPositionOnce() throws IOException {
+    // 1 empty board, 7 positions after one move and 49 after two, of which only the positions
+    // with both discs in the middle column are their own mirror image.
+    assertEquals(1 + (7 + 1) / 2 + (49 + 1) / 2, positions);
+    OpeningBook book = OpeningBook.open(file);
+    assertEquals(positions, book.size());
+    assertEquals(6, book.getRows());
+    assertEquals(7, book.getColumns());
+    assertEquals(2, book.getPlies());
+    assertEquals(16 + positions * 10L, Files.size(file));
+  }
+
+  @Test
+  public void testTranspositionsAreSearchedOnce() throws IOException {
+    // After three plies, red's two discs can be dropped in either order.
+    int threePlies = OpeningBookGenerator.generate(6, 7, 3, searcher, file);
+    assertTrue(threePlies < 1 + 7 + 49 + 343);
+  }
+
+  @Test
+  public void testLookupMatchesSearch() throws IOException {
+    OpeningBook book = OpeningBook.open(file);
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    model.makeMove(2);
+    model.makeMove(4);
+    assertEquals(searcher.chooseColumn(model), book.lookup(model));
+
+    model.makeMove(3);
+    assertEquals("Positions deeper than the book are not found", -1, book.lookup(model));
+    assertEquals(-1, book.lookup(ConnectFourModelFactory.createModel(7, 7)));
+  }
+
+  @Test
+  public void testMirroredPositionGetsMirroredMove() throws IOException {
+    OpeningBook book = OpeningBook.open(file);
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    ConnectFourModel mirrored = ConnectFourModelFactory.createModel(6, 7);
+    model.makeMove(0);
+    model.makeMove(1);
+    mirrored.makeMove(6);
+    mirrored.makeMove(5);
+    assertTrue(book.lookup(model) >= 0);
+    assertEquals(6 - book.lookup(model), book.lookup(mirrored));
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherFiles() throws IOException {
+    Path other = folder.getRoot().toPath().resolve("other.bin");
+    Files.write(other, new byte[32]);
+    OpeningBook.open(other);
+  }
+
+  @Test
+  public void testBookPlayerFallsBackOutOfBook() throws IOException {
+    BookPlayer player = new BookPlayer(OpeningBook.open(file), new AlphaBetaPlayer(10_000, 2));
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    player.chooseColumn(model);
+    assertEquals(0, player.getLastResult().getDepth());
+
+    model.makeMove(0);
+    model.makeMove(0);
+    model.makeMove(0);
+    player.chooseColumn(model);
+    assertTrue(player.getLastResult().getDepth() > 0);
+  }
+}
@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ai.AlphaBetaPlayer;
+import ai.ParallelAlphaBetaPlayer;
+import ai.SearchResult;
+import ai.TranspositionTable;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test ParallelAlphaBetaPlayer class.
+ */
+public class ParallelAlphaBetaPlayerTest {
+  private ParallelAlphaBetaPlayer player;
+
+  @Before
+  public void setUp() {
+    player = new ParallelAlphaBetaPlayer(10_000, 8, 4, new TranspositionTable(1 << 20));
+  }
+
+  @After
+  public void tearDown() {
+    player.shutdown();
+  }
+
+  private static ConnectFourModel play(int... moves) {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    for (int column : moves) {
+      model.makeMove(column);
+    }
+    return model;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRequiresTable() {
+    new ParallelAlphaBetaPlayer(100, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRequiresThreads() {
+    new ParallelAlphaBetaPlayer(100, 8, 0, new TranspositionTable(1 << 20));
+  }
+
+  @Test
+  public void testTakesImmediateWin() {
+    assertEquals(3, player.chooseColumn(play(0, 6, 1, 6, 2, 5)));
+  }
+
+  @Test
+  public void testAgreesWithSingleThreadSearch() {
+    ConnectFourModel model = play(3, 3, 2, 4, 4, 2, 5);
+    AlphaBetaPlayer single = new AlphaBetaPlayer(10_000, 8);
+    single.chooseColumn(model);
+    player.chooseColumn(model);
+
+    SearchResult result = player.getLastResult();
+    assertEquals(single.getLastResult().getScore(), result.getScore());
+    assertTrue(result.getDepth() >= 8);
+    assertTrue(result.getNodes() > 0);
+    assertEquals(4, player.getThreads());
+  }
+}
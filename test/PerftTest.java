@@ -0,0 +1,73 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import model.BitboardConnectFourModel;
+import model.ConnectFourModel;
+import model.ConnectFourModelImpl;
+import model.Perft;
+import org.junit.Test;
+
+/**
+ * Test Perft class.
+ */
+public class PerftTest {
+  /**
+   * The deepest standard count the tests check, to keep them fast.
+   */
+  private static final int MAX_TESTED_DEPTH = 8;
+  private static final long[] STANDARD_COUNTS = Perft.getStandardCounts();
+
+  @Test
+  public void testStandardCountsArrayModel() {
+    ConnectFourModel model = new ConnectFourModelImpl(6, 7);
+    for (int depth = 0; depth <= MAX_TESTED_DEPTH; depth++) {
+      assertEquals("depth " + depth, STANDARD_COUNTS[depth], Perft.perft(model, depth));
+    }
+  }
+
+  @Test
+  public void testStandardCountsBitboardModel() {
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    for (int depth = 0; depth <= MAX_TESTED_DEPTH; depth++) {
+      assertEquals("depth " + depth, STANDARD_COUNTS[depth], Perft.perft(model, depth));
+    }
+  }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    ForkJoinPool pool = new ForkJoinPool(3);
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    model.makeMove(3);
+    model.makeMove(3);
+    assertEquals(Perft.perft(model, 8), Perft.parallelPerft(model, 8, pool));
+    assertEquals(STANDARD_COUNTS[MAX_TESTED_DEPTH],
+        Perft.parallelPerft(new ConnectFourModelImpl(6, 7), MAX_TESTED_DEPTH, pool));
+    pool.shutdown();
+  }
+
+  @Test
+  public void testRestoresModel() {
+    ConnectFourModel model = new ConnectFourModelImpl(6, 7);
+    model.makeMove(2);
+    long key = model.getPositionKey();
+    Perft.perft(model, 4);
+    assertEquals(key, model.getPositionKey());
+    assertEquals(1, model.getBoard().getColumnHeight(2));
+  }
+
+  @Test
+  public void testGameEndsSequences() {
+    ConnectFourModel model = new ConnectFourModelImpl(6, 7);
+    for (int column : new int[] {0, 6, 1, 6, 2, 5}) {
+      model.makeMove(column);
+    }
+    // Red's winning move in column 3 is counted at depth 1 but not continued at depth 2.
+    assertEquals(7, Perft.perft(model, 1));
+    assertEquals(6 * 7, Perft.perft(model, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeDepth() {
+    Perft.perft(new ConnectFourModelImpl(6, 7), -1);
+  }
+}
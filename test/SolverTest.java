@@ -0,0 +1,197 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import ai.Solver;
+import ai.Solver.Solution;
+import ai.TranspositionTable;
+import java.util.Random;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.Player;
+import model.ReadOnlyBoard;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Solver class.
+ */
+public class SolverTest {
+  private Solver solver;
+
+  @Before
+  public void setUp() {
+    solver = new Solver(new TranspositionTable(16L << 20));
+  }
+
+  /**
+   * Scores a position by searching every move to the end of the game with plain alpha-beta.
+   */
+  private static int exhaustive(ConnectFourModel model, int alpha, int beta) {
+    ReadOnlyBoard board = model.getBoard();
+    int cells = board.getRows() * board.getColumns();
+    int moves = 0;
+    for (int column = 0; column < board.getColumns(); column++) {
+      moves += board.getColumnHeight(column);
+    }
+    if (model.isGameOver()) {
+      return model.getWinner() == null ? 0 : -(cells + 2 - moves) / 2;
+    }
+    int best = Integer.MIN_VALUE;
+    for (int column = 0; column < board.getColumns(); column++) {
+      if (board.getColumnHeight(column) < board.getRows()) {
+        model.makeMove(column);
+        int score = -exhaustive(model, -beta, -alpha);
+        model.undoMove();
+        best = Math.max(best, score);
+        alpha = Math.max(alpha, score);
+        if (alpha >= beta) {
+          break;
+        }
+      }
+    }
+    return best;
+  }
+
+  private static ConnectFourModel randomPosition(Random random, int rows, int columns,
+      int moves) {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    while (true) {
+      model.resetBoard();
+      int played = 0;
+      while (played < moves && !model.isGameOver()) {
+        int column = random.nextInt(columns);
+        if (model.getBoard().getColumnHeight(column) < rows) {
+          model.makeMove(column);
+          played++;
+        }
+      }
+      if (!model.isGameOver()) {
+        return model;
+      }
+    }
+  }
+
+  @Test
+  public void testMatchesExhaustiveSearch() {
+    Random random = new Random(11);
+    for (int i = 0; i < 40; i++) {
+      ConnectFourModel model = randomPosition(random, 6, 7, 28 + random.nextInt(6));
+      String before = model.toString();
+      int expected = exhaustive(model.copy(), -100, 100);
+      assertEquals(before, expected, solver.solve(model).getScore());
+      assertEquals(before, model.toString());
+    }
+  }
+
+  @Test
+  public void testSmallBoardsFromTheStart() {
+    int[][] sizes = {{4, 4}, {4, 5}, {5, 4}};
+    for (int[] size : sizes) {
+      ConnectFourModel model = ConnectFourModelFactory.createModel(size[0], size[1]);
+      int expected = exhaustive(model.copy(), -100, 100);
+      assertEquals(expected, solver.solve(model).getScore());
+    }
+  }
+
+  @Test
+  public void testReusedAcrossBoardSizes() {
+    int expected = new Solver(new TranspositionTable(16L << 20))
+        .solve(ConnectFourModelFactory.createModel(4, 6)).getScore();
+    int[][] sizes = {{4, 4}, {4, 5}, {5, 4}};
+    for (int[] size : sizes) {
+      solver.solve(ConnectFourModelFactory.createModel(size[0], size[1]));
+    }
+    assertEquals(expected, solver.solve(ConnectFourModelFactory.createModel(4, 6)).getScore());
+  }
+
+  @Test
+  public void testImmediateWin() {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    model.makeMoves(new int[] {0, 1, 0, 1, 0, 1}, 0, 6);
+    Solution solution = solver.solve(model);
+    assertEquals((42 + 1 - 6) / 2, solution.getScore());
+    assertEquals(Player.RED, solution.getWinner());
+    assertEquals(1, solution.getMovesToEnd());
+    assertTrue(solution.getNodes() > 0);
+  }
+
+  @Test
+  public void testForcedLoss() {
+    // Red has an open three on the bottom row, so yellow cannot stop both ends.
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    model.makeMoves(new int[] {2, 2, 3, 3, 4}, 0, 5);
+    Solution solution = solver.solve(model);
+    assertEquals(Player.RED, solution.getWinner());
+    assertEquals(2, solution.getMovesToEnd());
+    assertEquals(-(42 + 2 - 7) / 2, solution.getScore());
+  }
+
+  @Test
+  public void testDrawOnFullBoardMinusOne() {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(4, 4);
+    // Columns filled with alternating pairs so nobody ever lines up four.
+    model.makeMoves(new int[] {0, 1, 0, 1, 1, 0, 1, 0, 2, 3, 2, 3, 3, 2, 3}, 0, 15);
+    Solution solution = solver.solve(model);
+    assertEquals(0, solution.getScore());
+    assertNull(solution.getWinner());
+    assertEquals(1, solution.getMovesToEnd());
+  }
+
+  @Test
+  public void testSolveColumnsScoresEveryMove() {
+    Random random = new Random(5);
+    ConnectFourModel model = randomPosition(random, 6, 7, 30);
+    int[] scores = solver.solveColumns(model);
+    int best = Integer.MIN_VALUE;
+    for (int column = 0; column < 7; column++) {
+      if (model.getBoard().getColumnHeight(column) == 6) {
+        assertEquals(Integer.MIN_VALUE, scores[column]);
+        continue;
+      }
+      ConnectFourModel child = model.copy();
+      child.makeMove(column);
+      assertEquals(-exhaustive(child, -100, 100), scores[column]);
+      best = Math.max(best, scores[column]);
+    }
+    assertEquals(best, solver.solve(model).getScore());
+  }
+
+  @Test
+  public void testThreadsAgree() {
+    Solver parallel = new Solver(new TranspositionTable(16L << 20), 3);
+    try {
+      Random random = new Random(8);
+      int[] expected = new int[10];
+      int[] actual = new int[10];
+      for (int i = 0; i < expected.length; i++) {
+        ConnectFourModel model = randomPosition(random, 6, 7, 20);
+        expected[i] = solver.solve(model).getScore();
+        actual[i] = parallel.solve(model).getScore();
+      }
+      assertArrayEquals(expected, actual);
+    } finally {
+      parallel.shutdown();
+    }
+  }
+
+  @Test
+  public void testFits() {
+    assertTrue(Solver.fits(6, 7));
+    assertTrue(Solver.fits(7, 6));
+    assertTrue(!Solver.fits(8, 8));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBoardTooLarge() {
+    solver.solve(ConnectFourModelFactory.createModel(8, 8));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGameOver() {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    model.makeMoves(new int[] {0, 1, 0, 1, 0, 1, 0}, 0, 7);
+    solver.solve(model);
+  }
+}
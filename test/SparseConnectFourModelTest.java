@@ -0,0 +1,201 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.ConnectFourModelImpl;
+import model.MoveEvent;
+import model.MoveListener;
+import model.Player;
+import model.ReadOnlyBoard;
+import model.SparseConnectFourModel;
+import org.junit.Test;
+
+/**
+ * Test SparseConnectFourModel class.
+ */
+public class SparseConnectFourModelTest {
+
+  /**
+   * Listener that records every event as text.
+   */
+  private static class RecordingListener implements MoveListener {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void moveMade(MoveEvent event) {
+      events.add("made " + event);
+    }
+
+    @Override
+    public void moveUndone(MoveEvent event) {
+      events.add("undone " + event);
+    }
+
+    @Override
+    public void boardReset(ReadOnlyBoard board) {
+      events.add("reset");
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBoardInitialization() {
+    new SparseConnectFourModel(3, 10_000);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRunLength() {
+    new SparseConnectFourModel(6, 7, 1);
+  }
+
+  @Test
+  public void testFactoryPicksSparseModel() {
+    assertTrue(ConnectFourModelFactory.createModel(1024, 1024) instanceof ConnectFourModelImpl);
+    assertTrue(ConnectFourModelFactory.createModel(1024, 1025)
+        instanceof SparseConnectFourModel);
+    assertTrue(ConnectFourModelFactory.createModel(6, 7, 5) instanceof SparseConnectFourModel);
+    assertEquals(5, ((SparseConnectFourModel) ConnectFourModelFactory.createModel(6, 7, 5))
+        .getRunLength());
+  }
+
+  @Test
+  public void testMatchesReferenceModelOnRandomGames() {
+    Random random = new Random(25);
+    int[][] sizes = {{6, 7}, {4, 4}, {9, 11}, {4, 40}, {40, 4}};
+    for (int[] size : sizes) {
+      for (int game = 0; game < 100; game++) {
+        ConnectFourModel sparse = new SparseConnectFourModel(size[0], size[1]);
+        ConnectFourModel reference = new ConnectFourModelImpl(size[0], size[1]);
+        RecordingListener sparseEvents = new RecordingListener();
+        RecordingListener referenceEvents = new RecordingListener();
+        sparse.addMoveListener(sparseEvents);
+        reference.addMoveListener(referenceEvents);
+        while (!reference.isGameOver()) {
+          int column = random.nextInt(size[1]);
+          if (reference.getBoard().getColumnHeight(column) == size[0]) {
+            continue;
+          }
+          reference.makeMove(column);
+          sparse.makeMove(column);
+          if (random.nextInt(3) == 0) {
+            reference.undoMove();
+            sparse.undoMove();
+          }
+          assertEquals(reference.isGameOver(), sparse.isGameOver());
+          assertEquals(reference.getWinner(), sparse.getWinner());
+          assertEquals(reference.getTurn(), sparse.getTurn());
+          assertEquals(reference.getPositionKey(), sparse.getPositionKey());
+          assertEquals(reference.getCanonicalKey(), sparse.getCanonicalKey());
+          assertEquals(reference.getBoard().getColumnHeight(column),
+              sparse.getBoard().getColumnHeight(column));
+        }
+        assertArrayEquals(reference.getBoardState(), sparse.getBoardState());
+
+        ConnectFourModel copy = sparse.copy();
+        while (reference.canUndo()) {
+          reference.undoMove();
+          sparse.undoMove();
+        }
+        assertArrayEquals(reference.getBoardState(), sparse.getBoardState());
+        assertEquals(referenceEvents.events, sparseEvents.events);
+        assertTrue(copy.isGameOver());
+        assertEquals(reference.getPositionKey(), sparse.getPositionKey());
+      }
+    }
+  }
+
+  @Test
+  public void testHugeBoard() {
+    SparseConnectFourModel model = new SparseConnectFourModel(10_000, 10_000);
+    assertEquals(0, model.getBoard().getColumnHeight(9_999));
+    assertNull(model.getBoard().getCell(0, 0));
+    // Red builds a row on the floor at the far right while yellow stacks on the far left.
+    int[] moves = {9_996, 0, 9_997, 0, 9_998, 0, 9_999};
+    assertEquals(7, model.makeMoves(moves, 0, moves.length));
+    assertTrue(model.isGameOver());
+    assertEquals(Player.RED, model.getWinner());
+    assertEquals(Player.RED, model.getBoard().getCell(9_999, 9_999));
+    assertEquals(Player.YELLOW, model.getBoard().getCell(9_997, 0));
+    assertEquals(3, model.getBoard().getColumnHeight(0));
+
+    model.undoMove();
+    assertFalse(model.isGameOver());
+    assertNull(model.getBoard().getCell(9_999, 9_999));
+    model.redoMove();
+    assertEquals(Player.RED, model.getWinner());
+    assertEquals("10000x10000, connect 4, moves: 9996 0 9997 0 9998 0 9999", model.toString());
+  }
+
+  @Test
+  public void testManyMovesOnHugeBoard() {
+    SparseConnectFourModel model = new SparseConnectFourModel(10_000, 10_000);
+    // Columns in pairs, each pair alternating, never make a run of four.
+    for (int i = 0; i < 100_000 && !model.isGameOver(); i++) {
+      model.makeMove((i / 2) % 2 + 4 * ((i / 4) % 2_500));
+    }
+    assertFalse(model.isGameOver());
+    ConnectFourModel copy = model.copy();
+    while (model.canUndo()) {
+      model.undoMove();
+    }
+    assertEquals(0, model.getPositionKey());
+    assertFalse(copy.isGameOver());
+    assertTrue(copy.canUndo());
+  }
+
+  @Test
+  public void testConnectFiveNeedsFive() {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 9, 5);
+    int[] moves = {0, 0, 1, 1, 2, 2, 3, 3};
+    model.makeMoves(moves, 0, moves.length);
+    assertFalse(model.isGameOver());
+    model.makeMove(4);
+    assertTrue(model.isGameOver());
+    assertEquals(Player.RED, model.getWinner());
+  }
+
+  @Test
+  public void testDiagonalRun() {
+    ConnectFourModel model = new SparseConnectFourModel(6, 7, 3);
+    // Red at the bottom of column 0, the second cell of column 1 and the third of column 2.
+    int[] moves = {0, 1, 1, 2, 6, 2};
+    model.makeMoves(moves, 0, moves.length);
+    assertFalse(model.isGameOver());
+    model.makeMove(2);
+    assertEquals(Player.RED, model.getWinner());
+  }
+
+  @Test
+  public void testBoardFullDraw() {
+    ConnectFourModel model = new SparseConnectFourModel(4, 4, 5);
+    for (int column = 0; column < 4; column++) {
+      for (int row = 0; row < 4; row++) {
+        model.makeMove(column);
+      }
+    }
+    assertTrue(model.isGameOver());
+    assertNull(model.getWinner());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeMoveOutOfRange() {
+    new SparseConnectFourModel(10_000, 10_000).makeMove(10_000);
+  }
+
+  @Test
+  public void testResetBoard() {
+    ConnectFourModel model = new SparseConnectFourModel(100, 100_000);
+    model.makeMove(50_000);
+    model.resetBoard();
+    assertEquals(0, model.getBoard().getColumnHeight(50_000));
+    assertEquals(Player.RED, model.getTurn());
+    assertFalse(model.canUndo());
+    assertFalse(model.canRedo());
+  }
+}
@@ -0,0 +1,150 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ai.ThreatEvaluator;
+import java.util.Random;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import model.Player;
+import org.junit.Test;
+
+/**
+ * Test ThreatEvaluator class.
+ */
+public class ThreatEvaluatorTest {
+
+  private static ConnectFourModel play(int rows, int columns, int... moves) {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(rows, columns);
+    model.makeMoves(moves, 0, moves.length);
+    return model;
+  }
+
+  private static ThreatEvaluator loaded(ConnectFourModel model) {
+    ThreatEvaluator evaluator = new ThreatEvaluator(model.getBoard().getRows(),
+        model.getBoard().getColumns());
+    evaluator.load(model.getBoard());
+    return evaluator;
+  }
+
+  private static void assertSameState(ThreatEvaluator expected, ThreatEvaluator actual) {
+    for (Player player : Player.values()) {
+      assertEquals(expected.evaluate(player), actual.evaluate(player));
+      assertEquals(expected.getThreats(player), actual.getThreats(player));
+      assertEquals(expected.getDoubleThreats(player), actual.getDoubleThreats(player));
+      assertEquals(expected.getPlayableThreats(player), actual.getPlayableThreats(player));
+    }
+  }
+
+  @Test
+  public void testEmptyBoardIsEven() {
+    ThreatEvaluator evaluator = new ThreatEvaluator(6, 7);
+    assertEquals(0, evaluator.evaluate(Player.RED));
+    assertEquals(0, evaluator.evaluate(Player.YELLOW));
+  }
+
+  @Test
+  public void testCenterIsWorthMoreThanEdge() {
+    ThreatEvaluator center = loaded(play(6, 7, 3));
+    ThreatEvaluator edge = loaded(play(6, 7, 0));
+    assertTrue(center.evaluate(Player.YELLOW) < edge.evaluate(Player.YELLOW));
+    assertTrue(center.evaluate(Player.YELLOW) < 0);
+  }
+
+  @Test
+  public void testPlayableThreatWinsForPlayerToMove() {
+    // Red has three on the bottom row with both ends open.
+    ThreatEvaluator evaluator = loaded(play(6, 7, 1, 1, 2, 2, 3));
+    assertEquals(2, evaluator.getThreats(Player.RED));
+    assertEquals(2, evaluator.getPlayableThreats(Player.RED));
+    assertEquals(ThreatEvaluator.FORCED_SCORE, evaluator.evaluate(Player.RED));
+    assertEquals(-ThreatEvaluator.FORCED_SCORE, evaluator.evaluate(Player.YELLOW));
+  }
+
+  @Test
+  public void testBlockedThreatIsRemoved() {
+    ConnectFourModel model = play(6, 7, 0, 6, 0, 6, 0);
+    ThreatEvaluator evaluator = loaded(model);
+    assertEquals(1, evaluator.getThreats(Player.RED));
+    assertEquals(1, evaluator.getPlayableThreats(Player.RED));
+    evaluator.play(0, Player.YELLOW);
+    assertEquals(0, evaluator.getThreats(Player.RED));
+    assertEquals(0, evaluator.getPlayableThreats(Player.RED));
+    evaluator.undo(0);
+    assertEquals(1, evaluator.getThreats(Player.RED));
+  }
+
+  @Test
+  public void testStackedThreatsAreADoubleThreat() {
+    ThreatEvaluator evaluator = new ThreatEvaluator(6, 7);
+    // Red discs at heights 0 and 1 of columns 1 to 3 make threats at heights 0 and 1 of
+    // column 4, and of column 0.
+    for (int column = 1; column <= 3; column++) {
+      evaluator.play(column, Player.RED);
+      evaluator.play(column, Player.RED);
+    }
+    assertEquals(4, evaluator.getThreats(Player.RED));
+    assertEquals(2, evaluator.getDoubleThreats(Player.RED));
+    assertEquals(2, evaluator.getPlayableThreats(Player.RED));
+  }
+
+  @Test
+  public void testThreatParity() {
+    // A red threat on the second row suits yellow, and the same threat with the colors swapped
+    // suits its owner, so it is worth more.
+    Player[] bottom = {Player.YELLOW, Player.RED, Player.YELLOW};
+    Player[] swapped = {Player.RED, Player.YELLOW, Player.RED};
+    ThreatEvaluator red = new ThreatEvaluator(6, 7);
+    ThreatEvaluator yellow = new ThreatEvaluator(6, 7);
+    for (int column = 0; column < 3; column++) {
+      red.play(column, bottom[column]);
+      yellow.play(column, swapped[column]);
+    }
+    for (int column = 0; column < 3; column++) {
+      red.play(column, Player.RED);
+      yellow.play(column, Player.YELLOW);
+    }
+    assertEquals(1, red.getThreats(Player.RED));
+    assertEquals(0, red.getPlayableThreats(Player.RED));
+    assertEquals(1, yellow.getThreats(Player.YELLOW));
+    assertEquals(0, yellow.getPlayableThreats(Player.YELLOW));
+    assertTrue(yellow.evaluate(Player.YELLOW) > red.evaluate(Player.RED));
+  }
+
+  @Test
+  public void testIncrementalMatchesFromScratch() {
+    Random random = new Random(21);
+    int[][] sizes = {{6, 7}, {4, 4}, {7, 9}, {5, 12}};
+    for (int[] size : sizes) {
+      for (int game = 0; game < 50; game++) {
+        ConnectFourModel model = ConnectFourModelFactory.createModel(size[0], size[1]);
+        ThreatEvaluator evaluator = new ThreatEvaluator(size[0], size[1]);
+        model.addMoveListener(evaluator);
+        while (!model.isGameOver()) {
+          int column = random.nextInt(size[1]);
+          if (model.getBoard().getColumnHeight(column) == size[0]) {
+            continue;
+          }
+          model.makeMove(column);
+          if (random.nextInt(4) == 0) {
+            model.undoMove();
+          }
+          assertSameState(loaded(model), evaluator);
+        }
+        while (model.canUndo()) {
+          model.undoMove();
+        }
+        assertSameState(new ThreatEvaluator(size[0], size[1]), evaluator);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBoardTooSmall() {
+    new ThreatEvaluator(3, 7);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadOtherSize() {
+    new ThreatEvaluator(6, 7).load(ConnectFourModelFactory.createModel(7, 6).getBoard());
+  }
+}
@@ -0,0 +1,76 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ai.ComputerPlayer;
+import ai.RandomPlayer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import model.ConnectFourModel;
+import model.ConnectFourModelFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test Tournament class.
+ */
+public class TournamentTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRandomPlayerFillsBoard() {
+    ConnectFourModel model = ConnectFourModelFactory.createModel(6, 7);
+    ComputerPlayer player = new RandomPlayer(7);
+    int moves = 0;
+    while (!model.isGameOver()) {
+      model.makeMove(player.chooseColumn(model));
+      moves++;
+    }
+    assertTrue(moves >= 7 && moves <= 42);
+  }
+
+  @Test
+  public void testPlaysEveryGame() {
+    Tournament.Result result = Tournament.play(6, 7, 20, 3, "random", "random");
+    assertEquals(20, result.getGames());
+    assertEquals(20, result.getFirstWins() + result.getSecondWins() + result.getDraws());
+    assertTrue(result.getAverageLength() >= 7 && result.getAverageLength() <= 42);
+    assertTrue(result.getGamesPerSecond() > 0);
+    assertTrue(result.getLatencyPercentile(50) <= result.getLatencyPercentile(99));
+    assertTrue(result.getLatencyPercentile(99) <= result.getLatencyPercentile(100));
+  }
+
+  @Test
+  public void testSearchBeatsRandom() {
+    Tournament.Result result = Tournament.play(6, 7, 4, 2, "alphabeta:20", "random");
+    assertEquals(4, result.getFirstWins());
+  }
+
+  @Test
+  public void testJournalsAreDeletedOnceGamesEnd() throws IOException {
+    Path journals = folder.newFolder().toPath();
+    Tournament.Result result = Tournament.play(6, 7, 6, 2, "random", "random", null, journals);
+    assertEquals(6, result.getGames());
+    try (Stream<Path> files = Files.list(journals)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownPlayer() {
+    Tournament.play(6, 7, 2, 1, "random", "oracle");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingTime() {
+    Tournament.createPlayer("mcts", 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBoard() {
+    Tournament.play(3, 3, 2, 1, "random", "random");
+  }
+}
@@ -0,0 +1,80 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ai.TranspositionTable;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test TranspositionTable class.
+ */
+public class TranspositionTableTest {
+  private TranspositionTable table;
+
+  @Before
+  public void setUp() {
+    table = new TranspositionTable(1 << 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooSmall() {
+    new TranspositionTable(8);
+  }
+
+  @Test
+  public void testCapacityIsPowerOfTwo() {
+    assertEquals(64, table.getCapacity());
+    assertEquals(64, new TranspositionTable(1500).getCapacity());
+  }
+
+  @Test
+  public void testStoreAndProbe() {
+    table.store(12345L, -42, 7, TranspositionTable.LOWER_BOUND, 3);
+    long entry = table.probe(12345L);
+    assertEquals(-42, TranspositionTable.score(entry));
+    assertEquals(7, TranspositionTable.depth(entry));
+    assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+    assertEquals(3, TranspositionTable.move(entry));
+  }
+
+  @Test
+  public void testMissAndCollision() {
+    assertEquals(TranspositionTable.MISS, table.probe(5L));
+    table.store(5L, 1, 1, TranspositionTable.EXACT, TranspositionTable.NO_MOVE);
+    assertEquals(TranspositionTable.MISS, table.probe(5L + 64));
+    assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(table.probe(5L)));
+    assertEquals(1.0 / 3, table.getCollisionRate(), 1e-9);
+    assertEquals(1.0 / 3, table.getHitRate(), 1e-9);
+  }
+
+  @Test
+  public void testDepthPreferredReplacement() {
+    table.store(9L, 10, 8, TranspositionTable.EXACT, 1);
+    table.store(9L + 64, 20, 3, TranspositionTable.EXACT, 2);
+    assertEquals(10, TranspositionTable.score(table.probe(9L)));
+
+    table.store(9L + 64, 30, 8, TranspositionTable.EXACT, 2);
+    assertEquals(30, TranspositionTable.score(table.probe(9L + 64)));
+  }
+
+  @Test
+  public void testNewSearchAllowsReplacingOldEntries() {
+    table.store(9L, 10, 8, TranspositionTable.EXACT, 1);
+    table.newSearch();
+    table.store(9L + 64, 20, 1, TranspositionTable.EXACT, 2);
+    assertEquals(20, TranspositionTable.score(table.probe(9L + 64)));
+  }
+
+  @Test
+  public void testOccupancyAndClear() {
+    for (long key = 0; key < 32; key++) {
+      table.store(key, 0, 1, TranspositionTable.EXACT, 0);
+    }
+    assertEquals(0.5, table.getOccupancy(), 1e-9);
+    assertTrue(table.toString().contains("occupancy 50.0%"));
+
+    table.clear();
+    assertEquals(0.0, table.getOccupancy(), 1e-9);
+    assertEquals(TranspositionTable.MISS, table.probe(3L));
+  }
+}